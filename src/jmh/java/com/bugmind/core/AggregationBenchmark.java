@@ -0,0 +1,57 @@
+package com.bugmind.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link LogLevelAggregator} and {@link LogMetricsAnalyzer} over pre-parsed entries;
+ * the 1M case crosses the aggregator's parallel threshold.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AggregationBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    private List<ParsedLog> logs;
+    private final LogLevelAggregator aggregator = new LogLevelAggregator();
+    private final LogMetricsAnalyzer analyzer = new LogMetricsAnalyzer();
+
+    @Setup
+    public void setup() {
+        logs = new SyntheticLogGenerator(3).logs(size);
+    }
+
+    @Benchmark
+    public Map<String, Long> aggregateByLevel() {
+        return aggregator.aggregateByLevel(logs);
+    }
+
+    @Benchmark
+    public LevelCounts countByLevel() {
+        return aggregator.countByLevel(logs);
+    }
+
+    @Benchmark
+    public LogMetricsAnalyzer.LogMetrics computeMetrics() {
+        return analyzer.computeMetrics(logs);
+    }
+}
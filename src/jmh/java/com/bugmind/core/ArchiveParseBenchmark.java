@@ -0,0 +1,79 @@
+package com.bugmind.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Parsing a gzip archive with {@link LogArchiveParser}: one member (a single
+ * streaming decompressor) versus the same text as 256 KiB members, which are
+ * decompressed and parsed in parallel.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ArchiveParseBenchmark {
+
+    private static final int MEMBER_BYTES = 256 * 1024;
+
+    @Param("200000")
+    public int entries;
+
+    private Path singleMember;
+    private Path multiMember;
+
+    @Setup
+    public void setup() throws IOException {
+        byte[] text = new SyntheticLogGenerator(23).text(SyntheticLogGenerator.Shape.TRACE_HEAVY, entries)
+                .getBytes(StandardCharsets.UTF_8);
+        singleMember = Files.createTempFile("bench", ".log.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(singleMember))) {
+            out.write(text);
+        }
+        multiMember = Files.createTempFile("bench", ".log.gz");
+        try (OutputStream file = Files.newOutputStream(multiMember)) {
+            for (int pos = 0; pos < text.length; pos += MEMBER_BYTES) {
+                GZIPOutputStream member = new GZIPOutputStream(file);
+                member.write(text, pos, Math.min(MEMBER_BYTES, text.length - pos));
+                member.finish();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(singleMember);
+        Files.deleteIfExists(multiMember);
+    }
+
+    @Benchmark
+    public List<ParsedLog> singleMember() throws IOException {
+        return new LogArchiveParser().parseFile(singleMember);
+    }
+
+    @Benchmark
+    public List<ParsedLog> multiMember() throws IOException {
+        return new LogArchiveParser().parseFile(multiMember);
+    }
+}
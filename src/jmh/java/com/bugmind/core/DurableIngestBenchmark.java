@@ -0,0 +1,77 @@
+package com.bugmind.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * {@link LogRepository#add} throughput from 8 threads: in memory, with a
+ * write-ahead log that waits for group commits, and with one that does not.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Threads(8)
+public class DurableIngestBenchmark {
+
+    @Param({"memory", "wal-wait", "wal-nowait"})
+    public String mode;
+
+    private List<ParsedLog> logs;
+    private final AtomicInteger next = new AtomicInteger();
+    private Path dir;
+    private WriteAheadLog wal;
+    private LogRepository repository;
+
+    @Setup(Level.Iteration)
+    public void setup() throws IOException {
+        logs = new SyntheticLogGenerator(5).logs(1 << 16);
+        if (mode.equals("memory")) {
+            repository = new LogRepository(new ChunkedLogStore());
+            return;
+        }
+        dir = Files.createTempDirectory("wal-bench");
+        wal = new WriteAheadLog(dir, new WriteAheadLog.Options().waitForSync(mode.equals("wal-wait")));
+        repository = new LogRepository(new ChunkedLogStore(), wal);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        if (wal != null) {
+            wal.close();
+            try (Stream<Path> files = Files.walk(dir)) {
+                for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void add() {
+        repository.add(logs.get(next.getAndIncrement() & (logs.size() - 1)));
+    }
+}
@@ -0,0 +1,141 @@
+package com.bugmind.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares per-line classification through the former header regex against
+ * {@link LogLineScanner}. The corpus is frame-heavy, like production traffic.
+ * The dialect pair reads a logback corpus with the compiled
+ * {@link LogDialect#LOGBACK} versus trying one regex per known layout.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeaderScanBenchmark {
+
+    private static final Pattern HEADER_PATTERN =
+            Pattern.compile("^\\[([0-9T:\\-\\./\\s]+(?:Z|[+\\-][0-9]{2}:[0-9]{2})?)\\]\\s*(INFO|WARN|ERROR|DEBUG)\\s*-\\s*(.*)$");
+
+    // One regex per layout, tried in turn, as a multi-format regex parser would
+    private static final Pattern[] LAYOUT_PATTERNS = {
+            HEADER_PATTERN,
+            Pattern.compile("^(\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}\\.\\d{3})\\s*\\[([^\\]]*)\\]\\s*(TRACE|DEBUG|INFO|WARN|ERROR|FATAL)\\s*(\\S+)\\s*-\\s*(.*)$"),
+            Pattern.compile("^(\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2},\\d{3})\\s*(TRACE|DEBUG|INFO|WARN|ERROR|FATAL)\\s*\\[([^\\]]*)\\]\\s*(\\S+)\\s*-\\s*(.*)$"),
+            Pattern.compile("^([A-Z][a-z]{2}\\s+\\d{1,2} \\d{2}:\\d{2}:\\d{2})\\s*(\\S+)\\s*([^:\\s]+):\\s*(.*)$")
+    };
+
+    private String[] lines;
+    private String[] logbackLines;
+    private final LogLineScanner scanner = new LogLineScanner();
+    private final LogLineScanner logbackScanner = new LogLineScanner(LogDialect.LOGBACK);
+
+    @Setup
+    public void setup() {
+        lines = new String[] {
+                "[2025-10-27 21:10:00.123] ERROR - Operation failed while processing order 42",
+                "    at com.example.Service.run(Service.java:21)",
+                "    at com.example.Executor.exec(Executor.java:11)",
+                "    at com.example.Dispatcher.dispatch(Dispatcher.java:77)",
+                "    at com.example.Dispatcher.dispatch(Dispatcher.java:88)",
+                "Caused by: java.io.IOException: failed to read",
+                "    at com.example.IO.read(IO.java:25)",
+                "[2025-10-27T21:10:01+05:30] INFO - Request served in 12 ms",
+                "  extra continuation text",
+                ""
+        };
+        logbackLines = new String[] {
+                "2025-10-27 21:10:00.123 [http-nio-8080-exec-1] ERROR com.example.Service - Operation failed for order 42",
+                "    at com.example.Service.run(Service.java:21)",
+                "    at com.example.Executor.exec(Executor.java:11)",
+                "    at com.example.Dispatcher.dispatch(Dispatcher.java:77)",
+                "    at com.example.Dispatcher.dispatch(Dispatcher.java:88)",
+                "Caused by: java.io.IOException: failed to read",
+                "    at com.example.IO.read(IO.java:25)",
+                "2025-10-27 21:10:01.000 [main] INFO  com.example.Api - Request served in 12 ms",
+                "  extra continuation text",
+                ""
+        };
+    }
+
+    @Benchmark
+    public void regex(Blackhole bh) {
+        for (String line : lines) {
+            Matcher m = HEADER_PATTERN.matcher(line);
+            if (m.find()) {
+                bh.consume(m.group(1));
+                bh.consume(m.group(2));
+                bh.consume(m.group(3));
+            } else {
+                String t = line.stripLeading();
+                if (t.startsWith("at ") || t.startsWith("at\t")) {
+                    bh.consume(1);
+                } else if (line.trim().startsWith("Caused by:")) {
+                    bh.consume(2);
+                } else {
+                    bh.consume(line.isBlank());
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void scanner(Blackhole bh) {
+        for (String line : lines) {
+            LogLineScanner.LineKind kind = scanner.scan(line);
+            if (kind == LogLineScanner.LineKind.HEADER) {
+                bh.consume(scanner.timestampEnd());
+                bh.consume(scanner.levelEnd());
+                bh.consume(scanner.messageEnd());
+            } else {
+                bh.consume(kind);
+            }
+        }
+    }
+
+    @Benchmark
+    public void regexPerLayout(Blackhole bh) {
+        for (String line : logbackLines) {
+            boolean header = false;
+            for (Pattern layout : LAYOUT_PATTERNS) {
+                Matcher m = layout.matcher(line);
+                if (m.find()) {
+                    bh.consume(m.group(1));
+                    header = true;
+                    break;
+                }
+            }
+            bh.consume(header);
+        }
+    }
+
+    @Benchmark
+    public void compiledDialect(Blackhole bh) {
+        for (String line : logbackLines) {
+            LogLineScanner.LineKind kind = logbackScanner.scan(line);
+            if (kind == LogLineScanner.LineKind.HEADER) {
+                bh.consume(logbackScanner.timestampKey());
+                bh.consume(logbackScanner.level());
+                bh.consume(logbackScanner.messageEnd());
+            } else {
+                bh.consume(kind);
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.bugmind.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Backfill of a trace-heavy corpus into a fresh repository: one thread
+ * parsing and adding entry by entry versus {@link IngestionPipeline}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class IngestionPipelineBenchmark {
+
+    @Param("100000")
+    public int entries;
+
+    private String text;
+    private IngestionPipeline.Options options;
+
+    @Setup
+    public void setup() {
+        text = new SyntheticLogGenerator(13).text(SyntheticLogGenerator.Shape.TRACE_HEAVY, entries);
+        options = new IngestionPipeline.Options();
+    }
+
+    @Benchmark
+    public LogRepository sequential() {
+        LogRepository repository = new LogRepository(new ChunkedLogStore());
+        try (Stream<ParsedLog> logs = new LogParser().parse(new StringReader(text))) {
+            logs.forEach(repository::add);
+        }
+        return repository;
+    }
+
+    @Benchmark
+    public LogRepository pipeline() throws IOException {
+        LogRepository repository = new LogRepository(new ChunkedLogStore());
+        try (IngestionPipeline pipeline = new IngestionPipeline(new LogParser(), repository, List.of(), options)) {
+            pipeline.ingest(new StringReader(text));
+        }
+        return repository;
+    }
+}
@@ -0,0 +1,62 @@
+package com.bugmind.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Parses 10k-entry synthetic corpora end to end, from a String through
+ * {@link LogParser#parseLogs(String)} and from UTF-8 bytes through
+ * {@link LogParser#parse(java.io.InputStream)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogParserBenchmark {
+
+    @Param({"SINGLE_LINE", "TRACE_HEAVY", "MIXED_TIMESTAMPS"})
+    public String shape;
+
+    @Param("10000")
+    public int entries;
+
+    private String text;
+    private byte[] utf8;
+    private final LogParser parser = new LogParser();
+
+    @Setup
+    public void setup() {
+        text = new SyntheticLogGenerator(42).text(SyntheticLogGenerator.Shape.valueOf(shape), entries);
+        utf8 = text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<ParsedLog> parseLogs() {
+        return parser.parseLogs(text);
+    }
+
+    @Benchmark
+    public List<ParsedLog> parseBytes() {
+        try (Stream<ParsedLog> logs = parser.parse(new ByteArrayInputStream(utf8))) {
+            return logs.collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.bugmind.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Level queries against a repository filled once per trial. The 10M case needs
+ * several GB of heap, hence the larger -Xmx on the forked JVM.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class LogRepositoryBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"chunked", "columnar"})
+    public String store;
+
+    private LogRepository repository;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        repository = new LogRepository(store.equals("columnar") ? new ColumnarLogStore() : new ChunkedLogStore());
+        SyntheticLogGenerator generator = new SyntheticLogGenerator(1);
+        int batch = 100_000;
+        for (int added = 0; added < size; added += batch) {
+            generator.logs(Math.min(batch, size - added)).forEach(repository::add);
+        }
+        // A one-hour window near the start of the data
+        from = LocalDateTime.of(2025, 10, 30, 1, 0);
+        to = from.plusHours(1);
+    }
+
+    @Benchmark
+    public List<ParsedLog> errorsSortedDesc() {
+        return repository.findByLevelsSorted(List.of("ERROR"), true);
+    }
+
+    @Benchmark
+    public List<ParsedLog> warnAndErrorSortedAsc() {
+        return repository.findByLevelsSorted(List.of("WARN", "ERROR"), false);
+    }
+
+    @Benchmark
+    public List<ParsedLog> errorsInOneHour() {
+        return repository.findByLevelsAndRange(List.of("ERROR"), from, to, false, 0);
+    }
+}
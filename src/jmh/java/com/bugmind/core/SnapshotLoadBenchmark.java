@@ -0,0 +1,67 @@
+package com.bugmind.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup cost: rebuilding a repository by re-parsing the raw log versus
+ * loading a {@link LogSnapshot} of the same entries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SnapshotLoadBenchmark {
+
+    @Param("500000")
+    public int entries;
+
+    private Path logFile;
+    private Path snapshotFile;
+
+    @Setup
+    public void setup() throws IOException {
+        String text = new SyntheticLogGenerator(9).text(SyntheticLogGenerator.Shape.TRACE_HEAVY, entries);
+        logFile = Files.createTempFile("bench", ".log");
+        Files.writeString(logFile, text);
+        snapshotFile = Files.createTempFile("bench", ".snap");
+        new LogSnapshot().write(new LogParser().parseLogs(text), snapshotFile);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(logFile);
+        Files.deleteIfExists(snapshotFile);
+    }
+
+    @Benchmark
+    public LogRepository reparse() throws IOException {
+        LogRepository repository = new LogRepository(new ChunkedLogStore());
+        new LogFileParser().parseFile(logFile, repository::add);
+        return repository;
+    }
+
+    @Benchmark
+    public LogRepository loadSnapshot() throws IOException {
+        LogRepository repository = new LogRepository(new ChunkedLogStore());
+        new LogSnapshot().load(snapshotFile, repository);
+        return repository;
+    }
+}
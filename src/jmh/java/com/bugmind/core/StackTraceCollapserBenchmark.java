@@ -0,0 +1,42 @@
+package com.bugmind.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collapses a single trace of {@code frames} frames (plus a cause with half as many).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StackTraceCollapserBenchmark {
+
+    @Param({"8", "40", "200"})
+    public int frames;
+
+    private String trace;
+
+    @Setup
+    public void setup() {
+        trace = new SyntheticLogGenerator(7).trace(frames);
+    }
+
+    @Benchmark
+    public StackTraceCollapser.Result collapseAndExtract() {
+        return StackTraceCollapser.collapseAndExtract(trace, 12);
+    }
+}
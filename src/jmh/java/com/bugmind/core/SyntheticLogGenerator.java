@@ -0,0 +1,110 @@
+package com.bugmind.core;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Reproducible log corpora for the benchmarks. The same seed and shape always
+ * produce the same text, so numbers from different runs are comparable.
+ */
+final class SyntheticLogGenerator {
+
+    /** Corpus shapes the parser benchmarks run against. */
+    enum Shape {
+        /** One line per entry, canonical timestamps. */
+        SINGLE_LINE,
+        /** Every other entry carries a 20-40 frame trace with causes. */
+        TRACE_HEAVY,
+        /** Single lines in every timestamp format the normalizer accepts. */
+        MIXED_TIMESTAMPS
+    }
+
+    private static final String[] LEVELS = {"INFO", "INFO", "INFO", "DEBUG", "WARN", "ERROR"};
+    private static final String[] ROOTS = {
+            "java.io.IOException", "java.lang.IllegalStateException", "java.sql.SQLException",
+            "java.util.concurrent.TimeoutException"
+    };
+    private static final DateTimeFormatter[] FORMATS = {
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS"),
+            DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss"),
+            DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm:ss"),
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'"),
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'+05:30'")
+    };
+    private static final LocalDateTime START = LocalDateTime.of(2025, 10, 30, 0, 0);
+
+    private final Random random;
+    private LocalDateTime clock = START;
+
+    SyntheticLogGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /** Returns {@code entries} log entries of the given shape as one text block. */
+    String text(Shape shape, int entries) {
+        StringBuilder out = new StringBuilder(entries * 96);
+        for (int i = 0; i < entries; i++) {
+            tick();
+            String level = LEVELS[random.nextInt(LEVELS.length)];
+            DateTimeFormatter format = shape == Shape.MIXED_TIMESTAMPS
+                    ? FORMATS[random.nextInt(FORMATS.length)] : FORMATS[0];
+            out.append('[').append(clock.format(format)).append("] ").append(level).append(" - ")
+                    .append("Request ").append(random.nextInt(100_000)).append(" handled by worker-")
+                    .append(random.nextInt(16)).append('\n');
+            if (shape == Shape.TRACE_HEAVY && (i & 1) == 1) {
+                appendTrace(out);
+            }
+        }
+        return out.toString();
+    }
+
+    /** Returns one entry's message body with a stack trace of {@code frames} frames. */
+    String trace(int frames) {
+        StringBuilder out = new StringBuilder("Operation failed\n");
+        appendFrames(out, frames);
+        out.append("Caused by: ").append(ROOTS[random.nextInt(ROOTS.length)]).append(": root cause\n");
+        appendFrames(out, frames / 2);
+        return out.toString();
+    }
+
+    /** Returns {@code count} pre-parsed entries with canonical timestamps and mixed levels. */
+    List<ParsedLog> logs(int count) {
+        DateTimeFormatter format = FORMATS[0];
+        List<ParsedLog> logs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tick();
+            String level = LEVELS[random.nextInt(LEVELS.length)];
+            boolean failed = level.equals("ERROR");
+            logs.add(new ParsedLog(clock.format(format), level, "Request " + random.nextInt(100_000),
+                    failed ? ROOTS[random.nextInt(ROOTS.length)] : null));
+        }
+        return logs;
+    }
+
+    private void tick() {
+        // Mostly increasing with some same-second bursts, like a busy service
+        if (random.nextInt(4) != 0) {
+            clock = clock.plusSeconds(1 + random.nextInt(3));
+        }
+    }
+
+    private void appendTrace(StringBuilder out) {
+        out.append("    at com.example.Web.handle(Web.java:").append(10 + random.nextInt(50)).append(")\n");
+        appendFrames(out, 20 + random.nextInt(21));
+        out.append("Caused by: ").append(ROOTS[random.nextInt(ROOTS.length)]).append(": timeout\n");
+        appendFrames(out, 5 + random.nextInt(10));
+    }
+
+    private void appendFrames(StringBuilder out, int frames) {
+        for (int f = 0; f < frames; f++) {
+            int module = random.nextInt(8);
+            out.append("    at com.example.module").append(module).append(".Service").append(module)
+                    .append(".step").append(f).append("(Service").append(module).append(".java:")
+                    .append(20 + f).append(")\n");
+        }
+    }
+}
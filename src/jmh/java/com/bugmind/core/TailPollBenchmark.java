@@ -0,0 +1,83 @@
+package com.bugmind.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picking up 50 appended entries from a live file: one {@link LogFileTailer}
+ * poll versus re-parsing the whole file. The tailer's cost should not move
+ * with {@code existingEntries}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TailPollBenchmark {
+
+    @Param({"1000", "100000"})
+    public int existingEntries;
+
+    private byte[] existing;
+    private byte[] appended;
+    private Path file;
+    private LogFileTailer tailer;
+
+    @Setup
+    public void setup() throws IOException {
+        SyntheticLogGenerator generator = new SyntheticLogGenerator(21);
+        existing = generator.text(SyntheticLogGenerator.Shape.TRACE_HEAVY, existingEntries)
+                .getBytes(StandardCharsets.UTF_8);
+        appended = generator.text(SyntheticLogGenerator.Shape.TRACE_HEAVY, 50).getBytes(StandardCharsets.UTF_8);
+        file = Files.createTempFile("bench", ".log");
+    }
+
+    // The file grows with every invocation, so it is reset for each iteration
+    @Setup(Level.Iteration)
+    public void resetFile() throws IOException {
+        if (tailer != null) {
+            tailer.close();
+        }
+        Files.write(file, existing);
+        tailer = new LogFileTailer(file, new LogParser(), new LogFileTailer.Options().startAtEnd(true));
+        tailer.poll();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        tailer.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public List<ParsedLog> tailerPoll() throws IOException {
+        Files.write(file, appended, StandardOpenOption.APPEND);
+        return tailer.poll();
+    }
+
+    @Benchmark
+    public List<ParsedLog> reparseWholeFile() throws IOException {
+        Files.write(file, appended, StandardOpenOption.APPEND);
+        return new LogFileParser().parseFile(file);
+    }
+}
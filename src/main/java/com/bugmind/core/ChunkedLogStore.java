@@ -0,0 +1,78 @@
+package com.bugmind.core;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Default {@link LogStore}: keeps entry references in fixed-size, append-only
+ * chunks so growing never copies the already stored entries.
+ * <p>
+ * Appends are lock-free: a sequence number is reserved with a single atomic
+ * increment and the entry is published with a volatile store into its slot.
+ * A lock is only taken once per chunk, to install the next chunk.
+ */
+public class ChunkedLogStore implements LogStore {
+
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final AtomicInteger reserved = new AtomicInteger();
+    private volatile AtomicReferenceArray<AtomicReferenceArray<ParsedLog>> directory =
+            new AtomicReferenceArray<>(16);
+
+    @Override
+    public int add(ParsedLog log) {
+        int seq = reserved.getAndIncrement();
+        if (seq < 0) {
+            throw new IllegalStateException("ChunkedLogStore is full");
+        }
+        chunkFor(seq).set(seq & CHUNK_MASK, log);
+        return seq;
+    }
+
+    @Override
+    public int size() {
+        return Math.max(0, reserved.get());
+    }
+
+    @Override
+    public ParsedLog get(int seq) {
+        if (seq < 0 || seq >= size()) {
+            throw new IndexOutOfBoundsException("seq " + seq + " out of bounds for size " + size());
+        }
+        int index = seq >>> CHUNK_SHIFT;
+        AtomicReferenceArray<AtomicReferenceArray<ParsedLog>> dir = directory;
+        AtomicReferenceArray<ParsedLog> chunk = index < dir.length() ? dir.get(index) : null;
+        return chunk == null ? null : chunk.get(seq & CHUNK_MASK);
+    }
+
+    private AtomicReferenceArray<ParsedLog> chunkFor(int seq) {
+        int index = seq >>> CHUNK_SHIFT;
+        AtomicReferenceArray<AtomicReferenceArray<ParsedLog>> dir = directory;
+        if (index < dir.length()) {
+            AtomicReferenceArray<ParsedLog> chunk = dir.get(index);
+            if (chunk != null) {
+                return chunk;
+            }
+        }
+        synchronized (this) {
+            dir = directory;
+            if (index >= dir.length()) {
+                AtomicReferenceArray<AtomicReferenceArray<ParsedLog>> grown =
+                        new AtomicReferenceArray<>(Math.max(dir.length() * 2, index + 1));
+                for (int i = 0; i < dir.length(); i++) {
+                    grown.set(i, dir.get(i));
+                }
+                directory = grown;
+                dir = grown;
+            }
+            AtomicReferenceArray<ParsedLog> chunk = dir.get(index);
+            if (chunk == null) {
+                chunk = new AtomicReferenceArray<>(CHUNK_SIZE);
+                dir.set(index, chunk);
+            }
+            return chunk;
+        }
+    }
+}
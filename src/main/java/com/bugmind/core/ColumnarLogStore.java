@@ -0,0 +1,252 @@
+package com.bugmind.core;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Memory-compact {@link LogStore} that keeps entries as columns instead of objects.
+ * <ul>
+ *   <li>timestamps as epoch seconds in a {@code long[]}</li>
+ *   <li>levels as byte codes into a small dictionary</li>
+ *   <li>exception types as int codes into a dictionary</li>
+ *   <li>messages as UTF-8 bytes in a shared, block-allocated arena</li>
+ * </ul>
+ * Timestamp strings that are not the canonical rendering of the parsed value
+ * (or could not be parsed at all) are kept in a sparse side table.
+ * {@link #get(int)} materializes a fresh {@link ParsedLog} view per call.
+ * <p>
+ * Appends are serialized; reads take no lock. Column arrays are replaced,
+ * never resized in place, and an entry becomes visible only after all of its
+ * columns have been written.
+ */
+public class ColumnarLogStore implements LogStore {
+
+    private static final DateTimeFormatter CANONICAL = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int NULL_CODE = 0;
+    private static final int MAX_LEVELS = 255;
+    private static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+    // Stands in for a null timestamp string, which the concurrent side table cannot hold
+    @SuppressWarnings("StringOperationCanBeSimplified")
+    private static final String NULL_TIMESTAMP = new String("");
+
+    private final int blockSize;
+
+    private volatile Columns columns = new Columns(1024);
+    private volatile int size;
+
+    private final StringDictionary levels = new StringDictionary();
+    private final StringDictionary exceptionTypes = new StringDictionary();
+
+    // Rare cases kept out of the columns
+    private final Map<Integer, String> rawTimestamps = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> nanos = new ConcurrentHashMap<>();
+
+    private volatile byte[][] blocks = new byte[4][];
+    private long arenaSize;
+
+    public ColumnarLogStore() {
+        this(DEFAULT_BLOCK_SIZE);
+    }
+
+    ColumnarLogStore(int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize must be positive");
+        }
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public synchronized int add(ParsedLog log) {
+        int seq = size;
+        Columns c = ensureCapacity(seq + 1);
+
+        LocalDateTime parsed = log.getParsedTimestamp();
+        String timestamp = log.getTimestamp();
+        if (parsed == null) {
+            c.epochSeconds[seq] = NO_TIMESTAMP;
+            rawTimestamps.put(seq, timestamp == null ? NULL_TIMESTAMP : timestamp);
+        } else {
+            c.epochSeconds[seq] = parsed.toEpochSecond(ZoneOffset.UTC);
+            if (parsed.getNano() != 0) {
+                nanos.put(seq, parsed.getNano());
+            }
+            if (timestamp == null || timestamp.length() != 19 || !timestamp.equals(CANONICAL.format(parsed))) {
+                rawTimestamps.put(seq, timestamp == null ? NULL_TIMESTAMP : timestamp);
+            }
+        }
+
+        c.levelCodes[seq] = (byte) encodeLevel(log.getLevel());
+        c.exceptionCodes[seq] = log.getExceptionType() == null
+                ? NULL_CODE
+                : exceptionTypes.encode(log.getExceptionType()) + 1;
+
+        String message = log.getMessage();
+        if (message == null) {
+            c.messageLengths[seq] = -1;
+        } else {
+            byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+            c.messageOffsets[seq] = arenaSize;
+            c.messageLengths[seq] = bytes.length;
+            writeToArena(bytes);
+        }
+
+        size = seq + 1;
+        return seq;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public ParsedLog get(int seq) {
+        checkIndex(seq);
+        Columns c = columns;
+        LocalDateTime parsed = timestampAt(c, seq);
+        String raw = rawTimestamps.get(seq);
+        String timestamp = raw == null ? CANONICAL.format(parsed) : raw == NULL_TIMESTAMP ? null : raw;
+        int exceptionCode = c.exceptionCodes[seq];
+        return new ParsedLog(
+                timestamp,
+                level(seq),
+                messageAt(c, seq),
+                exceptionCode == NULL_CODE ? null : exceptionTypes.decode(exceptionCode - 1),
+                parsed);
+    }
+
+    @Override
+    public String level(int seq) {
+        checkIndex(seq);
+        int code = columns.levelCodes[seq] & 0xFF;
+        return code == NULL_CODE ? null : levels.decode(code - 1);
+    }
+
+    @Override
+    public long epochSecond(int seq) {
+        checkIndex(seq);
+        return columns.epochSeconds[seq];
+    }
+
+    @Override
+    public int nano(int seq) {
+        checkIndex(seq);
+        // Most logs have whole-second timestamps; skip the boxed lookup then
+        return nanos.isEmpty() ? 0 : nanos.getOrDefault(seq, 0);
+    }
+
+    private LocalDateTime timestampAt(Columns c, int seq) {
+        long seconds = c.epochSeconds[seq];
+        if (seconds == NO_TIMESTAMP) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(seconds, nanos.getOrDefault(seq, 0), ZoneOffset.UTC);
+    }
+
+    private String messageAt(Columns c, int seq) {
+        int length = c.messageLengths[seq];
+        if (length < 0) {
+            return null;
+        }
+        long offset = c.messageOffsets[seq];
+        byte[][] blocks = this.blocks;
+        int block = (int) (offset / blockSize);
+        int pos = (int) (offset % blockSize);
+        if (pos + length <= blockSize) {
+            return new String(blocks[block], pos, length, StandardCharsets.UTF_8);
+        }
+        // Message spans blocks: gather it first
+        byte[] bytes = new byte[length];
+        int copied = 0;
+        while (copied < length) {
+            int n = Math.min(length - copied, blockSize - pos);
+            System.arraycopy(blocks[block], pos, bytes, copied, n);
+            copied += n;
+            block++;
+            pos = 0;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int encodeLevel(String level) {
+        if (level == null) {
+            return NULL_CODE;
+        }
+        int code = levels.encode(level) + 1;
+        if (code > MAX_LEVELS) {
+            throw new IllegalStateException("ColumnarLogStore supports at most " + MAX_LEVELS + " distinct levels");
+        }
+        return code;
+    }
+
+    private void writeToArena(byte[] bytes) {
+        byte[][] blocks = this.blocks;
+        int written = 0;
+        while (written < bytes.length) {
+            int block = (int) (arenaSize / blockSize);
+            int pos = (int) (arenaSize % blockSize);
+            if (block == blocks.length) {
+                blocks = Arrays.copyOf(blocks, blocks.length * 2);
+                this.blocks = blocks;
+            }
+            if (blocks[block] == null) {
+                blocks[block] = new byte[blockSize];
+            }
+            int n = Math.min(bytes.length - written, blockSize - pos);
+            System.arraycopy(bytes, written, blocks[block], pos, n);
+            written += n;
+            arenaSize += n;
+        }
+    }
+
+    private Columns ensureCapacity(int needed) {
+        Columns c = columns;
+        if (needed > c.epochSeconds.length) {
+            c = c.grow(Math.max(needed, c.epochSeconds.length * 2));
+            columns = c;
+        }
+        return c;
+    }
+
+    private void checkIndex(int seq) {
+        if (seq < 0 || seq >= size) {
+            throw new IndexOutOfBoundsException("seq " + seq + " out of bounds for size " + size);
+        }
+    }
+
+    /** One generation of the column arrays; replaced as a whole when it fills up. */
+    private static final class Columns {
+        final long[] epochSeconds;
+        final byte[] levelCodes;
+        final int[] exceptionCodes;
+        final long[] messageOffsets;
+        final int[] messageLengths;
+
+        Columns(int capacity) {
+            this(new long[capacity], new byte[capacity], new int[capacity], new long[capacity], new int[capacity]);
+        }
+
+        private Columns(long[] epochSeconds, byte[] levelCodes, int[] exceptionCodes,
+                        long[] messageOffsets, int[] messageLengths) {
+            this.epochSeconds = epochSeconds;
+            this.levelCodes = levelCodes;
+            this.exceptionCodes = exceptionCodes;
+            this.messageOffsets = messageOffsets;
+            this.messageLengths = messageLengths;
+        }
+
+        Columns grow(int capacity) {
+            return new Columns(
+                    Arrays.copyOf(epochSeconds, capacity),
+                    Arrays.copyOf(levelCodes, capacity),
+                    Arrays.copyOf(exceptionCodes, capacity),
+                    Arrays.copyOf(messageOffsets, capacity),
+                    Arrays.copyOf(messageLengths, capacity));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.bugmind.core;
+
+/**
+ * Collapsed message stored as frame ids into a {@link FrameDictionary} plus
+ * the text of the other lines. {@link #render()} rebuilds exactly the text
+ * {@link StackTraceCollapser} would have produced; nothing is cached.
+ */
+final class CompactMessage {
+
+    /** Token for "the next line of {@link #text}". */
+    static final int TEXT_LINE = -1;
+
+    private final FrameDictionary frames;
+    // Frame ids, or TEXT_LINE, one per line in order
+    private final int[] tokens;
+    // Non-frame lines joined by '\n' (lines never contain '\n')
+    private final String text;
+    private final int omittedFrames;
+
+    CompactMessage(FrameDictionary frames, int[] tokens, String text, int omittedFrames) {
+        this.frames = frames;
+        this.tokens = tokens;
+        this.text = text;
+        this.omittedFrames = omittedFrames;
+    }
+
+    String render() {
+        String lineSeparator = System.lineSeparator();
+        StringBuilder out = new StringBuilder(text.length() + tokens.length * 64);
+        int textPos = 0;
+        for (int token : tokens) {
+            if (token == TEXT_LINE) {
+                int end = text.indexOf('\n', textPos);
+                if (end < 0) {
+                    end = text.length();
+                }
+                out.append(text, textPos, end);
+                textPos = end + 1;
+            } else {
+                out.append(frames.frame(token));
+            }
+            out.append(lineSeparator);
+        }
+        if (omittedFrames > 0) {
+            out.append("… (").append(omittedFrames).append(" more)");
+        }
+        int start = LogLineScanner.trimStart(out, 0, out.length());
+        return out.substring(start, LogLineScanner.trimEnd(out, start, out.length()));
+    }
+}
@@ -0,0 +1,178 @@
+package com.bugmind.core;
+
+/**
+ * Computes stable 64-bit signatures for failures, so identical errors can be
+ * grouped without comparing messages.
+ * <p>
+ * The signature is a 64-bit FNV-1a hash of the root exception type and the
+ * first {@code frames} stack frames of the root cause (the frames after the
+ * last {@code Caused by:} line, or the leading frames if there is none).
+ * Deep traces whose cause frames were cut by the parser's frame cap fall back
+ * to the leading frames as well, so they are not grouped by type alone.
+ * Frames are normalized before hashing: surrounding whitespace and the
+ * {@code at} prefix are dropped, generated lambda class ids are erased and,
+ * unless requested, line numbers are removed, so the same failure hashes the
+ * same across builds and JVM runs.
+ */
+public class ExceptionFingerprinter {
+
+    /** Returned for entries without an exception type. */
+    public static final long NONE = 0L;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final String LAMBDA_MARKER = "$$Lambda";
+
+    private final int frames;
+    private final boolean includeLineNumbers;
+
+    /** Root cause plus its top 5 frames, ignoring line numbers. */
+    public ExceptionFingerprinter() {
+        this(5, false);
+    }
+
+    public ExceptionFingerprinter(int frames, boolean includeLineNumbers) {
+        if (frames < 0) {
+            throw new IllegalArgumentException("frames must not be negative");
+        }
+        this.frames = frames;
+        this.includeLineNumbers = includeLineNumbers;
+    }
+
+    /**
+     * Returns the signature of the entry's failure, or {@link #NONE} if it has
+     * no exception type.
+     */
+    public long fingerprint(ParsedLog log) {
+        String type = log.getExceptionType();
+        if (type == null || type.isBlank()) {
+            return NONE;
+        }
+        long hash = FNV_OFFSET;
+        hash = mix(hash, type, LogLineScanner.trimStart(type, 0, type.length()),
+                LogLineScanner.trimEnd(type, 0, type.length()));
+
+        String message = log.getMessage();
+        if (message != null && frames > 0) {
+            int start = rootCauseStart(message);
+            if (start > 0 && !hasFrame(message, start)) {
+                // The frame cap cut every frame of the cause; the outer frames still tell failures apart
+                start = 0;
+            }
+            hash = mixFrames(hash, message, start);
+        }
+        // Keep NONE reserved for "no failure"
+        return hash == NONE ? 1L : hash;
+    }
+
+    /** Mixes up to {@code frames} frame lines of {@code message}, starting at {@code start}. */
+    private long mixFrames(long hash, String message, int start) {
+        int n = message.length();
+        int taken = 0;
+        for (int lineStart = start; lineStart < n && taken < frames; ) {
+            int lineEnd = message.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = n;
+            }
+            int from = LogLineScanner.trimStart(message, lineStart, lineEnd);
+            int to = LogLineScanner.trimEnd(message, from, lineEnd);
+            if (isFrame(message, from, to)) {
+                hash = mixFrame(hash, message, from + 3, to);
+                taken++;
+            }
+            lineStart = lineEnd + 1;
+        }
+        return hash;
+    }
+
+    /** Renders a signature as 16 lowercase hex digits. */
+    public static String toHex(long fingerprint) {
+        String hex = Long.toHexString(fingerprint);
+        return "0".repeat(16 - hex.length()) + hex;
+    }
+
+    /**
+     * Offset of the first line after the last line starting (after leading
+     * whitespace) with "Caused by:", or 0. This is the rule the collapser uses,
+     * so "Caused by:" inside the text of a line is not a cause.
+     */
+    private static int rootCauseStart(String message) {
+        int n = message.length();
+        int start = 0;
+        for (int lineStart = 0; lineStart < n; ) {
+            int lineEnd = message.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = n;
+            }
+            if (LogLineScanner.startsWith(message, LogLineScanner.trimStart(message, lineStart, lineEnd), "Caused by:")) {
+                start = Math.min(lineEnd + 1, n);
+            }
+            lineStart = lineEnd + 1;
+        }
+        return start;
+    }
+
+    private static boolean hasFrame(String message, int start) {
+        int n = message.length();
+        for (int lineStart = start; lineStart < n; ) {
+            int lineEnd = message.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = n;
+            }
+            int from = LogLineScanner.trimStart(message, lineStart, lineEnd);
+            if (isFrame(message, from, LogLineScanner.trimEnd(message, from, lineEnd))) {
+                return true;
+            }
+            lineStart = lineEnd + 1;
+        }
+        return false;
+    }
+
+    private static boolean isFrame(String s, int from, int to) {
+        return to - from > 3 && s.charAt(from) == 'a' && s.charAt(from + 1) == 't'
+                && (s.charAt(from + 2) == ' ' || s.charAt(from + 2) == '\t');
+    }
+
+    /** Hashes one frame, skipping lambda ids and (optionally) line numbers. */
+    private long mixFrame(long hash, String s, int from, int to) {
+        hash = mix(hash, '\n');
+        int i = LogLineScanner.trimStart(s, from, to);
+        while (i < to) {
+            char c = s.charAt(i);
+            if (c == '$' && LogLineScanner.startsWith(s, i, LAMBDA_MARKER)) {
+                hash = mix(hash, s, i, i + LAMBDA_MARKER.length());
+                i += LAMBDA_MARKER.length();
+                // Erase "$123/0x0000000800c0b000" style suffixes
+                while (i < to && s.charAt(i) != '.' && s.charAt(i) != '(') {
+                    i++;
+                }
+                continue;
+            }
+            if (c == ':' && !includeLineNumbers && i + 1 < to && Character.isDigit(s.charAt(i + 1))) {
+                int j = i + 1;
+                while (j < to && Character.isDigit(s.charAt(j))) {
+                    j++;
+                }
+                if (j < to && s.charAt(j) == ')') {
+                    i = j;
+                    continue;
+                }
+            }
+            hash = mix(hash, c);
+            i++;
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            hash = mix(hash, s.charAt(i));
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, char c) {
+        hash = (hash ^ (c & 0xFF)) * FNV_PRIME;
+        return (hash ^ (c >>> 8)) * FNV_PRIME;
+    }
+}
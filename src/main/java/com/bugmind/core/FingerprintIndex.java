@@ -0,0 +1,162 @@
+package com.bugmind.core;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Groups failures by {@link ExceptionFingerprinter} signature.
+ * <p>
+ * Each distinct signature keeps a count, the first and last event time seen
+ * and the first entry as a sample. Updates are lock-free (striped counters on
+ * a concurrent map), so the index can be fed from ingestion threads while it
+ * is being queried; {@link #top(int)} costs O(groups), independent of how many
+ * entries were seen. Attach it with {@link LogRepository#addListener}.
+ */
+public class FingerprintIndex implements Consumer<ParsedLog> {
+
+    private final ExceptionFingerprinter fingerprinter;
+    private final Map<Long, Group> groups = new ConcurrentHashMap<>();
+
+    public FingerprintIndex() {
+        this(new ExceptionFingerprinter());
+    }
+
+    public FingerprintIndex(ExceptionFingerprinter fingerprinter) {
+        this.fingerprinter = Objects.requireNonNull(fingerprinter, "fingerprinter must not be null");
+    }
+
+    /** Records the entry if it carries an exception; other entries are ignored. */
+    @Override
+    public void accept(ParsedLog log) {
+        long fingerprint = fingerprinter.fingerprint(log);
+        if (fingerprint == ExceptionFingerprinter.NONE) {
+            return;
+        }
+        Group group = groups.get(fingerprint);
+        if (group == null) {
+            group = groups.computeIfAbsent(fingerprint, k -> new Group(k, log));
+        }
+        group.count.increment();
+        LocalDateTime timestamp = log.getParsedTimestamp();
+        if (timestamp != null) {
+            long second = timestamp.toEpochSecond(ZoneOffset.UTC);
+            group.firstSeen.accumulate(second);
+            group.lastSeen.accumulate(second);
+        }
+    }
+
+    /** Number of distinct signatures seen. */
+    public int size() {
+        return groups.size();
+    }
+
+    /** Snapshot of one group, or null if the signature is unknown. */
+    public ErrorGroup get(long fingerprint) {
+        Group group = groups.get(fingerprint);
+        return group == null ? null : group.snapshot();
+    }
+
+    /** The {@code n} most frequent failures, most frequent first. */
+    public List<ErrorGroup> top(int n) {
+        return top(n, null);
+    }
+
+    /**
+     * The {@code n} most frequent failures last seen at or after {@code since}
+     * (null for no filter), most frequent first. Ties go to the most recent.
+     */
+    public List<ErrorGroup> top(int n, LocalDateTime since) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be positive");
+        }
+        long sinceSecond = since == null ? Long.MIN_VALUE : since.toEpochSecond(ZoneOffset.UTC);
+        Comparator<ErrorGroup> order = Comparator.comparingLong(ErrorGroup::getCount)
+                .thenComparing(ErrorGroup::getLastSeen, Comparator.nullsFirst(Comparator.naturalOrder()));
+        // Min-heap of the best n seen so far
+        PriorityQueue<ErrorGroup> best = new PriorityQueue<>(n + 1, order);
+        for (Group group : groups.values()) {
+            if (since != null && group.lastSeen.get() < sinceSecond) {
+                continue;
+            }
+            best.add(group.snapshot());
+            if (best.size() > n) {
+                best.poll();
+            }
+        }
+        List<ErrorGroup> result = new ArrayList<>(best);
+        result.sort(order.reversed());
+        return result;
+    }
+
+    /** Forgets all groups, e.g. at the start of a new day. */
+    public void clear() {
+        groups.clear();
+    }
+
+    private static final class Group {
+        final long fingerprint;
+        final ParsedLog sample;
+        final LongAdder count = new LongAdder();
+        final LongAccumulator firstSeen = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        final LongAccumulator lastSeen = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+        Group(long fingerprint, ParsedLog sample) {
+            this.fingerprint = fingerprint;
+            this.sample = sample;
+        }
+
+        ErrorGroup snapshot() {
+            long first = firstSeen.get();
+            long last = lastSeen.get();
+            return new ErrorGroup(fingerprint, sample, count.sum(),
+                    first == Long.MAX_VALUE ? null : LocalDateTime.ofEpochSecond(first, 0, ZoneOffset.UTC),
+                    last == Long.MIN_VALUE ? null : LocalDateTime.ofEpochSecond(last, 0, ZoneOffset.UTC));
+        }
+    }
+
+    /**
+     * Point-in-time view of one failure group.
+     */
+    public static class ErrorGroup {
+        private final long fingerprint;
+        private final ParsedLog sample;
+        private final long count;
+        private final LocalDateTime firstSeen;
+        private final LocalDateTime lastSeen;
+
+        public ErrorGroup(long fingerprint, ParsedLog sample, long count,
+                          LocalDateTime firstSeen, LocalDateTime lastSeen) {
+            this.fingerprint = fingerprint;
+            this.sample = sample;
+            this.count = count;
+            this.firstSeen = firstSeen;
+            this.lastSeen = lastSeen;
+        }
+
+        public long getFingerprint() { return fingerprint; }
+        public String getFingerprintHex() { return ExceptionFingerprinter.toHex(fingerprint); }
+        public String getExceptionType() { return sample.getExceptionType(); }
+        public ParsedLog getSample() { return sample; }
+        public long getCount() { return count; }
+        /** Earliest event time, to the second; null if no entry had a parseable timestamp. */
+        public LocalDateTime getFirstSeen() { return firstSeen; }
+        /** Latest event time, to the second; null if no entry had a parseable timestamp. */
+        public LocalDateTime getLastSeen() { return lastSeen; }
+
+        @Override
+        public String toString() {
+            return getFingerprintHex() + " " + getExceptionType() + " x" + count
+                    + " [" + firstSeen + " → " + lastSeen + "]";
+        }
+    }
+}
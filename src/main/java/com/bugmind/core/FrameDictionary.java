@@ -0,0 +1,125 @@
+package com.bugmind.core;
+
+import java.util.Arrays;
+
+/**
+ * Interns stack frame lines to dense int ids, so entries that repeat the same
+ * frames can share one copy of each.
+ * <p>
+ * Lookups hash the caller's character range directly and take no lock; only
+ * a frame seen for the first time allocates a string and enters the
+ * synchronized insert path. Ids are never reused and frames are never
+ * removed, so share one dictionary per process (or per ingestion job).
+ */
+public class FrameDictionary {
+
+    private volatile String[] frames = new String[256];
+    private volatile int size;
+    // Open-addressing table of id + 1 (0 marks a free slot); length is a power of two
+    private volatile int[] table = new int[512];
+
+    /** Returns the id of {@code s[from, to)}, adding it if unseen. */
+    public int intern(CharSequence s, int from, int to) {
+        int hash = hash(s, from, to);
+        int id = find(hash, s, from, to);
+        return id >= 0 ? id : insert(hash, s, from, to);
+    }
+
+    public int intern(String frame) {
+        return intern(frame, 0, frame.length());
+    }
+
+    /** Returns the frame text for an id handed out by {@link #intern}. */
+    public String frame(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("frame id " + id + " out of bounds for size " + size);
+        }
+        return frames[id];
+    }
+
+    /** Number of distinct frames interned so far. */
+    public int size() {
+        return size;
+    }
+
+    private int find(int hash, CharSequence s, int from, int to) {
+        int[] t = table;
+        String[] f = frames;
+        int mask = t.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = t[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            int id = entry - 1;
+            // An entry racing with its insert may not be visible yet; the locked path re-checks
+            String candidate = id < f.length ? f[id] : null;
+            if (candidate == null) {
+                return -1;
+            }
+            if (matches(candidate, s, from, to)) {
+                return id;
+            }
+        }
+    }
+
+    private synchronized int insert(int hash, CharSequence s, int from, int to) {
+        int id = find(hash, s, from, to);
+        if (id >= 0) {
+            return id;
+        }
+        id = size;
+        String[] f = frames;
+        if (id == f.length) {
+            f = Arrays.copyOf(f, f.length * 2);
+        }
+        f[id] = s.subSequence(from, to).toString();
+        frames = f;
+
+        int[] t = table;
+        if ((id + 1) * 2 > t.length) {
+            t = rehash(t.length * 2, f, id);
+        }
+        place(t, hash, id);
+        table = t;
+        size = id + 1;
+        return id;
+    }
+
+    private static int[] rehash(int capacity, String[] f, int count) {
+        int[] t = new int[capacity];
+        for (int id = 0; id < count; id++) {
+            place(t, hash(f[id], 0, f[id].length()), id);
+        }
+        return t;
+    }
+
+    private static void place(int[] t, int hash, int id) {
+        int mask = t.length - 1;
+        int slot = hash & mask;
+        while (t[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        t[slot] = id + 1;
+    }
+
+    private static boolean matches(String candidate, CharSequence s, int from, int to) {
+        if (candidate.length() != to - from) {
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            if (candidate.charAt(i - from) != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(CharSequence s, int from, int to) {
+        int h = 0;
+        for (int i = from; i < to; i++) {
+            h = 31 * h + s.charAt(i);
+        }
+        return h ^ (h >>> 16);
+    }
+}
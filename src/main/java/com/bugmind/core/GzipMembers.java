@@ -0,0 +1,349 @@
+package com.bugmind.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Decodes runs of consecutive members of a gzip file (RFC 1952) into parsed
+ * entries, so that {@link LogArchiveParser} can decode several runs at once.
+ * <p>
+ * Member boundaries are not indexed in gzip, so runs start at speculative
+ * header matches ({@link #findCandidate}); the caller only keeps a run whose
+ * start is where the previous run actually ended. Members may cut lines and
+ * entries anywhere, so each {@link Piece} keeps the raw text before its first
+ * header line and after its last one for the caller to stitch together.
+ */
+final class GzipMembers {
+
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+    private static final int RESERVED = 0xE0;
+    private static final int FIXED_HEADER_BYTES = 10;
+    private static final int TRAILER_BYTES = 8;
+    private static final int IO_BYTES = 64 * 1024;
+
+    /** Decoded run of members [start, end). */
+    static final class Piece {
+        final long start;
+        final long end;
+        // Text before the first header line; the whole text if there is none
+        final byte[] prefix;
+        // Entries that start and end inside the piece
+        final List<ParsedLog> entries;
+        // Raw text of the first of those entries, to re-parse it behind text carried from before any header
+        final byte[] head;
+        // Text from the last header line on, completed by the following pieces
+        final byte[] tail;
+        final boolean hasHeader;
+
+        Piece(long start, long end, byte[] prefix, List<ParsedLog> entries, byte[] head, byte[] tail,
+              boolean hasHeader) {
+            this.start = start;
+            this.end = end;
+            this.prefix = prefix;
+            this.entries = entries;
+            this.head = head;
+            this.tail = tail;
+            this.hasHeader = hasHeader;
+        }
+    }
+
+    private final FileChannel channel;
+    private final long size;
+    private final LogParser parser;
+
+    GzipMembers(FileChannel channel, long size, LogParser parser) {
+        this.channel = channel;
+        this.size = size;
+        this.parser = parser;
+    }
+
+    /**
+     * Returns the offset of the first byte sequence at or after {@code from}
+     * that looks like a member header, or -1. Compressed data can contain such
+     * a sequence by chance, so the result is only a candidate.
+     */
+    long findCandidate(long from) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(IO_BYTES);
+        long pos = from;
+        while (pos < size) {
+            buffer.clear();
+            int read = channel.read(buffer, pos);
+            if (read < 4) {
+                return -1;
+            }
+            for (int i = 0; i + 3 < read; i++) {
+                if (buffer.get(i) == 0x1f && buffer.get(i + 1) == (byte) 0x8b && buffer.get(i + 2) == 8
+                        && (buffer.get(i + 3) & RESERVED) == 0) {
+                    return pos + i;
+                }
+            }
+            pos += read - 3;
+        }
+        return -1;
+    }
+
+    /**
+     * Decodes members from {@code start} until one ends at or after
+     * {@code nominalEnd}. Bytes at a member boundary that do not form a
+     * header are ignored to the end of the file, as {@link java.util.zip.GZIPInputStream}
+     * does.
+     *
+     * @param atStart true if the piece starts the text, so its first line is whole
+     * @throws ZipException if a member is corrupt or truncated
+     */
+    Piece read(long start, long nominalEnd, boolean atStart) throws IOException {
+        PieceBuilder out = new PieceBuilder(atStart);
+        Inflater inflater = new Inflater(true);
+        try {
+            long pos = start;
+            while (pos < size) {
+                long data = skipHeader(pos);
+                if (data < 0) {
+                    if (pos == 0) {
+                        throw new ZipException("Not in GZIP format");
+                    }
+                    pos = size;
+                    break;
+                }
+                pos = inflateMember(pos, data, inflater, out);
+                if (pos >= nominalEnd) {
+                    break;
+                }
+            }
+            return out.finish(start, Math.min(pos, size));
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /** Returns the offset of the member's compressed data, or -1 if no header starts at {@code pos}. */
+    private long skipHeader(long pos) throws IOException {
+        ByteBuffer header = readFully(pos, FIXED_HEADER_BYTES);
+        if (header == null || header.get(0) != 0x1f || header.get(1) != (byte) 0x8b || header.get(2) != 8) {
+            return -1;
+        }
+        int flags = header.get(3) & 0xFF;
+        if ((flags & RESERVED) != 0) {
+            return -1;
+        }
+        long p = pos + FIXED_HEADER_BYTES;
+        if ((flags & FEXTRA) != 0) {
+            ByteBuffer length = readFully(p, 2);
+            if (length == null) {
+                return -1;
+            }
+            p += 2 + (length.getShort(0) & 0xFFFF);
+        }
+        if ((flags & FNAME) != 0) {
+            p = skipZeroTerminated(p);
+        }
+        if (p >= 0 && (flags & FCOMMENT) != 0) {
+            p = skipZeroTerminated(p);
+        }
+        if (p >= 0 && (flags & FHCRC) != 0) {
+            p += 2;
+        }
+        return p >= 0 && p <= size ? p : -1;
+    }
+
+    private long skipZeroTerminated(long pos) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        while (pos < size) {
+            buffer.clear();
+            int read = channel.read(buffer, pos);
+            if (read <= 0) {
+                return -1;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == 0) {
+                    return pos + i + 1;
+                }
+            }
+            pos += read;
+        }
+        return -1;
+    }
+
+    /** Inflates one member into {@code out} and returns the offset just past its trailer. */
+    private long inflateMember(long memberStart, long data, Inflater inflater, PieceBuilder out) throws IOException {
+        inflater.reset();
+        CRC32 crc = new CRC32();
+        byte[] in = new byte[IO_BYTES];
+        byte[] decoded = new byte[IO_BYTES];
+        long fedAt = data;
+        int fed = 0;
+        long produced = 0;
+        while (!inflater.finished()) {
+            if (inflater.needsInput()) {
+                fedAt += fed;
+                fed = channel.read(ByteBuffer.wrap(in), fedAt);
+                if (fed <= 0) {
+                    throw corrupt(memberStart, "member is truncated");
+                }
+                inflater.setInput(in, 0, fed);
+            }
+            int n;
+            try {
+                n = inflater.inflate(decoded);
+            } catch (DataFormatException e) {
+                throw corrupt(memberStart, e.getMessage());
+            }
+            if (n == 0 && inflater.needsDictionary()) {
+                throw corrupt(memberStart, "preset dictionaries are not allowed");
+            }
+            crc.update(decoded, 0, n);
+            produced += n;
+            out.accept(decoded, 0, n);
+        }
+        long dataEnd = fedAt + fed - inflater.getRemaining();
+        ByteBuffer trailer = readFully(dataEnd, TRAILER_BYTES);
+        if (trailer == null) {
+            throw corrupt(memberStart, "member is truncated");
+        }
+        if (trailer.getInt(0) != (int) crc.getValue() || trailer.getInt(4) != (int) produced) {
+            throw corrupt(memberStart, "CRC or size mismatch");
+        }
+        return dataEnd + TRAILER_BYTES;
+    }
+
+    /** Little-endian view of {@code length} bytes at {@code pos}, or null past the end of the file. */
+    private ByteBuffer readFully(long pos, int length) throws IOException {
+        if (pos + length > size) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, pos + buffer.position()) <= 0) {
+                return null;
+            }
+        }
+        return buffer;
+    }
+
+    private static ZipException corrupt(long offset, String reason) {
+        return new ZipException("Corrupt gzip member at offset " + offset + ": " + reason);
+    }
+
+    /**
+     * Parses {@code text} as a complete run of lines, with a fresh assembler,
+     * and pushes every entry it holds to the sink.
+     */
+    static void parseText(LogParser parser, byte[] text, Consumer<? super ParsedLog> sink) {
+        LogParser.EntryAssembler assembler = parser.newAssembler();
+        LineBuffer line = new LineBuffer();
+        int lineStart = 0;
+        for (int i = 0; i < text.length; i++) {
+            if (text[i] == '\n') {
+                line.append(text, lineStart, i - lineStart);
+                emit(line.drainTo(assembler), sink);
+                lineStart = i + 1;
+            }
+        }
+        if (lineStart < text.length) {
+            line.append(text, lineStart, text.length - lineStart);
+            emit(line.drainTo(assembler), sink);
+        }
+        emit(assembler.finish(), sink);
+    }
+
+    private static void emit(ParsedLog entry, Consumer<? super ParsedLog> sink) {
+        if (entry != null) {
+            sink.accept(entry);
+        }
+    }
+
+    /**
+     * Splits decoded bytes into lines. Entries between the first and the last
+     * header line are parsed here; the text around them is kept raw.
+     */
+    private final class PieceBuilder {
+        private final LogParser.EntryAssembler assembler = parser.newAssembler();
+        // Lines not starting with this character are never headers, so are not decoded to check
+        private final int leadingChar = parser.dialect().leadingChar();
+        private final List<ParsedLog> entries = new ArrayList<>();
+        private final LineBuffer line = new LineBuffer();
+        private final LineBuffer prefix = new LineBuffer();
+        // Raw text of the entry being assembled
+        private final LineBuffer entry = new LineBuffer();
+        private byte[] head;
+        private boolean inEntries;
+        private boolean sawHeader;
+        // The first line of a piece that does not start the text may be a fragment
+        private boolean firstLine;
+
+        PieceBuilder(boolean atStart) {
+            this.inEntries = atStart;
+            this.firstLine = !atStart;
+        }
+
+        void accept(byte[] bytes, int offset, int count) {
+            int lineStart = offset;
+            for (int i = offset; i < offset + count; i++) {
+                if (bytes[i] == '\n') {
+                    line.append(bytes, lineStart, i - lineStart);
+                    completeLine();
+                    lineStart = i + 1;
+                }
+            }
+            line.append(bytes, lineStart, offset + count - lineStart);
+        }
+
+        private void completeLine() {
+            boolean fragment = firstLine;
+            firstLine = false;
+            boolean header = (leadingChar < 0 || line.startsWith((char) leadingChar)) && parser.isHeader(line.decode());
+            if (!inEntries) {
+                if (fragment || !header) {
+                    line.copyTo(prefix);
+                    prefix.append((byte) '\n');
+                    line.clear();
+                    return;
+                }
+                inEntries = true;
+            }
+            if (header) {
+                // Text before the very first header belongs to that header's entry
+                if (sawHeader) {
+                    if (head == null) {
+                        head = entry.toByteArray();
+                    }
+                    entry.clear();
+                }
+                sawHeader = true;
+            }
+            line.copyTo(entry);
+            entry.append((byte) '\n');
+            ParsedLog completed = line.drainTo(assembler);
+            if (completed != null) {
+                entries.add(completed);
+            }
+        }
+
+        Piece finish(long start, long end) {
+            if (!inEntries) {
+                line.copyTo(prefix);
+                return new Piece(start, end, prefix.toByteArray(), List.of(), new byte[0], new byte[0], false);
+            }
+            // The assembler's pending entry is dropped; the tail is parsed again once it is complete
+            line.copyTo(entry);
+            if (!sawHeader) {
+                // Start of the text without a header yet: all of it is prefix
+                return new Piece(start, end, entry.toByteArray(), List.of(), new byte[0], new byte[0], false);
+            }
+            return new Piece(start, end, prefix.toByteArray(), entries, head == null ? new byte[0] : head,
+                    entry.toByteArray(), true);
+        }
+    }
+}
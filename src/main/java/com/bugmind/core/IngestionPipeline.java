@@ -0,0 +1,368 @@
+package com.bugmind.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+/**
+ * Batched, multi-threaded ingestion from raw text into a {@link LogRepository}.
+ * <pre>
+ *   reader (calling thread) → parse + collapse (parserThreads)
+ *       → enrich (enricherThreads) → store (one sink thread, input order)
+ * </pre>
+ * The reader cuts the input into batches of about {@link Options#batchLines}
+ * lines that always start on a header line, so every entry is parsed whole
+ * by one worker. Batches are stored with {@link LogRepository#addAll} in input
+ * order, so the repository ends up exactly as if the text had been parsed
+ * sequentially. Repository listeners (histograms, fingerprint indexes, ...)
+ * therefore see entries in input order too.
+ * <p>
+ * At most {@link Options#maxBatchesInFlight} batches exist at any time; when
+ * the store falls behind, the reader blocks, which bounds memory no matter
+ * how large the input is.
+ */
+public class IngestionPipeline implements Closeable {
+
+    /** Tuning knobs; every setter returns this options object. */
+    public static final class Options {
+        private int batchLines = 4096;
+        private int parserThreads = Runtime.getRuntime().availableProcessors();
+        private int enricherThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        private int maxBatchesInFlight = 4 * Runtime.getRuntime().availableProcessors();
+
+        /** Lines per batch; a batch is extended up to the next header line. */
+        public Options batchLines(int lines) {
+            this.batchLines = checkPositive(lines, "batchLines");
+            return this;
+        }
+
+        public Options parserThreads(int threads) {
+            this.parserThreads = checkPositive(threads, "parserThreads");
+            return this;
+        }
+
+        /** Threads running the enrichers; unused when there are none. */
+        public Options enricherThreads(int threads) {
+            this.enricherThreads = checkPositive(threads, "enricherThreads");
+            return this;
+        }
+
+        /** Batches read but not yet stored; the reader blocks beyond this. */
+        public Options maxBatchesInFlight(int batches) {
+            this.maxBatchesInFlight = checkPositive(batches, "maxBatchesInFlight");
+            return this;
+        }
+
+        private static int checkPositive(int value, String name) {
+            if (value <= 0) {
+                throw new IllegalArgumentException(name + " must be positive");
+            }
+            return value;
+        }
+    }
+
+    // Marks the end of input in the sink's queue
+    private static final CompletableFuture<List<ParsedLog>> END = CompletableFuture.completedFuture(List.of());
+    // How often a reader waiting for the store checks whether the pipeline was closed
+    private static final long PERMIT_POLL_MILLIS = 100;
+
+    private final LogParser parser;
+    private final LogRepository repository;
+    private final List<UnaryOperator<ParsedLog>> enrichers;
+    private final Options options;
+    private final ExecutorService parsePool;
+    private final ExecutorService enrichPool;
+    private final ExecutorService sinkPool;
+    private volatile boolean closed;
+
+    public IngestionPipeline(LogRepository repository) {
+        this(new LogParser(), repository, List.of(), new Options());
+    }
+
+    /**
+     * @param enrichers applied in order to every entry; must be thread-safe.
+     *                  Returning null drops the entry.
+     */
+    public IngestionPipeline(LogParser parser, LogRepository repository,
+                             List<UnaryOperator<ParsedLog>> enrichers, Options options) {
+        this.parser = Objects.requireNonNull(parser, "parser must not be null");
+        this.repository = Objects.requireNonNull(repository, "repository must not be null");
+        this.enrichers = List.copyOf(Objects.requireNonNull(enrichers, "enrichers must not be null"));
+        this.options = Objects.requireNonNull(options, "options must not be null");
+        this.parsePool = Executors.newFixedThreadPool(options.parserThreads, threads("ingest-parse"));
+        this.enrichPool = this.enrichers.isEmpty()
+                ? null
+                : Executors.newFixedThreadPool(options.enricherThreads, threads("ingest-enrich"));
+        this.sinkPool = Executors.newSingleThreadExecutor(threads("ingest-sink"));
+    }
+
+    /**
+     * Ingests a UTF-8 log file. Malformed bytes are replaced, as in
+     * {@link LogParser#parse(java.io.InputStream)}.
+     *
+     * @return the number of entries stored
+     */
+    public long ingest(Path file) throws IOException {
+        try (Reader reader = new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8)) {
+            return ingest(reader);
+        }
+    }
+
+    /**
+     * Reads the text to its end and returns once every entry has been stored.
+     * Calls are serialized; the reader is not closed.
+     *
+     * @return the number of entries stored
+     * @throws IOException if reading fails; entries of earlier batches stay stored
+     * @throws IllegalStateException if the pipeline is or gets closed
+     */
+    public synchronized long ingest(Reader reader) throws IOException {
+        Objects.requireNonNull(reader, "reader must not be null");
+        if (closed) {
+            throw new IllegalStateException("ingestion pipeline is closed");
+        }
+        Semaphore permits = new Semaphore(options.maxBatchesInFlight);
+        // In input order; the semaphore keeps it from ever filling up
+        BlockingQueue<CompletableFuture<List<ParsedLog>>> ordered =
+                new ArrayBlockingQueue<>(options.maxBatchesInFlight + 1);
+        Sink sink = new Sink(ordered, permits);
+        Future<?> sinkDone;
+        try {
+            sinkDone = sinkPool.submit(sink);
+        } catch (RejectedExecutionException e) {
+            throw new IllegalStateException("ingestion pipeline is closed");
+        }
+
+        IOException readFailure = null;
+        try {
+            LineReader lines = new LineReader(reader);
+            List<String> batch = new ArrayList<>(options.batchLines);
+            // Text before the first header belongs to that header's entry, so it is never cut off
+            boolean batchHasHeader = false;
+            String line;
+            while ((line = lines.readLine()) != null && sink.failure == null) {
+                boolean header = parser.isHeader(line);
+                if (header && batchHasHeader && batch.size() >= options.batchLines) {
+                    if (!submit(batch, sink, permits, ordered)) {
+                        break;
+                    }
+                    batch = new ArrayList<>(options.batchLines);
+                }
+                batchHasHeader |= header;
+                batch.add(line);
+            }
+            if (!batch.isEmpty() && sink.failure == null) {
+                submit(batch, sink, permits, ordered);
+            }
+        } catch (IOException e) {
+            readFailure = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            readFailure = new InterruptedIOException("interrupted while waiting for the store");
+        } finally {
+            ordered.add(END);
+        }
+
+        if (closed) {
+            // close() may have dropped the sink before it ever ran
+            sinkDone.cancel(true);
+        }
+        try {
+            sinkDone.get();
+        } catch (CancellationException e) {
+            // Reported below
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for the store");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("ingestion sink failed", e.getCause());
+        }
+        if (readFailure != null) {
+            throw readFailure;
+        }
+        if (closed && (sinkDone.isCancelled() || sink.failure != null)) {
+            throw new IllegalStateException("ingestion pipeline was closed");
+        }
+        if (sink.failure != null) {
+            Throwable cause = sink.failure;
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("ingestion stage failed", cause);
+        }
+        return sink.stored;
+    }
+
+    /**
+     * Hands the batch to the parsers.
+     *
+     * @return false if the sink stopped or the pipeline was closed, so reading should stop
+     */
+    private boolean submit(List<String> batch, Sink sink, Semaphore permits,
+                           BlockingQueue<CompletableFuture<List<ParsedLog>>> ordered) throws InterruptedException {
+        // Backpressure: wait here while the sink is maxBatchesInFlight batches behind. A sink that
+        // never started, because close() dropped it, cannot release permits, so the wait is timed.
+        while (!permits.tryAcquire(PERMIT_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (closed || sink.failure != null) {
+                return false;
+            }
+        }
+        // A stopping sink releases every permit; nothing must be queued behind it then
+        if (closed || sink.failure != null) {
+            permits.release();
+            return false;
+        }
+        CompletableFuture<List<ParsedLog>> parsed;
+        try {
+            parsed = CompletableFuture.supplyAsync(() -> parse(batch), parsePool);
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            return false;
+        }
+        ordered.add(enrichPool == null ? parsed : parsed.thenApplyAsync(this::enrich, enrichPool));
+        return true;
+    }
+
+    private List<ParsedLog> parse(List<String> lines) {
+        LogParser.EntryAssembler assembler = parser.newAssembler();
+        List<ParsedLog> entries = new ArrayList<>();
+        for (String line : lines) {
+            ParsedLog entry = assembler.accept(line);
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+        ParsedLog last = assembler.finish();
+        if (last != null) {
+            entries.add(last);
+        }
+        return entries;
+    }
+
+    private List<ParsedLog> enrich(List<ParsedLog> entries) {
+        List<ParsedLog> enriched = new ArrayList<>(entries.size());
+        for (ParsedLog entry : entries) {
+            for (UnaryOperator<ParsedLog> enricher : enrichers) {
+                entry = enricher.apply(entry);
+                if (entry == null) {
+                    break;
+                }
+            }
+            if (entry != null) {
+                enriched.add(entry);
+            }
+        }
+        return enriched;
+    }
+
+    /** Stores finished batches in input order; after a failure it only drains. */
+    private final class Sink implements Runnable {
+        private final BlockingQueue<CompletableFuture<List<ParsedLog>>> ordered;
+        private final Semaphore permits;
+        volatile Throwable failure;
+        long stored;
+
+        Sink(BlockingQueue<CompletableFuture<List<ParsedLog>>> ordered, Semaphore permits) {
+            this.ordered = ordered;
+            this.permits = permits;
+        }
+
+        @Override
+        public void run() {
+            try {
+                drain();
+            } finally {
+                // Interrupted by close(): the reader may be waiting for a permit that would never come
+                permits.release(options.maxBatchesInFlight);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                CompletableFuture<List<ParsedLog>> next;
+                try {
+                    next = ordered.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failure = e;
+                    return;
+                }
+                if (next == END) {
+                    return;
+                }
+                try {
+                    // Interruptible, unlike join(): close() drops batches whose futures never complete
+                    List<ParsedLog> batch = next.get();
+                    if (failure == null) {
+                        repository.addAll(batch);
+                        stored += batch.size();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failure = e;
+                    return;
+                } catch (ExecutionException e) {
+                    recordFailure(e.getCause());
+                } catch (RuntimeException e) {
+                    recordFailure(e);
+                } finally {
+                    permits.release();
+                }
+            }
+        }
+
+        private void recordFailure(Throwable t) {
+            if (failure == null) {
+                failure = t;
+            }
+        }
+    }
+
+    /**
+     * Stops the worker threads; batches still queued are abandoned. An
+     * ingestion in progress ends with an {@link IllegalStateException}.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        parsePool.shutdownNow();
+        if (enrichPool != null) {
+            enrichPool.shutdownNow();
+        }
+        sinkPool.shutdownNow();
+    }
+
+    private static ThreadFactory threads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
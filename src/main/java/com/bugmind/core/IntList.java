@@ -0,0 +1,87 @@
+package com.bugmind.core;
+
+import java.util.Arrays;
+
+/**
+ * Minimal growable list of primitive ints.
+ * <p>
+ * Safe for one appending thread and any number of concurrent readers:
+ * readers see a prefix of the appended values, never a torn one.
+ */
+final class IntList {
+
+    private volatile int[] values;
+    private volatile int size;
+
+    IntList() {
+        this(4);
+    }
+
+    IntList(int capacity) {
+        values = new int[Math.max(1, capacity)];
+    }
+
+    void add(int value) {
+        int n = size;
+        int[] v = values;
+        if (n == v.length) {
+            v = Arrays.copyOf(v, n * 2);
+            values = v;
+        }
+        v[n] = value;
+        size = n + 1;
+    }
+
+    void addAll(IntList other) {
+        addAllBelow(other, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Appends the values of {@code other} that are below {@code bound}.
+     * {@code other} must be sorted ascending.
+     */
+    void addAllBelow(IntList other, int bound) {
+        // Read size before values so the snapshot holds at least that many entries
+        int count = other.size;
+        int[] src = other.values;
+        while (count > 0 && src[count - 1] >= bound) {
+            count--;
+        }
+        int n = size;
+        int[] v = values;
+        if (n + count > v.length) {
+            v = Arrays.copyOf(v, Math.max(n + count, n * 2));
+            values = v;
+        }
+        System.arraycopy(src, 0, v, n, count);
+        size = n + count;
+    }
+
+    int get(int index) {
+        int n = size;
+        if (index >= n) {
+            throw new IndexOutOfBoundsException("index " + index + " out of bounds for size " + n);
+        }
+        return values[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    void sort() {
+        Arrays.sort(values, 0, size);
+    }
+}
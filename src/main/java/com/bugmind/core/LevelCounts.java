@@ -0,0 +1,262 @@
+package com.bugmind.core;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Collector;
+
+/**
+ * Primitive per-level counters, keyed the way {@link LogLevelAggregator} keys them:
+ * trimmed, upper-cased (root locale), with null/blank mapped to
+ * {@link LogLevelAggregator#UNKNOWN}.
+ * <p>
+ * Common levels have fixed ordinals and are recognized on the raw string
+ * without trimming or upper-casing; counting them allocates nothing. Other
+ * levels get per-instance ordinals. Levels are reported in first-seen order.
+ * Not thread-safe; use one instance per thread and {@link #merge} them.
+ */
+public class LevelCounts {
+
+    private static final String[] KNOWN = {LogLevelAggregator.UNKNOWN, "INFO", "WARN", "ERROR", "DEBUG", "TRACE", "FATAL"};
+    private static final Map<String, Integer> KNOWN_ORDINALS = new HashMap<>();
+
+    static {
+        for (int i = 0; i < KNOWN.length; i++) {
+            KNOWN_ORDINALS.put(KNOWN[i], i);
+        }
+    }
+
+    private String[] names = KNOWN.clone();
+    private Map<String, Integer> customOrdinals;
+    private long[] counts = new long[KNOWN.length];
+    // Ordinals in first-seen order
+    private int[] order = new int[KNOWN.length];
+    private int present;
+    private boolean[] seen = new boolean[KNOWN.length];
+
+    /** Counts one entry; a null entry counts as UNKNOWN. */
+    public void add(ParsedLog log) {
+        increment(ordinalOf(log == null ? null : log.getLevel()), 1);
+    }
+
+    /** Counts one entry with the given raw level. */
+    public void add(String rawLevel) {
+        increment(ordinalOf(rawLevel), 1);
+    }
+
+    /**
+     * Adds {@code count} to the raw level. The level is recorded even when the
+     * count is zero.
+     */
+    public void add(String rawLevel, long count) {
+        increment(ordinalOf(rawLevel), count);
+    }
+
+    /** Count for the given raw level, normalized the same way as on insert. */
+    public long count(String rawLevel) {
+        int ordinal = lookup(rawLevel);
+        return ordinal < 0 ? 0 : counts[ordinal];
+    }
+
+    /** Number of distinct levels seen. */
+    public int size() {
+        return present;
+    }
+
+    public boolean isEmpty() {
+        return present == 0;
+    }
+
+    /**
+     * Adds the counts of {@code other} into this instance; levels new to this
+     * instance are appended in {@code other}'s order. Known levels are merged
+     * by ordinal without any allocation.
+     *
+     * @return this instance
+     */
+    public LevelCounts merge(LevelCounts other) {
+        for (int i = 0; i < other.present; i++) {
+            int ordinal = other.order[i];
+            int target = ordinal < KNOWN.length ? ordinal : ordinalOfNormalized(other.names[ordinal]);
+            increment(target, other.counts[ordinal]);
+        }
+        return this;
+    }
+
+    /** Resets all counts, keeping the allocated arrays for reuse. */
+    public void clear() {
+        Arrays.fill(counts, 0);
+        Arrays.fill(seen, false);
+        present = 0;
+    }
+
+    /**
+     * Read-only live view of the counts in first-seen order.
+     */
+    public Map<String, Long> asMap() {
+        return new AbstractMap<>() {
+            @Override
+            public Long get(Object key) {
+                if (!(key instanceof String)) {
+                    return null;
+                }
+                Integer ordinal = KNOWN_ORDINALS.get(key);
+                if (ordinal == null && customOrdinals != null) {
+                    ordinal = customOrdinals.get(key);
+                }
+                return ordinal != null && seen[ordinal] ? counts[ordinal] : null;
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return get(key) != null;
+            }
+
+            @Override
+            public int size() {
+                return present;
+            }
+
+            @Override
+            public Set<Entry<String, Long>> entrySet() {
+                return new AbstractSet<>() {
+                    @Override
+                    public int size() {
+                        return present;
+                    }
+
+                    @Override
+                    public Iterator<Entry<String, Long>> iterator() {
+                        return new Iterator<>() {
+                            private int next;
+
+                            @Override
+                            public boolean hasNext() {
+                                return next < present;
+                            }
+
+                            @Override
+                            public Entry<String, Long> next() {
+                                if (next >= present) {
+                                    throw new NoSuchElementException();
+                                }
+                                int ordinal = order[next++];
+                                return new SimpleImmutableEntry<>(names[ordinal], counts[ordinal]);
+                            }
+                        };
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Collector counting entries per level; partial results are merged in
+     * encounter order, so parallel streams keep first-seen ordering.
+     */
+    public static Collector<ParsedLog, ?, LevelCounts> collector() {
+        return Collector.of(LevelCounts::new, LevelCounts::add, LevelCounts::merge);
+    }
+
+    private void increment(int ordinal, long delta) {
+        if (!seen[ordinal]) {
+            seen[ordinal] = true;
+            order[present++] = ordinal;
+        }
+        counts[ordinal] += delta;
+    }
+
+    private int ordinalOf(String raw) {
+        int known = knownOrdinal(raw);
+        return known >= 0 ? known : ordinalOfNormalized(normalize(raw));
+    }
+
+    private int lookup(String raw) {
+        int known = knownOrdinal(raw);
+        if (known >= 0) {
+            return known;
+        }
+        String key = normalize(raw);
+        Integer ordinal = KNOWN_ORDINALS.get(key);
+        if (ordinal == null && customOrdinals != null) {
+            ordinal = customOrdinals.get(key);
+        }
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    private int ordinalOfNormalized(String key) {
+        Integer known = KNOWN_ORDINALS.get(key);
+        if (known != null) {
+            return known;
+        }
+        if (customOrdinals == null) {
+            customOrdinals = new HashMap<>();
+        }
+        Integer ordinal = customOrdinals.get(key);
+        if (ordinal == null) {
+            ordinal = names.length;
+            customOrdinals.put(key, ordinal);
+            int capacity = ordinal + 1;
+            names = Arrays.copyOf(names, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            order = Arrays.copyOf(order, capacity);
+            seen = Arrays.copyOf(seen, capacity);
+            names[ordinal] = key;
+        }
+        return ordinal;
+    }
+
+    /**
+     * Matches the raw string against the known levels, ignoring surrounding
+     * whitespace and ASCII case, without allocating.
+     *
+     * @return the ordinal, or -1 if the slow path must decide
+     */
+    private static int knownOrdinal(String raw) {
+        if (raw == null) {
+            return 0;
+        }
+        int start = LogLineScanner.trimStart(raw, 0, raw.length());
+        int end = LogLineScanner.trimEnd(raw, start, raw.length());
+        if (start == end) {
+            return 0;
+        }
+        for (int i = 0; i < KNOWN.length; i++) {
+            if (equalsAsciiUpper(raw, start, end, KNOWN[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean equalsAsciiUpper(String s, int start, int end, String upper) {
+        if (end - start != upper.length()) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                c -= 'a' - 'A';
+            }
+            if (c != upper.charAt(i - start)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** The former key normalization: trim, upper-case, blank to UNKNOWN. */
+    static String normalize(String raw) {
+        if (raw == null) {
+            return LogLevelAggregator.UNKNOWN;
+        }
+        String trimmed = raw.trim();
+        return trimmed.isEmpty() ? LogLevelAggregator.UNKNOWN : trimmed.toUpperCase(Locale.ROOT);
+    }
+}
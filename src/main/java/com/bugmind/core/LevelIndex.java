@@ -0,0 +1,190 @@
+package com.bugmind.core;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Per-level posting lists kept in parsed-timestamp order.
+ * <p>
+ * Each upper-cased level maps timestamps to the sequence numbers logged at
+ * that instant (ascending, since they are appended in insertion order).
+ * Entries whose timestamp cannot be parsed are kept in a separate list that
+ * always sorts last. Multi-level queries k-way merge the per-level maps.
+ * <p>
+ * A single thread adds entries, in ascending sequence order; scans may run
+ * concurrently and only see sequence numbers below the bound they are given,
+ * so every scan reflects one consistent prefix of the log.
+ */
+final class LevelIndex {
+
+    /** Receives one group of entries sharing a timestamp; returns false to stop. */
+    @FunctionalInterface
+    interface GroupVisitor {
+        boolean visit(LocalDateTime timestamp, IntList seqs);
+    }
+
+    private static final class Postings {
+        final ConcurrentSkipListMap<LocalDateTime, IntList> timed = new ConcurrentSkipListMap<>();
+        final IntList untimed = new IntList();
+    }
+
+    private final Map<String, Postings> byLevel = new ConcurrentHashMap<>();
+
+    void add(int seq, ParsedLog log) {
+        String level = log.getLevel();
+        if (level == null) {
+            return;
+        }
+        Postings postings = byLevel.computeIfAbsent(level.toUpperCase(), k -> new Postings());
+        LocalDateTime timestamp = log.getParsedTimestamp();
+        if (timestamp == null) {
+            postings.untimed.add(seq);
+        } else {
+            postings.timed.computeIfAbsent(timestamp, k -> new IntList(1)).add(seq);
+        }
+    }
+
+    /**
+     * Visits entries of the given (already upper-cased) levels grouped by
+     * timestamp, ascending or descending, with unparseable timestamps last.
+     * Sequence numbers inside a group are ascending; only sequence numbers
+     * below {@code visible} are reported and empty groups are skipped.
+     */
+    void scan(Collection<String> levels, boolean desc, int visible, GroupVisitor visitor) {
+        scan(levels, null, null, desc, visible, visitor);
+    }
+
+    /**
+     * Like {@link #scan(Collection, boolean, int, GroupVisitor)}, restricted to
+     * timestamps within [from, to]. Either bound may be null for an open
+     * range; entries with unparseable timestamps are only visited when both
+     * bounds are null. The bounds are located by binary search, so only the
+     * matching slice of each level is touched.
+     */
+    void scan(Collection<String> levels, LocalDateTime from, LocalDateTime to, boolean desc, int visible,
+              GroupVisitor visitor) {
+        if (scanTimed(levels, from, to, desc, visible, visitor) && from == null && to == null) {
+            scanUntimed(levels, visible, visitor);
+        }
+    }
+
+    /**
+     * Visits only the groups with a parsed timestamp within [from, to].
+     *
+     * @return false if the visitor stopped the scan
+     */
+    boolean scanTimed(Collection<String> levels, LocalDateTime from, LocalDateTime to, boolean desc, int visible,
+                      GroupVisitor visitor) {
+        Comparator<Cursor> order = Comparator.comparing(c -> c.current.getKey());
+        PriorityQueue<Cursor> queue = new PriorityQueue<>(desc ? order.reversed() : order);
+        for (Postings postings : select(levels)) {
+            NavigableMap<LocalDateTime, IntList> view = slice(postings.timed, from, to);
+            if (desc) {
+                view = view.descendingMap();
+            }
+            Cursor cursor = new Cursor(view.entrySet().iterator());
+            if (cursor.advance()) {
+                queue.add(cursor);
+            }
+        }
+
+        IntList group = new IntList();
+        while (!queue.isEmpty()) {
+            LocalDateTime timestamp = queue.peek().current.getKey();
+            group.clear();
+            int runs = 0;
+            while (!queue.isEmpty() && queue.peek().current.getKey().equals(timestamp)) {
+                Cursor cursor = queue.poll();
+                group.addAllBelow(cursor.current.getValue(), visible);
+                runs++;
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+            }
+            if (group.isEmpty()) {
+                continue;
+            }
+            if (runs > 1) {
+                group.sort();
+            }
+            if (!visitor.visit(timestamp, group)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Visits the single group of entries whose timestamp could not be parsed,
+     * with a null timestamp, if it is not empty.
+     *
+     * @return false if the visitor stopped the scan
+     */
+    boolean scanUntimed(Collection<String> levels, int visible, GroupVisitor visitor) {
+        List<Postings> selected = select(levels);
+        IntList group = new IntList();
+        for (Postings postings : selected) {
+            group.addAllBelow(postings.untimed, visible);
+        }
+        if (group.isEmpty()) {
+            return true;
+        }
+        if (selected.size() > 1) {
+            group.sort();
+        }
+        return visitor.visit(null, group);
+    }
+
+    private List<Postings> select(Collection<String> levels) {
+        List<Postings> selected = new ArrayList<>();
+        for (String level : new LinkedHashSet<>(levels)) {
+            Postings postings = byLevel.get(level);
+            if (postings != null) {
+                selected.add(postings);
+            }
+        }
+        return selected;
+    }
+
+    private static NavigableMap<LocalDateTime, IntList> slice(
+            NavigableMap<LocalDateTime, IntList> timed, LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null) {
+            return from.isAfter(to) ? Collections.emptyNavigableMap() : timed.subMap(from, true, to, true);
+        }
+        if (from != null) {
+            return timed.tailMap(from, true);
+        }
+        if (to != null) {
+            return timed.headMap(to, true);
+        }
+        return timed;
+    }
+
+    private static final class Cursor {
+        private final Iterator<Map.Entry<LocalDateTime, IntList>> entries;
+        private Map.Entry<LocalDateTime, IntList> current;
+
+        Cursor(Iterator<Map.Entry<LocalDateTime, IntList>> entries) {
+            this.entries = entries;
+        }
+
+        boolean advance() {
+            if (!entries.hasNext()) {
+                return false;
+            }
+            current = entries.next();
+            return true;
+        }
+    }
+}
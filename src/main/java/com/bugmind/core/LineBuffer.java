@@ -0,0 +1,87 @@
+package com.bugmind.core;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Growable byte buffer that decodes one UTF-8 line at a time. Lines are only
+ * ever cut at '\n', so a multi-byte character is never split.
+ */
+final class LineBuffer {
+    private byte[] bytes = new byte[256];
+    private int length;
+
+    int length() {
+        return length;
+    }
+
+    void clear() {
+        length = 0;
+    }
+
+    void append(byte b) {
+        ensureCapacity(length + 1);
+        bytes[length++] = b;
+    }
+
+    void append(byte[] source, int offset, int count) {
+        ensureCapacity(length + count);
+        System.arraycopy(source, offset, bytes, length, count);
+        length += count;
+    }
+
+    void append(ByteBuffer source, int offset, int count) {
+        ensureCapacity(length + count);
+        source.get(offset, bytes, length, count);
+        length += count;
+    }
+
+    /** Appends the buffered bytes to {@code target}; this buffer is unchanged. */
+    void copyTo(LineBuffer target) {
+        target.append(bytes, 0, length);
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(bytes, length);
+    }
+
+    /** True if the buffer starts with the ASCII character {@code c}. */
+    boolean startsWith(char c) {
+        return length > 0 && bytes[0] == c;
+    }
+
+    /**
+     * Feeds the buffered line to the assembler on its bytes, see
+     * {@link LogParser.EntryAssembler#accept(byte[], int, int)}, and clears the buffer.
+     *
+     * @return the entry completed by this line, or null
+     */
+    ParsedLog drainTo(LogParser.EntryAssembler assembler) {
+        ParsedLog completed = assembler.accept(bytes, 0, length);
+        length = 0;
+        return completed;
+    }
+
+    /** Decodes the buffered line, minus a trailing '\r'. */
+    String decode() {
+        int len = length;
+        if (len > 0 && bytes[len - 1] == '\r') {
+            len--;
+        }
+        return new String(bytes, 0, len, StandardCharsets.UTF_8);
+    }
+
+    /** Decodes the buffered line (minus a trailing '\r') and clears the buffer. */
+    String drainString() {
+        String line = decode();
+        length = 0;
+        return line;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(needed, bytes.length * 2));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.bugmind.core;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Splits a reader into lines on "\n" with an optional preceding "\r", the
+ * same way {@link LogParser#parseLogs(String)} does. Unlike
+ * {@link java.io.BufferedReader#readLine()}, a lone "\r" does not end a line.
+ */
+final class LineReader {
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private final StringBuilder line = new StringBuilder();
+    private int pos;
+    private int limit;
+    private boolean eof;
+
+    LineReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /** Returns the next line without its terminator, or null at end of input. */
+    String readLine() throws IOException {
+        if (eof) {
+            return null;
+        }
+        line.setLength(0);
+        boolean sawAny = false;
+        while (true) {
+            if (pos == limit) {
+                limit = reader.read(buffer, 0, buffer.length);
+                pos = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    eof = true;
+                    return sawAny ? stripCarriageReturn(line) : null;
+                }
+            }
+            sawAny = true;
+            int start = pos;
+            while (pos < limit && buffer[pos] != '\n') {
+                pos++;
+            }
+            line.append(buffer, start, pos - start);
+            if (pos < limit) {
+                pos++; // consume '\n'
+                return stripCarriageReturn(line);
+            }
+        }
+    }
+
+    private static String stripCarriageReturn(StringBuilder sb) {
+        int len = sb.length();
+        if (len > 0 && sb.charAt(len - 1) == '\r') {
+            len--;
+        }
+        return sb.substring(0, len);
+    }
+}
@@ -0,0 +1,347 @@
+package com.bugmind.core;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Parses compressed log archives (rotated {@code .gz} files and the like)
+ * without staging the decompressed text on disk or in one string.
+ * <p>
+ * Files are recognized by their magic bytes; anything else is handed to
+ * {@link LogFileParser}. A gzip file with several members (concatenated
+ * files, {@code pigz}/BGZF output) is cut into runs of about
+ * {@code chunkBytes} compressed bytes that are decompressed and parsed in
+ * parallel. Members cut lines and entries anywhere, so the text around each
+ * run's first and last header line is stitched back together in file order;
+ * the result is always identical to parsing the decompressed text
+ * sequentially. Single-member files and other codecs stream through one
+ * decompressor, and {@link #parseDirectory} spreads whole files over the pool.
+ * <p>
+ * When dialects are configured, each file's header layout is detected from
+ * its first {@link LogDialect#DEFAULT_SAMPLE_LINES} lines, so a directory can
+ * mix logback, syslog and other files.
+ */
+public class LogArchiveParser {
+
+    /** Default compressed bytes per parallel run of gzip members. */
+    public static final long DEFAULT_CHUNK_BYTES = 1024 * 1024;
+
+    // Bytes read to detect a codec, or the longest configured magic if that is more
+    private static final int MIN_SNIFF_BYTES = 8;
+
+    private final LogParser parser;
+    private final ForkJoinPool pool;
+    private final long chunkBytes;
+    private final List<LogCodec> codecs;
+    // Candidates for per-file detection; empty to use the parser's dialect
+    private final List<LogDialect> dialects;
+    private final LogFileParser plainParser;
+    private final int maxChunksInFlight;
+    private final int sniffBytes;
+
+    public LogArchiveParser() {
+        this(new LogParser(), ForkJoinPool.commonPool(), DEFAULT_CHUNK_BYTES, List.of(LogCodec.GZIP));
+    }
+
+    /**
+     * @param codecs formats to recognize, tried in order
+     */
+    public LogArchiveParser(LogParser parser, ForkJoinPool pool, long chunkBytes, List<LogCodec> codecs) {
+        this(parser, pool, chunkBytes, codecs, List.of());
+    }
+
+    /**
+     * @param codecs formats to recognize, tried in order
+     * @param dialects header layouts to detect per file, most preferred first;
+     *        empty to parse every file with {@code parser}'s dialect
+     */
+    public LogArchiveParser(LogParser parser, ForkJoinPool pool, long chunkBytes, List<LogCodec> codecs,
+                            List<LogDialect> dialects) {
+        if (chunkBytes <= 0) {
+            throw new IllegalArgumentException("chunkBytes must be positive");
+        }
+        this.parser = Objects.requireNonNull(parser, "parser must not be null");
+        this.pool = Objects.requireNonNull(pool, "pool must not be null");
+        this.chunkBytes = chunkBytes;
+        this.codecs = List.copyOf(Objects.requireNonNull(codecs, "codecs must not be null"));
+        this.dialects = List.copyOf(Objects.requireNonNull(dialects, "dialects must not be null"));
+        this.plainParser = new LogFileParser(parser, pool, LogFileParser.DEFAULT_CHUNK_BYTES);
+        this.maxChunksInFlight = Math.max(2, pool.getParallelism() * 2);
+        this.sniffBytes = this.codecs.stream().mapToInt(LogCodec::magicLength).reduce(MIN_SNIFF_BYTES, Math::max);
+    }
+
+    /**
+     * Lazily parses a stream that may be compressed with one of the codecs.
+     * The parser's own dialect is used; streams are not sampled for detection.
+     *
+     * @see LogParser#parse(InputStream)
+     */
+    public Stream<ParsedLog> parse(InputStream in) throws IOException {
+        Objects.requireNonNull(in, "input stream must not be null");
+        BufferedInputStream buffered = new BufferedInputStream(in);
+        buffered.mark(sniffBytes);
+        byte[] head = new byte[sniffBytes];
+        int length = buffered.readNBytes(head, 0, head.length);
+        buffered.reset();
+        LogCodec codec = detect(head, length);
+        return parser.parse(codec == null ? buffered : codec.open(buffered));
+    }
+
+    /**
+     * Parses the whole file and returns its entries in file order.
+     */
+    public List<ParsedLog> parseFile(Path file) throws IOException {
+        List<ParsedLog> results = new ArrayList<>();
+        parseFile(file, results::add);
+        return results;
+    }
+
+    /**
+     * Parses a compressed or plain log file and pushes entries to the sink in
+     * file order. The sink is always called from the invoking thread.
+     */
+    public void parseFile(Path file, Consumer<? super ParsedLog> sink) throws IOException {
+        Objects.requireNonNull(sink, "sink must not be null");
+        LogParser fileParser;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // Positional reads leave the channel at 0 for the streaming decoders
+            ByteBuffer head = ByteBuffer.allocate(sniffBytes);
+            int read;
+            do {
+                read = channel.read(head, head.position());
+            } while (read > 0 && head.hasRemaining());
+            LogCodec codec = detect(head.array(), head.position());
+            fileParser = dialects.isEmpty() ? parser : parser.withDialect(detectDialect(file, codec));
+            if (codec == LogCodec.GZIP) {
+                parseGzip(channel, fileParser, sink);
+                return;
+            }
+            if (codec != null) {
+                stream(fileParser, codec.open(Channels.newInputStream(channel)), sink);
+                return;
+            }
+        }
+        if (fileParser == parser) {
+            plainParser.parseFile(file, sink);
+        } else {
+            new LogFileParser(fileParser, pool, LogFileParser.DEFAULT_CHUNK_BYTES).parseFile(file, sink);
+        }
+    }
+
+    private LogDialect detectDialect(Path file, LogCodec codec) throws IOException {
+        try (InputStream raw = Files.newInputStream(file);
+             InputStream in = codec == null ? raw : codec.open(raw)) {
+            return LogDialect.detect(in, LogDialect.DEFAULT_SAMPLE_LINES, dialects);
+        }
+    }
+
+    /**
+     * Parses every regular file of the directory, oldest first by modification
+     * time (then by name), so rotated archives replay in the order they were
+     * written. Several files are parsed at once; the sink still receives the
+     * entries file by file, from the invoking thread.
+     */
+    public void parseDirectory(Path dir, Consumer<? super ParsedLog> sink) throws IOException {
+        Objects.requireNonNull(sink, "sink must not be null");
+        List<Path> ordered;
+        try (Stream<Path> listing = Files.list(dir)) {
+            ordered = new ArrayList<>(listing.filter(Files::isRegularFile).toList());
+        }
+
+        Deque<ForkJoinTask<List<ParsedLog>>> inFlight = new ArrayDeque<>();
+        try {
+            ordered.sort(Comparator.comparing((Path p) -> {
+                try {
+                    return Files.getLastModifiedTime(p);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).thenComparing(Path::getFileName));
+            for (Path file : ordered) {
+                inFlight.addLast(pool.submit(() -> {
+                    try {
+                        return parseFile(file);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+                if (inFlight.size() >= pool.getParallelism()) {
+                    inFlight.pollFirst().join().forEach(sink);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                inFlight.pollFirst().join().forEach(sink);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private LogCodec detect(byte[] head, int length) {
+        for (LogCodec codec : codecs) {
+            if (codec.matches(head, length)) {
+                return codec;
+            }
+        }
+        return null;
+    }
+
+    private static void stream(LogParser parser, InputStream decompressed, Consumer<? super ParsedLog> sink)
+            throws IOException {
+        try (Stream<ParsedLog> entries = parser.parse(decompressed)) {
+            entries.forEach(sink);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Decodes runs of members in parallel. Each run after the first starts at
+     * a speculative header match; a run is only used if it starts exactly
+     * where the previous one ended, otherwise that range is decoded again from
+     * the real boundary.
+     */
+    private void parseGzip(FileChannel channel, LogParser parser, Consumer<? super ParsedLog> sink) throws IOException {
+        long size = channel.size();
+        GzipMembers members = new GzipMembers(channel, size, parser);
+        if (members.findCandidate(chunkBytes) < 0) {
+            // At most one run: nothing to split
+            stream(parser, LogCodec.GZIP.open(Channels.newInputStream(channel)), sink);
+            return;
+        }
+
+        Stitcher stitcher = new Stitcher(parser, sink);
+        Deque<Run> inFlight = new ArrayDeque<>();
+        long expected = 0;
+        try {
+            long start = 0;
+            while (start >= 0) {
+                long runStart = start;
+                long runEnd = start + chunkBytes;
+                inFlight.addLast(new Run(runStart, runEnd,
+                        pool.submit(() -> read(members, runStart, runEnd, runStart == 0))));
+                if (inFlight.size() >= maxChunksInFlight) {
+                    expected = accept(inFlight.pollFirst(), expected, members, stitcher);
+                }
+                start = members.findCandidate(runEnd);
+            }
+            while (!inFlight.isEmpty()) {
+                expected = accept(inFlight.pollFirst(), expected, members, stitcher);
+            }
+            // The last speculative run started inside a member; finish sequentially
+            while (expected < size) {
+                GzipMembers.Piece piece = members.read(expected, expected + chunkBytes, false);
+                stitcher.add(piece);
+                expected = piece.end;
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            inFlight.forEach(run -> run.task.cancel(true));
+        }
+        stitcher.finish();
+    }
+
+    private long accept(Run run, long expected, GzipMembers members, Stitcher stitcher) throws IOException {
+        if (run.nominalEnd <= expected) {
+            // An earlier run's last member already covered this range
+            run.task.cancel(true);
+            return expected;
+        }
+        GzipMembers.Piece piece;
+        if (run.start == expected) {
+            piece = run.task.join();
+        } else {
+            // False header match, or the match was inside a member: decode from the real boundary
+            run.task.cancel(true);
+            piece = members.read(expected, run.nominalEnd, false);
+        }
+        stitcher.add(piece);
+        return piece.end;
+    }
+
+    private static GzipMembers.Piece read(GzipMembers members, long start, long nominalEnd, boolean atStart) {
+        try {
+            return members.read(start, nominalEnd, atStart);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class Run {
+        final long start;
+        final long nominalEnd;
+        final ForkJoinTask<GzipMembers.Piece> task;
+
+        Run(long start, long nominalEnd, ForkJoinTask<GzipMembers.Piece> task) {
+            this.start = start;
+            this.nominalEnd = nominalEnd;
+            this.task = task;
+        }
+    }
+
+    /**
+     * Joins the raw text between the last header of one piece and the first
+     * header of the next, and parses it in order with the pieces' entries.
+     * Text before the first header of the file is carried until a header
+     * turns up and then parsed together with that header's entry, as a
+     * sequential parse would.
+     */
+    private static final class Stitcher {
+        private final LogParser parser;
+        private final Consumer<? super ParsedLog> sink;
+        private final LineBuffer carry = new LineBuffer();
+        private boolean headerSeen;
+
+        Stitcher(LogParser parser, Consumer<? super ParsedLog> sink) {
+            this.parser = parser;
+            this.sink = sink;
+        }
+
+        void add(GzipMembers.Piece piece) {
+            carry.append(piece.prefix, 0, piece.prefix.length);
+            if (!piece.hasHeader) {
+                return;
+            }
+            List<ParsedLog> entries = piece.entries;
+            if (headerSeen) {
+                // The piece's first header completes whatever the carried text holds
+                GzipMembers.parseText(parser, carry.toByteArray(), sink);
+                carry.clear();
+            } else if (carry.length() > 0 && !entries.isEmpty()) {
+                // Headerless text so far belongs to the first entry
+                carry.append(piece.head, 0, piece.head.length);
+                GzipMembers.parseText(parser, carry.toByteArray(), sink);
+                carry.clear();
+                entries = entries.subList(1, entries.size());
+            }
+            // Otherwise the first entry continues in the tail, behind the carried text
+            headerSeen = true;
+            entries.forEach(sink);
+            carry.append(piece.tail, 0, piece.tail.length);
+        }
+
+        void finish() {
+            GzipMembers.parseText(parser, carry.toByteArray(), sink);
+            carry.clear();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.bugmind.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A compression format that {@link LogArchiveParser} recognizes by its magic
+ * bytes and reads through a streaming decompressor. Only gzip ships with the
+ * JDK; other formats are plugged in by wrapping their stream, e.g. for zstd:
+ * <pre>
+ *   new LogCodec("zstd", new byte[] {0x28, (byte) 0xB5, 0x2F, (byte) 0xFD}, ZstdInputStream::new)
+ * </pre>
+ */
+public final class LogCodec {
+
+    /** Wraps a compressed stream in a decompressing one. */
+    @FunctionalInterface
+    public interface Decompressor {
+        InputStream open(InputStream compressed) throws IOException;
+    }
+
+    private static final int GZIP_BUFFER_BYTES = 64 * 1024;
+
+    /** gzip, including multi-member files; see {@link LogArchiveParser} for parallel decoding. */
+    public static final LogCodec GZIP = new LogCodec("gzip", new byte[] {0x1f, (byte) 0x8b},
+            in -> new GZIPInputStream(in, GZIP_BUFFER_BYTES));
+
+    private final String name;
+    private final byte[] magic;
+    private final Decompressor decompressor;
+
+    public LogCodec(String name, byte[] magic, Decompressor decompressor) {
+        this.name = Objects.requireNonNull(name, "name must not be null");
+        Objects.requireNonNull(magic, "magic must not be null");
+        if (magic.length == 0) {
+            throw new IllegalArgumentException("magic must not be empty");
+        }
+        this.magic = magic.clone();
+        this.decompressor = Objects.requireNonNull(decompressor, "decompressor must not be null");
+    }
+
+    public String name() {
+        return name;
+    }
+
+    int magicLength() {
+        return magic.length;
+    }
+
+    /** True if the first {@code length} bytes of {@code head} start with this codec's magic. */
+    boolean matches(byte[] head, int length) {
+        return length >= magic.length && Arrays.equals(head, 0, magic.length, magic, 0, magic.length);
+    }
+
+    public InputStream open(InputStream compressed) throws IOException {
+        return decompressor.open(compressed);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -1,5 +1,7 @@
 package com.bugmind.core;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -20,16 +22,7 @@ public class LogController {
      * ✅ Backward-compatible API — old integration tests still call this.
      */
     public List<ParsedLog> getLogsByLevel(String rawLevel) {
-        if (rawLevel == null || rawLevel.isBlank()) {
-            throw new IllegalArgumentException("Log level must not be blank");
-        }
-
-        List<String> levels = Arrays.stream(rawLevel.split(","))
-                .map(String::trim)
-                .filter(s -> !s.isEmpty())
-                .map(String::toUpperCase)
-                .distinct()
-                .collect(Collectors.toList());
+        List<String> levels = parseLevels(rawLevel);
 
         logger.info(() -> "Fetching logs for levels " + levels);
         return logService.getLogsByLevelsSorted(levels, false);
@@ -40,18 +33,118 @@ public class LogController {
      * Example: /api/logs/level/{level}?sort=desc
      */
     public List<ParsedLog> getLogsByLevelAndSort(String rawLevel, String sortOrder) {
+        List<String> levels = parseLevels(rawLevel);
+
+        boolean desc = "desc".equalsIgnoreCase(sortOrder);
+        logger.info(() -> "Fetching logs for levels " + levels + " sorted=" + (desc ? "DESC" : "ASC"));
+        return logService.getLogsByLevelsSorted(levels, desc);
+    }
+
+    /**
+     * 🆕 Time-range query with optional sorting and limit.
+     * Example: /api/logs/level/{level}/range?from=2025-10-30 10:00:00&to=2025-10-30 11:00:00&sort=desc&limit=100
+     *
+     * @param from  inclusive lower bound ("yyyy-MM-dd HH:mm:ss" or ISO), blank for open
+     * @param to    inclusive upper bound ("yyyy-MM-dd HH:mm:ss" or ISO), blank for open
+     * @param limit maximum number of results; 0 means unlimited
+     */
+    public List<ParsedLog> getLogsByLevelAndRange(String rawLevel, String from, String to,
+                                                  String sortOrder, int limit) {
+        List<String> levels = parseLevels(rawLevel);
+        LocalDateTime fromTs = parseBound(from, "from");
+        LocalDateTime toTs = parseBound(to, "to");
+        if (fromTs != null && toTs != null && fromTs.isAfter(toTs)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must not be negative");
+        }
+
+        boolean desc = "desc".equalsIgnoreCase(sortOrder);
+        logger.info(() -> "Fetching logs for levels " + levels + " between " + fromTs + " and " + toTs
+                + " sorted=" + (desc ? "DESC" : "ASC") + " limit=" + limit);
+        return logService.getLogsByLevelsAndRange(levels, fromTs, toTs, desc, limit);
+    }
+
+    /**
+     * 🆕 Paged query: returns at most {@code pageSize} logs plus a cursor for the next page.
+     * Example: /api/logs/level/{level}/page?from=...&to=...&sort=desc&size=100&cursor=...
+     *
+     * @param cursor the previous page's {@link LogPage#getNextCursor()}, blank for the first page
+     */
+    public LogPage getLogsByLevelPage(String rawLevel, String from, String to, String sortOrder,
+                                      int pageSize, String cursor) {
+        List<String> levels = parseLevels(rawLevel);
+        LocalDateTime fromTs = parseBound(from, "from");
+        LocalDateTime toTs = parseBound(to, "to");
+        if (fromTs != null && toTs != null && fromTs.isAfter(toTs)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+
+        boolean desc = "desc".equalsIgnoreCase(sortOrder);
+        String token = (cursor == null || cursor.isBlank()) ? null : cursor.trim();
+        logger.info(() -> "Fetching page of " + pageSize + " logs for levels " + levels
+                + " sorted=" + (desc ? "DESC" : "ASC") + (token == null ? "" : " after cursor"));
+        return logService.getLogsByLevelsPage(levels, fromTs, toTs, desc, pageSize, token);
+    }
+
+    /**
+     * 🆕 Pages through all logs in insertion order.
+     * Example: /api/logs?size=100&cursor=...
+     */
+    public LogPage getAllLogsPage(int pageSize, String cursor) {
+        String token = (cursor == null || cursor.isBlank()) ? null : cursor.trim();
+        return logService.getAllLogsPage(pageSize, token);
+    }
+
+    /**
+     * 🆕 Full-text search over messages. Terms are ANDed; {@code OR} separates alternatives.
+     * Example: /api/logs/search?q=timeout OR refused&level=ERROR,WARN&from=...&to=...&sort=desc&limit=50
+     *
+     * @param rawLevel comma-separated levels, blank for all levels
+     * @param limit    maximum number of results; 0 means unlimited
+     */
+    public List<ParsedLog> searchLogs(String query, String rawLevel, String from, String to,
+                                      String sortOrder, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be blank");
+        }
+        List<String> levels = (rawLevel == null || rawLevel.isBlank()) ? List.of() : parseLevels(rawLevel);
+        LocalDateTime fromTs = parseBound(from, "from");
+        LocalDateTime toTs = parseBound(to, "to");
+        if (fromTs != null && toTs != null && fromTs.isAfter(toTs)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must not be negative");
+        }
+
+        boolean desc = "desc".equalsIgnoreCase(sortOrder);
+        logger.info(() -> "Searching logs for '" + query.trim() + "' levels=" + (levels.isEmpty() ? "ALL" : levels)
+                + " sorted=" + (desc ? "DESC" : "ASC") + " limit=" + limit);
+        return logService.searchLogs(query, levels, fromTs, toTs, desc, limit);
+    }
+
+    private static List<String> parseLevels(String rawLevel) {
         if (rawLevel == null || rawLevel.isBlank()) {
             throw new IllegalArgumentException("Log level must not be blank");
         }
-        List<String> levels = Arrays.stream(rawLevel.split(","))
+        return Arrays.stream(rawLevel.split(","))
                 .map(String::trim)
                 .filter(s -> !s.isEmpty())
                 .map(String::toUpperCase)
                 .distinct()
                 .collect(Collectors.toList());
+    }
 
-        boolean desc = "desc".equalsIgnoreCase(sortOrder);
-        logger.info(() -> "Fetching logs for levels " + levels + " sorted=" + (desc ? "DESC" : "ASC"));
-        return logService.getLogsByLevelsSorted(levels, desc);
+    private static LocalDateTime parseBound(String raw, String name) {
+        if (raw == null || raw.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(raw.trim().replace(' ', 'T'));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid '" + name + "' timestamp: " + raw);
+        }
     }
 }
@@ -0,0 +1,664 @@
+package com.bugmind.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Header layout of a log format, declared like a logback / log4j2 pattern
+ * ({@code %d [%thread] %-5level %logger - %msg}) and compiled once into a
+ * fixed sequence of field matchers. A {@link LogParser} holds one dialect, so
+ * adding a layout costs nothing on lines of the others; {@link #detect} picks
+ * the dialect of a file from a sample of its lines.
+ * <p>
+ * Conversion words:
+ * <ul>
+ *   <li>{@code %d}, {@code %date}: timestamp, with an optional
+ *       {@code {format}} in {@link java.time.format.DateTimeFormatter} letters
+ *       (y, M, MMM, d, H, m, s, S, and X/x/Z for an offset that is skipped);
+ *       the default is {@code yyyy-MM-dd HH:mm:ss,SSS}. Formats without a
+ *       year keep the timestamp as written.</li>
+ *   <li>{@code %p}, {@code %le}, {@code %level}: TRACE, DEBUG, INFO, WARN, ERROR or FATAL.</li>
+ *   <li>{@code %pri}: syslog priority number; its severity becomes the level.</li>
+ *   <li>{@code %t}, {@code %thread}: any text up to a directly attached literal,
+ *       as in {@code [%thread]}; otherwise a word.</li>
+ *   <li>{@code %c}, {@code %lo}, {@code %logger}, {@code %host}: a word, ending
+ *       at whitespace or at the next literal if that is directly attached.</li>
+ *   <li>{@code %m}, {@code %msg}, {@code %message}: the rest of the line; must come last.</li>
+ *   <li>{@code %n} is ignored and {@code %%} is a literal percent sign.</li>
+ * </ul>
+ * Format modifiers ({@code %-5level}) and options ({@code %logger{36}}) are
+ * accepted and ignored. Whitespace in the pattern matches any run of
+ * whitespace, including none. A dialect without a level reports INFO.
+ * Thread, logger and host are matched but not kept.
+ */
+public final class LogDialect {
+
+    private static final String[] LEVELS = {"TRACE", "DEBUG", "INFO", "WARN", "ERROR", "FATAL"};
+    // Syslog severities 0 (emergency) to 7 (debug)
+    private static final String[] SEVERITY_LEVELS = {"FATAL", "FATAL", "FATAL", "ERROR", "WARN", "INFO", "INFO", "DEBUG"};
+    private static final String[] MONTHS = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+    private static final String UNLEVELED = "INFO";
+    private static final String DEFAULT_TIMESTAMP = "yyyy-MM-dd HH:mm:ss,SSS";
+
+    /** The {@code [timestamp] LEVEL - message} layout the parser has always read. */
+    public static final LogDialect DEFAULT = new LogDialect("default", "[%d] %level - %msg", null);
+
+    /** logback file appender layout. */
+    public static final LogDialect LOGBACK =
+            compile("logback", "%d{yyyy-MM-dd HH:mm:ss.SSS} [%thread] %-5level %logger{36} - %msg%n");
+
+    /** log4j2 PatternLayout as commonly configured for files. */
+    public static final LogDialect LOG4J2 = compile("log4j2", "%d %-5p [%t] %c{1} - %m%n");
+
+    /** Syslog files as written by rsyslog's traditional format. */
+    public static final LogDialect SYSLOG = compile("syslog", "%d{MMM d HH:mm:ss} %host %logger: %msg");
+
+    /** The built-in dialects, most preferred first. */
+    public static final List<LogDialect> BUILT_IN = List.of(DEFAULT, LOGBACK, LOG4J2, SYSLOG);
+
+    /** Lines sampled per file for detection unless configured otherwise. */
+    public static final int DEFAULT_SAMPLE_LINES = 100;
+
+    private final String name;
+    private final String pattern;
+    // Null for DEFAULT, which LogLineScanner matches by hand
+    private final Element[] elements;
+    private final boolean hasLevel;
+
+    private LogDialect(String name, String pattern, Element[] elements) {
+        this.name = name;
+        this.pattern = pattern;
+        this.elements = elements;
+        boolean level = elements == null;
+        if (elements != null) {
+            for (Element element : elements) {
+                level |= element instanceof Level || element instanceof Priority;
+            }
+        }
+        this.hasLevel = level;
+    }
+
+    /**
+     * Compiles a pattern layout into a dialect.
+     *
+     * @throws IllegalArgumentException if the pattern has no {@code %d}, does
+     *         not end with {@code %msg}, or uses an unsupported conversion word
+     */
+    public static LogDialect compile(String name, String pattern) {
+        Objects.requireNonNull(name, "name must not be null");
+        Objects.requireNonNull(pattern, "pattern must not be null");
+        List<Object> tokens = tokenize(pattern);
+        List<Element> elements = new ArrayList<>();
+        boolean hasTimestamp = false;
+        for (int k = 0; k < tokens.size(); k++) {
+            Object token = tokens.get(k);
+            if (token instanceof String literal) {
+                elements.add(new Literal(literal));
+                continue;
+            }
+            if (!elements.isEmpty() && elements.get(elements.size() - 1) instanceof Message) {
+                throw new IllegalArgumentException("%msg must end the pattern: " + pattern);
+            }
+            Conversion conversion = (Conversion) token;
+            int stop = k + 1 < tokens.size() && tokens.get(k + 1) instanceof String next ? Literal.stopChar(next) : -1;
+            switch (conversion.word) {
+                case "d", "date" -> {
+                    elements.add(Timestamp.compile(conversion.option == null ? DEFAULT_TIMESTAMP : conversion.option));
+                    hasTimestamp = true;
+                }
+                case "p", "le", "level" -> elements.add(new Level());
+                case "pri" -> elements.add(new Priority());
+                case "t", "thread" -> elements.add(new Word(stop, stop >= 0));
+                case "c", "lo", "logger", "host" -> elements.add(new Word(stop, false));
+                case "m", "msg", "message" -> elements.add(new Message());
+                default -> throw new IllegalArgumentException(
+                        "Unsupported conversion word %" + conversion.word + " in pattern: " + pattern);
+            }
+        }
+        if (!hasTimestamp) {
+            throw new IllegalArgumentException("Pattern has no %d: " + pattern);
+        }
+        if (!(elements.get(elements.size() - 1) instanceof Message)) {
+            throw new IllegalArgumentException("%msg must end the pattern: " + pattern);
+        }
+        return new LogDialect(name, pattern, elements.toArray(new Element[0]));
+    }
+
+    /** Splits a pattern into literal strings and conversions; {@code %n} is dropped. */
+    private static List<Object> tokenize(String pattern) {
+        List<Object> tokens = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int n = pattern.length();
+        int i = 0;
+        while (i < n) {
+            char c = pattern.charAt(i);
+            if (c != '%') {
+                literal.append(c);
+                i++;
+                continue;
+            }
+            if (i + 1 < n && pattern.charAt(i + 1) == '%') {
+                literal.append('%');
+                i += 2;
+                continue;
+            }
+            // Format modifier such as -5 or .-10
+            int j = i + 1;
+            while (j < n && (pattern.charAt(j) == '-' || pattern.charAt(j) == '.' || LogLineScanner.isDigit(pattern.charAt(j)))) {
+                j++;
+            }
+            int wordStart = j;
+            while (j < n && Character.isLetter(pattern.charAt(j))) {
+                j++;
+            }
+            if (j == wordStart) {
+                throw new IllegalArgumentException("Missing conversion word at index " + i + " in pattern: " + pattern);
+            }
+            String word = pattern.substring(wordStart, j);
+            String option = null;
+            if (j < n && pattern.charAt(j) == '{') {
+                int close = pattern.indexOf('}', j);
+                if (close < 0) {
+                    throw new IllegalArgumentException("Unclosed option at index " + j + " in pattern: " + pattern);
+                }
+                option = pattern.substring(j + 1, close);
+                j = close + 1;
+            }
+            i = j;
+            if (word.equals("n")) {
+                continue;
+            }
+            if (literal.length() > 0) {
+                tokens.add(literal.toString());
+                literal.setLength(0);
+            }
+            tokens.add(new Conversion(word, option));
+        }
+        if (literal.length() > 0) {
+            tokens.add(literal.toString());
+        }
+        return tokens;
+    }
+
+    /**
+     * Picks the candidate that recognizes the most header lines in the sample;
+     * ties, including no match at all, go to the earlier candidate.
+     */
+    public static LogDialect detect(List<String> sample, List<LogDialect> candidates) {
+        Objects.requireNonNull(sample, "sample must not be null");
+        if (candidates == null || candidates.isEmpty()) {
+            throw new IllegalArgumentException("candidates must not be empty");
+        }
+        LogDialect best = null;
+        int bestHits = -1;
+        for (LogDialect candidate : candidates) {
+            LogLineScanner scanner = new LogLineScanner(candidate);
+            int hits = 0;
+            for (String line : sample) {
+                if (scanner.scan(line) == LogLineScanner.LineKind.HEADER) {
+                    hits++;
+                }
+            }
+            if (hits > bestHits) {
+                best = candidate;
+                bestHits = hits;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Reads up to {@code sampleLines} lines of UTF-8 text and detects their
+     * dialect. The stream is read past the sample and is not closed.
+     *
+     * @see #detect(List, List)
+     */
+    public static LogDialect detect(InputStream in, int sampleLines, List<LogDialect> candidates) throws IOException {
+        Objects.requireNonNull(in, "input stream must not be null");
+        if (sampleLines <= 0) {
+            throw new IllegalArgumentException("sampleLines must be positive");
+        }
+        LineReader lines = new LineReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        List<String> sample = new ArrayList<>();
+        String line;
+        while (sample.size() < sampleLines && (line = lines.readLine()) != null) {
+            sample.add(line);
+        }
+        return detect(sample, candidates);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public String pattern() {
+        return pattern;
+    }
+
+    /** True if the line opens an entry in this dialect. */
+    public boolean isHeader(String line) {
+        return line != null && new LogLineScanner(this).scan(line) == LogLineScanner.LineKind.HEADER;
+    }
+
+    /**
+     * The ASCII character every header starts with, or -1; lets byte-level
+     * callers skip decoding lines that cannot be headers.
+     */
+    int leadingChar() {
+        if (elements == null) {
+            return '[';
+        }
+        if (elements[0] instanceof Literal literal && literal.text.charAt(0) != ' ' && literal.text.charAt(0) < 0x80) {
+            return literal.text.charAt(0);
+        }
+        return -1;
+    }
+
+    /**
+     * True if a header may start with whitespace or "at", so that a stack
+     * frame line could be a header and must not be classified on its bytes alone.
+     */
+    boolean mayStartLikeFrame() {
+        return elements != null && elements[0].mayStartLikeFrame();
+    }
+
+    /** Matches a compiled dialect's header and records its fields in {@code out}. */
+    boolean matchHeader(CharSequence line, LogLineScanner out) {
+        if (!hasLevel) {
+            out.level(UNLEVELED, -1, -1);
+        }
+        int pos = 0;
+        for (Element element : elements) {
+            pos = element.match(line, pos, out);
+            if (pos < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    private static final class Conversion {
+        final String word;
+        final String option;
+
+        Conversion(String word, String option) {
+            this.word = word;
+            this.option = option;
+        }
+    }
+
+    /** One step of a compiled pattern. */
+    private abstract static class Element {
+        /** Matches at {@code pos} and returns the position after the match, or -1. */
+        abstract int match(CharSequence line, int pos, LogLineScanner out);
+
+        /** True if a match can start with whitespace or 'a'. */
+        abstract boolean mayStartLikeFrame();
+    }
+
+    private static final class Literal extends Element {
+        // Whitespace runs collapsed to one ' ', which matches any run of whitespace
+        final String text;
+
+        Literal(String raw) {
+            StringBuilder sb = new StringBuilder(raw.length());
+            for (int i = 0; i < raw.length(); i++) {
+                char c = raw.charAt(i);
+                if (!Character.isWhitespace(c)) {
+                    sb.append(c);
+                } else if (sb.length() == 0 || sb.charAt(sb.length() - 1) != ' ') {
+                    sb.append(' ');
+                }
+            }
+            this.text = sb.toString();
+        }
+
+        /**
+         * Character that ends a word followed by this literal, or -1 if the
+         * literal starts with whitespace; "%logger - " then keeps the dash in
+         * "my-service", while "%logger:" stops at the colon.
+         */
+        static int stopChar(String raw) {
+            return Character.isWhitespace(raw.charAt(0)) ? -1 : raw.charAt(0);
+        }
+
+        @Override
+        int match(CharSequence line, int pos, LogLineScanner out) {
+            int n = line.length();
+            for (int k = 0; k < text.length(); k++) {
+                char c = text.charAt(k);
+                if (c == ' ') {
+                    pos = LogLineScanner.skipRegexWhitespace(line, pos, n);
+                } else if (pos < n && line.charAt(pos) == c) {
+                    pos++;
+                } else {
+                    return -1;
+                }
+            }
+            return pos;
+        }
+
+        @Override
+        boolean mayStartLikeFrame() {
+            return text.charAt(0) == ' ' || text.charAt(0) == 'a';
+        }
+    }
+
+    private static final class Level extends Element {
+        @Override
+        int match(CharSequence line, int pos, LogLineScanner out) {
+            int n = line.length();
+            int end = pos;
+            while (end < n && line.charAt(end) >= 'A' && line.charAt(end) <= 'Z') {
+                end++;
+            }
+            for (String level : LEVELS) {
+                if (level.length() == end - pos && LogLineScanner.startsWith(line, pos, level)) {
+                    out.level(level, pos, end);
+                    return end;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        boolean mayStartLikeFrame() {
+            return false;
+        }
+    }
+
+    private static final class Priority extends Element {
+        @Override
+        int match(CharSequence line, int pos, LogLineScanner out) {
+            int n = line.length();
+            int end = pos;
+            int value = 0;
+            while (end < n && end - pos < 3 && LogLineScanner.isDigit(line.charAt(end))) {
+                value = value * 10 + line.charAt(end) - '0';
+                end++;
+            }
+            // Facility 0-23 times 8, plus severity
+            if (end == pos || value > 191) {
+                return -1;
+            }
+            out.level(SEVERITY_LEVELS[value % 8], pos, end);
+            return end;
+        }
+
+        @Override
+        boolean mayStartLikeFrame() {
+            return false;
+        }
+    }
+
+    /** Thread, logger or host: matched to find where the next field starts, not kept. */
+    private static final class Word extends Element {
+        // First character of the following literal, or -1
+        private final int stop;
+        private final boolean spaces;
+
+        Word(int stop, boolean spaces) {
+            this.stop = stop;
+            this.spaces = spaces;
+        }
+
+        @Override
+        int match(CharSequence line, int pos, LogLineScanner out) {
+            int n = line.length();
+            int end = pos;
+            while (end < n) {
+                char c = line.charAt(end);
+                if (c == stop || (!spaces && LogLineScanner.isRegexWhitespace(c))) {
+                    break;
+                }
+                end++;
+            }
+            return end > pos || spaces ? end : -1;
+        }
+
+        @Override
+        boolean mayStartLikeFrame() {
+            return true;
+        }
+    }
+
+    private static final class Message extends Element {
+        @Override
+        int match(CharSequence line, int pos, LogLineScanner out) {
+            out.message(pos, line.length());
+            return line.length();
+        }
+
+        @Override
+        boolean mayStartLikeFrame() {
+            return true;
+        }
+    }
+
+    /** A {@code %d{format}} compiled into fixed fields. */
+    private static final class Timestamp extends Element {
+        private static final int YEAR = 0;
+        private static final int YEAR2 = 1;
+        private static final int MONTH = 2;
+        private static final int MONTH_NAME = 3;
+        private static final int DAY = 4;
+        private static final int HOUR = 5;
+        private static final int MINUTE = 6;
+        private static final int SECOND = 7;
+        private static final int FRACTION = 8;
+        private static final int OFFSET = 9;
+        private static final int LITERAL = 10;
+        private static final int SPACE = 11;
+
+        private final int[] codes;
+        // Digit counts for numeric fields, the character for literals
+        private final int[] min;
+        private final int[] max;
+
+        private Timestamp(int[] codes, int[] min, int[] max) {
+            this.codes = codes;
+            this.min = min;
+            this.max = max;
+        }
+
+        static Timestamp compile(String format) {
+            if (format.equals("ISO8601")) {
+                format = DEFAULT_TIMESTAMP;
+            }
+            IntList codes = new IntList();
+            IntList min = new IntList();
+            IntList max = new IntList();
+            int n = format.length();
+            int i = 0;
+            while (i < n) {
+                char c = format.charAt(i);
+                if (c == '\'') {
+                    int close = format.indexOf('\'', i + 1);
+                    if (close < 0) {
+                        throw new IllegalArgumentException("Unclosed quote in timestamp format: " + format);
+                    }
+                    if (close == i + 1) {
+                        add(codes, min, max, LITERAL, '\'', '\'');
+                    }
+                    for (int k = i + 1; k < close; k++) {
+                        add(codes, min, max, LITERAL, format.charAt(k), format.charAt(k));
+                    }
+                    i = close + 1;
+                    continue;
+                }
+                int run = i;
+                while (run < n && format.charAt(run) == c) {
+                    run++;
+                }
+                int count = run - i;
+                if (Character.isWhitespace(c)) {
+                    add(codes, min, max, SPACE, 0, 0);
+                } else if (!Character.isLetter(c)) {
+                    for (int k = 0; k < count; k++) {
+                        add(codes, min, max, LITERAL, c, c);
+                    }
+                } else {
+                    switch (c) {
+                        case 'y' -> {
+                            if (count != 2 && count != 4) {
+                                throw unsupported(format);
+                            }
+                            add(codes, min, max, count == 2 ? YEAR2 : YEAR, count, count);
+                        }
+                        case 'M' -> {
+                            if (count > 3) {
+                                throw unsupported(format);
+                            }
+                            if (count == 3) {
+                                add(codes, min, max, MONTH_NAME, 3, 3);
+                            } else {
+                                add(codes, min, max, MONTH, count, 2);
+                            }
+                        }
+                        case 'd', 'H', 'm', 's' -> {
+                            if (count > 2) {
+                                throw unsupported(format);
+                            }
+                            int code = c == 'd' ? DAY : c == 'H' ? HOUR : c == 'm' ? MINUTE : SECOND;
+                            add(codes, min, max, code, count, 2);
+                        }
+                        case 'S' -> add(codes, min, max, FRACTION, count, count);
+                        case 'X', 'x', 'Z' -> add(codes, min, max, OFFSET, 0, 0);
+                        default -> throw unsupported(format);
+                    }
+                }
+                i = run;
+            }
+            if (codes.isEmpty()) {
+                throw new IllegalArgumentException("Empty timestamp format");
+            }
+            return new Timestamp(codes.toArray(), min.toArray(), max.toArray());
+        }
+
+        private static void add(IntList codes, IntList min, IntList max, int code, int lo, int hi) {
+            codes.add(code);
+            min.add(lo);
+            max.add(hi);
+        }
+
+        private static IllegalArgumentException unsupported(String format) {
+            return new IllegalArgumentException("Unsupported timestamp format: " + format);
+        }
+
+        @Override
+        int match(CharSequence line, int pos, LogLineScanner out) {
+            int n = line.length();
+            int start = pos;
+            int year = -1;
+            int month = -1;
+            int day = -1;
+            int hour = 0;
+            int minute = 0;
+            int second = 0;
+            for (int f = 0; f < codes.length; f++) {
+                switch (codes[f]) {
+                    case LITERAL -> {
+                        if (pos >= n || line.charAt(pos) != min[f]) {
+                            return -1;
+                        }
+                        pos++;
+                    }
+                    case SPACE -> {
+                        int next = LogLineScanner.skipRegexWhitespace(line, pos, n);
+                        if (next == pos) {
+                            return -1;
+                        }
+                        pos = next;
+                    }
+                    case MONTH_NAME -> {
+                        month = monthName(line, pos);
+                        if (month < 0) {
+                            return -1;
+                        }
+                        pos += 3;
+                    }
+                    case OFFSET -> {
+                        pos = skipOffset(line, pos);
+                        if (pos < 0) {
+                            return -1;
+                        }
+                    }
+                    default -> {
+                        int end = Math.min(n, pos + max[f]);
+                        int value = 0;
+                        int p = pos;
+                        while (p < end && LogLineScanner.isDigit(line.charAt(p))) {
+                            value = value * 10 + line.charAt(p) - '0';
+                            p++;
+                        }
+                        if (p - pos < min[f]) {
+                            return -1;
+                        }
+                        pos = p;
+                        switch (codes[f]) {
+                            case YEAR -> year = value;
+                            case YEAR2 -> year = 2000 + value;
+                            case MONTH -> month = value;
+                            case DAY -> day = value;
+                            case HOUR -> hour = value;
+                            case MINUTE -> minute = value;
+                            case SECOND -> second = value;
+                            default -> { }
+                        }
+                    }
+                }
+            }
+            long key = LogLineScanner.RAW;
+            if (year >= 0 && month >= 0 && day >= 0) {
+                key = TimestampNormalizer.pack(year, month, day, hour, minute, second);
+                if (key < 0) {
+                    return -1;
+                }
+            }
+            out.timestamp(start, pos, key);
+            return pos;
+        }
+
+        private static int monthName(CharSequence line, int pos) {
+            for (int m = 0; m < MONTHS.length; m++) {
+                if (LogLineScanner.startsWith(line, pos, MONTHS[m])) {
+                    return m + 1;
+                }
+            }
+            return -1;
+        }
+
+        /** Skips {@code Z}, {@code ±HH}, {@code ±HHmm} or {@code ±HH:mm}; -1 if none is there. */
+        private static int skipOffset(CharSequence line, int pos) {
+            int n = line.length();
+            if (pos < n && line.charAt(pos) == 'Z') {
+                return pos + 1;
+            }
+            if (pos + 3 > n || (line.charAt(pos) != '+' && line.charAt(pos) != '-')
+                    || !LogLineScanner.isDigit(line.charAt(pos + 1)) || !LogLineScanner.isDigit(line.charAt(pos + 2))) {
+                return -1;
+            }
+            pos += 3;
+            int minutes = pos < n && line.charAt(pos) == ':' ? pos + 1 : pos;
+            if (minutes + 2 <= n && LogLineScanner.isDigit(line.charAt(minutes)) && LogLineScanner.isDigit(line.charAt(minutes + 1))) {
+                return minutes + 2;
+            }
+            return pos;
+        }
+
+        @Override
+        boolean mayStartLikeFrame() {
+            return codes[0] == SPACE || (codes[0] == LITERAL && min[0] == 'a');
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package com.bugmind.core;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Binary encoding of {@link ParsedLog} entries in self-contained, checksummed blocks.
+ * <p>
+ * A block is {@code [int payloadLength][int crc32(payload)][payload]}; the payload is
+ * <pre>
+ *   varint entryCount
+ *   varint levelCount,     levelCount strings      (block-local level dictionary)
+ *   varint exceptionCount, exceptionCount strings  (block-local exception dictionary)
+ *   entryCount entries
+ * </pre>
+ * and each entry is
+ * <pre>
+ *   byte   flags
+ *   varint level code      (0 = null, else dictionary index + 1)
+ *   varint exception code  (0 = null, else dictionary index + 1)
+ *   zigzag varint epoch-second delta to the previous timed entry   if TIMED
+ *   varint nanos                                                   if NANOS
+ *   string raw timestamp                                           if RAW_TIMESTAMP
+ *   string message                                                 unless NULL_MESSAGE
+ * </pre>
+ * Strings are a varint UTF-8 byte length followed by the bytes. Timestamps
+ * that are the canonical rendering of their parsed value are not stored as text.
+ */
+final class LogEntryCodec {
+
+    static final int BLOCK_HEADER_BYTES = 8;
+
+    private static final int TIMED = 1;
+    private static final int NANOS = 1 << 1;
+    private static final int RAW_TIMESTAMP = 1 << 2;
+    private static final int NULL_TIMESTAMP = 1 << 3;
+    private static final int NULL_MESSAGE = 1 << 4;
+
+    private static final DateTimeFormatter CANONICAL = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private LogEntryCodec() {
+    }
+
+    /** Returns the CRC32 of {@code length} bytes of {@code buffer} starting at {@code offset}. */
+    static int checksum(ByteBuffer buffer, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    /** Accumulates entries into one block. Not thread-safe. */
+    static final class BlockEncoder {
+
+        private final Map<String, Integer> levelCodes = new HashMap<>();
+        private final List<String> levels = new ArrayList<>();
+        private final Map<String, Integer> exceptionCodes = new HashMap<>();
+        private final List<String> exceptions = new ArrayList<>();
+        private final ByteSink entries = new ByteSink(4096);
+        private int count;
+        private long lastEpochSecond;
+
+        void add(ParsedLog log) {
+            String timestamp = log.getTimestamp();
+            LocalDateTime parsed = log.getParsedTimestamp();
+            String message = log.getMessage();
+
+            int flags = 0;
+            if (parsed != null) {
+                flags |= TIMED;
+                if (parsed.getNano() != 0) {
+                    flags |= NANOS;
+                }
+            }
+            if (timestamp == null) {
+                flags |= NULL_TIMESTAMP;
+            } else if (parsed == null || timestamp.length() != 19 || !timestamp.equals(CANONICAL.format(parsed))) {
+                flags |= RAW_TIMESTAMP;
+            }
+            if (message == null) {
+                flags |= NULL_MESSAGE;
+            }
+
+            entries.write(flags);
+            entries.writeVarint(code(log.getLevel(), levelCodes, levels));
+            entries.writeVarint(code(log.getExceptionType(), exceptionCodes, exceptions));
+            if (parsed != null) {
+                long epochSecond = parsed.toEpochSecond(ZoneOffset.UTC);
+                entries.writeZigzag(epochSecond - lastEpochSecond);
+                lastEpochSecond = epochSecond;
+                if (parsed.getNano() != 0) {
+                    entries.writeVarint(parsed.getNano());
+                }
+            }
+            if ((flags & RAW_TIMESTAMP) != 0) {
+                entries.writeString(timestamp);
+            }
+            if (message != null) {
+                entries.writeString(message);
+            }
+            count++;
+        }
+
+        int count() {
+            return count;
+        }
+
+        boolean isEmpty() {
+            return count == 0;
+        }
+
+        /** Approximate encoded size of the block so far. */
+        int size() {
+            return entries.length();
+        }
+
+        /**
+         * Returns the framed block (header included), ready to be written, and
+         * resets the encoder for the next block.
+         */
+        ByteBuffer finish() {
+            ByteSink out = new ByteSink(BLOCK_HEADER_BYTES + entries.length() + 256);
+            out.writeInt(0);
+            out.writeInt(0);
+            out.writeVarint(count);
+            writeDictionary(out, levels);
+            writeDictionary(out, exceptions);
+            out.write(entries);
+
+            ByteBuffer block = ByteBuffer.wrap(out.bytes, 0, out.length());
+            int payloadLength = out.length() - BLOCK_HEADER_BYTES;
+            block.putInt(0, payloadLength);
+            block.putInt(4, checksum(block, BLOCK_HEADER_BYTES, payloadLength));
+
+            levelCodes.clear();
+            levels.clear();
+            exceptionCodes.clear();
+            exceptions.clear();
+            entries.clear();
+            count = 0;
+            lastEpochSecond = 0;
+            return block;
+        }
+
+        private static int code(String value, Map<String, Integer> codes, List<String> values) {
+            if (value == null) {
+                return 0;
+            }
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size() + 1;
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        private static void writeDictionary(ByteSink out, List<String> values) {
+            out.writeVarint(values.size());
+            for (String value : values) {
+                out.writeString(value);
+            }
+        }
+    }
+
+    /**
+     * Decodes the payload in {@code [position, limit)} of {@code payload} and
+     * pushes its entries to the sink in order.
+     *
+     * @return the number of entries decoded
+     * @throws IllegalArgumentException if the payload is malformed
+     */
+    static int decode(ByteBuffer payload, Consumer<? super ParsedLog> sink) {
+        Decoder in = new Decoder(payload);
+        try {
+            int count = in.readVarint();
+            String[] levels = in.readDictionary();
+            String[] exceptions = in.readDictionary();
+            long epochSecond = 0;
+            for (int i = 0; i < count; i++) {
+                int flags = in.readByte();
+                String level = lookup(levels, in.readVarint());
+                String exceptionType = lookup(exceptions, in.readVarint());
+                LocalDateTime parsed = null;
+                if ((flags & TIMED) != 0) {
+                    epochSecond += in.readZigzag();
+                    int nanos = (flags & NANOS) != 0 ? in.readVarint() : 0;
+                    parsed = LocalDateTime.ofEpochSecond(epochSecond, nanos, ZoneOffset.UTC);
+                }
+                String timestamp;
+                if ((flags & NULL_TIMESTAMP) != 0) {
+                    timestamp = null;
+                } else if ((flags & RAW_TIMESTAMP) != 0) {
+                    timestamp = in.readString();
+                } else {
+                    timestamp = CANONICAL.format(parsed);
+                }
+                String message = (flags & NULL_MESSAGE) != 0 ? null : in.readString();
+                sink.accept(new ParsedLog(timestamp, level, message, exceptionType, parsed));
+            }
+            if (in.buffer.hasRemaining()) {
+                throw new IllegalArgumentException("trailing bytes after " + count + " entries");
+            }
+            return count;
+        } catch (RuntimeException e) {
+            if (e instanceof IllegalArgumentException) {
+                throw e;
+            }
+            // BufferUnderflow, DateTimeException, index errors: all mean a bad payload
+            throw new IllegalArgumentException("malformed block: " + e, e);
+        }
+    }
+
+    private static String lookup(String[] dictionary, int code) {
+        return code == 0 ? null : dictionary[code - 1];
+    }
+
+    /** Growable byte array with varint and string writers. */
+    private static final class ByteSink {
+        private byte[] bytes;
+        private int length;
+
+        ByteSink(int capacity) {
+            bytes = new byte[capacity];
+        }
+
+        int length() {
+            return length;
+        }
+
+        void clear() {
+            length = 0;
+        }
+
+        void write(int b) {
+            ensureCapacity(length + 1);
+            bytes[length++] = (byte) b;
+        }
+
+        void write(byte[] source, int count) {
+            ensureCapacity(length + count);
+            System.arraycopy(source, 0, bytes, length, count);
+            length += count;
+        }
+
+        void write(ByteSink other) {
+            write(other.bytes, other.length);
+        }
+
+        void writeInt(int value) {
+            ensureCapacity(length + 4);
+            bytes[length++] = (byte) (value >>> 24);
+            bytes[length++] = (byte) (value >>> 16);
+            bytes[length++] = (byte) (value >>> 8);
+            bytes[length++] = (byte) value;
+        }
+
+        void writeVarint(long value) {
+            ensureCapacity(length + 10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        void writeZigzag(long value) {
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+
+        void writeString(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(utf8.length);
+            write(utf8, utf8.length);
+        }
+
+        private void ensureCapacity(int needed) {
+            if (needed > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(needed, bytes.length * 2));
+            }
+        }
+    }
+
+    /** Relative reads over a payload buffer, which may be memory-mapped. */
+    private static final class Decoder {
+        private final ByteBuffer buffer;
+        private byte[] scratch = new byte[256];
+
+        Decoder(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        int readByte() {
+            return buffer.get() & 0xFF;
+        }
+
+        int readVarint() {
+            long value = readVarLong();
+            if (value < 0 || value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("varint out of int range: " + value);
+            }
+            return (int) value;
+        }
+
+        long readZigzag() {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("varint longer than 10 bytes");
+        }
+
+        String readString() {
+            int length = readVarint();
+            if (length > buffer.remaining()) {
+                throw new IllegalArgumentException("string length " + length + " exceeds block");
+            }
+            if (length > scratch.length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        String[] readDictionary() {
+            int size = readVarint();
+            if (size > buffer.remaining()) {
+                throw new IllegalArgumentException("dictionary size " + size + " exceeds block");
+            }
+            String[] values = new String[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = readString();
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.bugmind.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * File-based parser for large logs.
+ * <p>
+ * The file is cut into chunks that always start on a header line, so a
+ * multi-line entry (stack trace, "Caused by" block) never straddles two
+ * chunks. Each chunk is memory-mapped and parsed on a {@link ForkJoinPool};
+ * results are handed out in file order and only a bounded number of chunks
+ * is in flight at any time.
+ */
+public class LogFileParser {
+
+    /** Default target chunk size; actual chunks end on the next header line. */
+    public static final long DEFAULT_CHUNK_BYTES = 8L * 1024 * 1024;
+
+    // Upper bound for a single mapping; larger chunks are mapped window by window
+    private static final long MAX_WINDOW_BYTES = 64L * 1024 * 1024;
+    private static final int PROBE_BYTES = 64 * 1024;
+
+    private final LogParser parser;
+    private final ForkJoinPool pool;
+    private final long chunkBytes;
+    private final int maxChunksInFlight;
+
+    public LogFileParser() {
+        this(new LogParser(), ForkJoinPool.commonPool(), DEFAULT_CHUNK_BYTES);
+    }
+
+    public LogFileParser(LogParser parser, ForkJoinPool pool, long chunkBytes) {
+        if (chunkBytes <= 0) {
+            throw new IllegalArgumentException("chunkBytes must be positive");
+        }
+        this.parser = Objects.requireNonNull(parser, "parser must not be null");
+        this.pool = Objects.requireNonNull(pool, "pool must not be null");
+        this.chunkBytes = chunkBytes;
+        this.maxChunksInFlight = Math.max(2, pool.getParallelism() * 2);
+    }
+
+    /**
+     * Parses the whole file and returns its entries in file order.
+     */
+    public List<ParsedLog> parseFile(Path file) throws IOException {
+        List<ParsedLog> results = new ArrayList<>();
+        parseFile(file, results::add);
+        return results;
+    }
+
+    /**
+     * Parses the file in parallel and pushes entries to the sink in file order.
+     * The sink is always called from the invoking thread.
+     */
+    public void parseFile(Path file, Consumer<? super ParsedLog> sink) throws IOException {
+        Objects.requireNonNull(sink, "sink must not be null");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            Deque<ForkJoinTask<List<ParsedLog>>> inFlight = new ArrayDeque<>();
+            AtomicBoolean abandoned = new AtomicBoolean();
+            try {
+                long start = 0;
+                while (start < size) {
+                    long end = nextBoundary(channel, Math.min(start + chunkBytes, size), size);
+                    long chunkStart = start;
+                    inFlight.addLast(pool.submit(() -> parseRange(channel, chunkStart, end, abandoned)));
+                    if (inFlight.size() >= maxChunksInFlight) {
+                        inFlight.pollFirst().join().forEach(sink);
+                    }
+                    start = end;
+                }
+                while (!inFlight.isEmpty()) {
+                    inFlight.pollFirst().join().forEach(sink);
+                }
+            } finally {
+                // A failed chunk or sink leaves chunks behind. Cancelling does not stop a
+                // running task, so tell them to bail out and wait before the channel closes.
+                abandoned.set(true);
+                inFlight.forEach(ForkJoinTask::quietlyJoin);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Parses [start, end) of the file. The range starts on a line boundary, so
+     * only the last range of the file may end with an unterminated line.
+     * Stops at the next window once {@code abandoned} is set.
+     */
+    private List<ParsedLog> parseRange(FileChannel channel, long start, long end, AtomicBoolean abandoned) {
+        LogParser.EntryAssembler assembler = parser.newAssembler();
+        List<ParsedLog> results = new ArrayList<>();
+        LineBuffer line = new LineBuffer();
+        try {
+            for (long windowStart = start; windowStart < end; windowStart += MAX_WINDOW_BYTES) {
+                if (abandoned.get()) {
+                    return results;
+                }
+                int windowSize = (int) Math.min(MAX_WINDOW_BYTES, end - windowStart);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowSize);
+                int lineStart = 0;
+                for (int i = 0; i < windowSize; i++) {
+                    if (window.get(i) == '\n') {
+                        line.append(window, lineStart, i - lineStart);
+                        addIfPresent(results, line.drainTo(assembler));
+                        lineStart = i + 1;
+                    }
+                }
+                line.append(window, lineStart, windowSize - lineStart);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (line.length() > 0) {
+            addIfPresent(results, line.drainTo(assembler));
+        }
+        addIfPresent(results, assembler.finish());
+        return results;
+    }
+
+    private static void addIfPresent(List<ParsedLog> results, ParsedLog entry) {
+        if (entry != null) {
+            results.add(entry);
+        }
+    }
+
+    /**
+     * Finds the first header line starting at or after {@code from}.
+     *
+     * @return its offset, or {@code size} if no further header exists
+     */
+    private long nextBoundary(FileChannel channel, long from, long size) throws IOException {
+        if (from >= size) {
+            return size;
+        }
+        ByteBuffer probe = ByteBuffer.allocate(PROBE_BYTES);
+        LineBuffer line = new LineBuffer();
+
+        // Step back one byte so a chunk target that already sits on a line start is honoured
+        long pos = from - 1;
+        boolean atLineStart = false;
+        long lineOffset = -1;
+        while (pos < size) {
+            probe.clear();
+            int read = channel.read(probe, pos);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = probe.get(i);
+                if (!atLineStart) {
+                    if (b == '\n') {
+                        atLineStart = true;
+                        lineOffset = pos + i + 1;
+                        line.clear();
+                    }
+                } else if (b == '\n') {
+                    if (parser.isHeader(line.drainString())) {
+                        return lineOffset;
+                    }
+                    lineOffset = pos + i + 1;
+                } else {
+                    line.append(b);
+                }
+            }
+            pos += read;
+        }
+        // Unterminated final line
+        if (atLineStart && line.length() > 0 && parser.isHeader(line.drainString())) {
+            return lineOffset;
+        }
+        return size;
+    }
+}
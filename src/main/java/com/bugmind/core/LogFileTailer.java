@@ -0,0 +1,259 @@
+package com.bugmind.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Follows a growing log file, like {@code tail -F}.
+ * <p>
+ * Each {@link #poll} reads only the bytes appended since the previous one,
+ * so its cost depends on how much arrived, not on the file size. The byte
+ * offset, the unterminated last line and the entry still being assembled
+ * are carried between polls; an entry is emitted once the next header
+ * completes it, or once no new data has arrived for {@link Options#idleFlush}.
+ * Continuation lines of an entry that was already emitted, or that started
+ * before {@link Options#startAtEnd} skipped ahead, are dropped rather than
+ * joined to the next entry.
+ * <p>
+ * Rotation is detected by a change of file identity (the inode where the
+ * platform exposes one): the old file is read to its end, its pending entry
+ * is emitted, and the new file is followed from its start. A file that
+ * shrinks below the offset (copy-and-truncate rotation) is likewise
+ * followed from its start.
+ */
+public class LogFileTailer implements Closeable {
+
+    /** Tuning knobs; every setter returns this options object. */
+    public static final class Options {
+        private Duration idleFlush = Duration.ofSeconds(1);
+        private int readBufferBytes = 64 * 1024;
+        private boolean startAtEnd;
+
+        /**
+         * Quiet time after which the pending entry is emitted. Continuation
+         * lines that arrive later are dropped up to the next header.
+         */
+        public Options idleFlush(Duration idle) {
+            if (idle == null || idle.isNegative()) {
+                throw new IllegalArgumentException("idleFlush must not be negative");
+            }
+            this.idleFlush = idle;
+            return this;
+        }
+
+        public Options readBufferBytes(int bytes) {
+            if (bytes <= 0) {
+                throw new IllegalArgumentException("readBufferBytes must be positive");
+            }
+            this.readBufferBytes = bytes;
+            return this;
+        }
+
+        /** Skips the content present when the file is first opened. */
+        public Options startAtEnd(boolean startAtEnd) {
+            this.startAtEnd = startAtEnd;
+            return this;
+        }
+    }
+
+    private final Path file;
+    private final LogParser parser;
+    private final LogParser.EntryAssembler assembler;
+    private final long idleFlushNanos;
+    private final boolean startAtEnd;
+    private final LongSupplier nanoClock;
+    private final ByteBuffer buffer;
+    // Bytes of the unterminated last line
+    private final LineBuffer carry = new LineBuffer();
+
+    private FileChannel channel;
+    private Object fileKey;
+    private long offset;
+    private boolean opened;
+    private boolean pending;
+    // Lines up to the next header belong to an entry that was emitted or skipped
+    private boolean orphaned;
+    private long lastDataNanos;
+
+    public LogFileTailer(Path file) {
+        this(file, new LogParser(), new Options());
+    }
+
+    public LogFileTailer(Path file, LogParser parser, Options options) {
+        this(file, parser, options, System::nanoTime);
+    }
+
+    LogFileTailer(Path file, LogParser parser, Options options, LongSupplier nanoClock) {
+        this.file = Objects.requireNonNull(file, "file must not be null");
+        this.parser = Objects.requireNonNull(parser, "parser must not be null");
+        Objects.requireNonNull(options, "options must not be null");
+        this.assembler = parser.newAssembler();
+        this.idleFlushNanos = options.idleFlush.toNanos();
+        this.startAtEnd = options.startAtEnd;
+        this.nanoClock = nanoClock;
+        this.buffer = ByteBuffer.allocateDirect(options.readBufferBytes);
+    }
+
+    /**
+     * Reads whatever was appended since the last poll and returns the entries
+     * it completed.
+     */
+    public List<ParsedLog> poll() throws IOException {
+        List<ParsedLog> entries = new ArrayList<>();
+        poll(entries::add);
+        return entries;
+    }
+
+    /**
+     * Reads whatever was appended since the last poll and pushes the entries
+     * it completed to the sink, in file order. A missing file is not an
+     * error; it is picked up once it appears.
+     *
+     * @return the number of entries emitted
+     */
+    public synchronized int poll(Consumer<? super ParsedLog> sink) throws IOException {
+        Objects.requireNonNull(sink, "sink must not be null");
+        Counter out = new Counter(sink);
+
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            attributes = null;
+        }
+
+        if (channel != null && attributes != null && isReplacement(attributes)) {
+            // Rotated or truncated: finish whatever the old file still holds, then start over
+            readAvailable(out);
+            endOfFile(out);
+            closeChannel();
+        }
+
+        if (channel == null && attributes != null) {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            fileKey = attributes.fileKey();
+            offset = !opened && startAtEnd ? channel.size() : 0;
+            orphaned = offset > 0;
+            opened = true;
+        }
+
+        long now = nanoClock.getAsLong();
+        if (channel != null && readAvailable(out) > 0) {
+            lastDataNanos = now;
+        } else if (pending && now - lastDataNanos >= idleFlushNanos) {
+            emit(out, assembler.finish());
+            pending = false;
+            orphaned = true;
+        }
+        return out.count;
+    }
+
+    /** Bytes consumed from the file currently followed. */
+    public synchronized long offset() {
+        return offset;
+    }
+
+    private boolean isReplacement(BasicFileAttributes attributes) {
+        return !isSameFile(attributes) || attributes.size() < offset;
+    }
+
+    private boolean isSameFile(BasicFileAttributes attributes) {
+        Object key = attributes.fileKey();
+        // Without file keys only truncation can be detected
+        return key == null || key.equals(fileKey);
+    }
+
+    /**
+     * Reads from the offset to the end of the channel as of this call, so a
+     * writer that keeps appending cannot keep one poll going forever.
+     */
+    private long readAvailable(Counter out) throws IOException {
+        long end = channel.size();
+        long start = offset;
+        while (offset < end) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), end - offset));
+            int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                break;
+            }
+            int lineStart = 0;
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    carry.append(buffer, lineStart, i - lineStart);
+                    accept(out);
+                    lineStart = i + 1;
+                }
+            }
+            carry.append(buffer, lineStart, read - lineStart);
+            offset += read;
+        }
+        return offset - start;
+    }
+
+    /** Feeds the carried line to the assembler, or drops it while lines are orphaned. */
+    private void accept(Counter out) {
+        if (orphaned) {
+            if (!parser.isHeader(carry.decode())) {
+                carry.clear();
+                return;
+            }
+            orphaned = false;
+        }
+        emit(out, carry.drainTo(assembler));
+        pending = true;
+    }
+
+    /** The followed file is finished: its last line and entry are complete. */
+    private void endOfFile(Counter out) {
+        if (carry.length() > 0) {
+            accept(out);
+        }
+        emit(out, assembler.finish());
+        pending = false;
+    }
+
+    private static void emit(Counter out, ParsedLog entry) {
+        if (entry != null) {
+            out.sink.accept(entry);
+            out.count++;
+        }
+    }
+
+    private void closeChannel() throws IOException {
+        FileChannel old = channel;
+        channel = null;
+        fileKey = null;
+        offset = 0;
+        old.close();
+    }
+
+    /** Stops following; an entry still pending is dropped. */
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            closeChannel();
+        }
+    }
+
+    private static final class Counter {
+        final Consumer<? super ParsedLog> sink;
+        int count;
+
+        Counter(Consumer<? super ParsedLog> sink) {
+            this.sink = sink;
+        }
+    }
+}
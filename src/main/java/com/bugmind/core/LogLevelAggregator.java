@@ -1,12 +1,8 @@
 package com.bugmind.core;
 
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
-import java.util.Objects;
 
 /**
  * Utility class for aggregating log counts by severity level.
@@ -18,42 +14,39 @@ public class LogLevelAggregator {
     /** Default bucket for missing or blank log levels. */
     public static final String UNKNOWN = "UNKNOWN";
 
+    /** List size from which {@link #aggregateByLevel} counts on the common fork-join pool. */
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+
     /**
      * Aggregates log entries per level.
+     * <p>
+     * Counts go into primitive per-level slots ({@link LevelCounts}); large
+     * lists are split across the common fork-join pool and the partial counts
+     * merged. The result is a read-only view in first-seen level order.
      */
     public Map<String, Long> aggregateByLevel(List<ParsedLog> logs) {
         if (logs == null || logs.isEmpty()) {
             return Collections.emptyMap();
         }
-
-        Map<String, Long> counts = new LinkedHashMap<>();
-        for (ParsedLog log : logs) {
-            String level = extractLevel(log);
-            increment(counts, level);
-        }
-
-        return Collections.unmodifiableMap(counts);
+        return countByLevel(logs).asMap();
     }
 
-    private String extractLevel(ParsedLog log) {
-        if (log == null) {
-            return UNKNOWN;
+    /**
+     * Like {@link #aggregateByLevel} but returns the primitive counters, for
+     * callers that keep merging them (e.g. per-minute histograms).
+     */
+    public LevelCounts countByLevel(List<ParsedLog> logs) {
+        if (logs == null || logs.isEmpty()) {
+            return new LevelCounts();
         }
-        String raw = log.getLevel();
-        if (raw == null) {
-            return UNKNOWN;
+        if (logs.size() >= PARALLEL_THRESHOLD) {
+            return logs.parallelStream().collect(LevelCounts.collector());
         }
-        String trimmed = raw.trim();
-        if (trimmed.isEmpty()) {
-            return UNKNOWN;
+        LevelCounts counts = new LevelCounts();
+        for (ParsedLog log : logs) {
+            counts.add(log);
         }
-        return trimmed.toUpperCase(Locale.ROOT);
-    }
-
-    private void increment(Map<String, Long> map, String key) {
-        Objects.requireNonNull(map, "map must not be null");
-        String k = (key == null || key.isEmpty()) ? UNKNOWN : key;
-        map.merge(k, 1L, Long::sum);
+        return counts;
     }
 
     /**
@@ -66,40 +59,38 @@ public class LogLevelAggregator {
      *   <li>Treats null/blank keys as UNKNOWN</li>
      *   <li>Ensures counts are merged deterministically</li>
      * </ul>
+     * Null or negative counts are treated as zero (the key is still reported).
      */
     public Map<String, Long> mergeAggregations(List<Map<String, Long>> partials) {
         if (partials == null || partials.isEmpty()) {
             return Collections.emptyMap();
         }
 
-        Map<String, Long> merged = new LinkedHashMap<>();
-
+        LevelCounts merged = new LevelCounts();
         for (Map<String, Long> part : partials) {
             if (part == null || part.isEmpty()) {
                 continue;
             }
-
             for (Map.Entry<String, Long> entry : part.entrySet()) {
-                String rawKey = entry.getKey();
                 Long value = entry.getValue();
-
-                String normalizedKey = normalizeKey(rawKey);
-                long safeValue = (value == null || value < 0) ? 0L : value;
-
-                merged.merge(normalizedKey, safeValue, Long::sum);
+                merged.add(entry.getKey(), (value == null || value < 0) ? 0L : value);
             }
         }
-
-        return Collections.unmodifiableMap(merged);
+        return merged.isEmpty() ? Collections.emptyMap() : merged.asMap();
     }
 
     /**
-     * Normalizes a level key to uppercase and replaces null/blank with UNKNOWN.
+     * Merges primitive partial counts without boxing.
      */
-    private String normalizeKey(String key) {
-        if (key == null || key.trim().isEmpty()) {
-            return UNKNOWN;
+    public LevelCounts mergeCounts(List<LevelCounts> partials) {
+        LevelCounts merged = new LevelCounts();
+        if (partials != null) {
+            for (LevelCounts part : partials) {
+                if (part != null) {
+                    merged.merge(part);
+                }
+            }
         }
-        return key.trim().toUpperCase(Locale.ROOT);
+        return merged;
     }
 }
@@ -0,0 +1,311 @@
+package com.bugmind.core;
+
+/**
+ * Single-pass, allocation-free classifier for raw log lines.
+ * <p>
+ * With {@link LogDialect#DEFAULT} it recognizes exactly the header grammar
+ * the parser has always accepted,
+ * {@code ^\[([0-9T:\-./\s]+(?:Z|[+\-]\d\d:\d\d)?)\]\s*(INFO|WARN|ERROR|DEBUG)\s*-\s*(.*)$},
+ * but walks the characters by hand instead of going through java.util.regex.
+ * Other dialects match headers with their compiled pattern.
+ * After a {@link LineKind#HEADER} result the timestamp, level and message
+ * of the last scanned line are available from the accessors.
+ * <p>
+ * Instances keep per-line state and are not thread-safe.
+ */
+final class LogLineScanner {
+
+    /** Classification of a single physical line. */
+    enum LineKind {
+        /** Empty or whitespace-only line. */
+        BLANK,
+        /** Line that opens a new entry, e.g. {@code [timestamp] LEVEL - message}. */
+        HEADER,
+        /** Stack frame line ({@code at com.example.Foo.bar(Foo.java:1)}). */
+        FRAME,
+        /** {@code Caused by: ...} line. */
+        CAUSED_BY,
+        /** Any other non-blank text belonging to the current entry. */
+        CONTINUATION
+    }
+
+    private static final String[] LEVELS = {"INFO", "WARN", "ERROR", "DEBUG"};
+
+    /** {@link #timestampKey()} of a timestamp that has to be normalized from its text. */
+    static final long UNDECODED = -1;
+    /** {@link #timestampKey()} of a timestamp without a date, kept as written. */
+    static final long RAW = -2;
+
+    private final LogDialect dialect;
+
+    private int timestampStart;
+    private int timestampEnd;
+    private long timestampKey;
+    private String level;
+    private int levelStart;
+    private int levelEnd;
+    private int messageStart;
+    private int messageEnd;
+
+    LogLineScanner() {
+        this(LogDialect.DEFAULT);
+    }
+
+    LogLineScanner(LogDialect dialect) {
+        this.dialect = dialect;
+    }
+
+    /**
+     * Classifies the line and, for headers, records the fields.
+     */
+    LineKind scan(CharSequence line) {
+        if (dialect == LogDialect.DEFAULT ? scanHeader(line) : dialect.matchHeader(line, this)) {
+            return LineKind.HEADER;
+        }
+        int n = line.length();
+        int i = 0;
+        while (i < n && Character.isWhitespace(line.charAt(i))) {
+            i++;
+        }
+        if (i == n) {
+            return LineKind.BLANK;
+        }
+        if (startsWith(line, i, "at ") || startsWith(line, i, "at\t")) {
+            return LineKind.FRAME;
+        }
+        if (startsWith(line, trimStart(line, 0, n), "Caused by:")) {
+            return LineKind.CAUSED_BY;
+        }
+        return LineKind.CONTINUATION;
+    }
+
+    /**
+     * Byte-level test on a UTF-8 line (without terminator) that is true only
+     * if the decoded line would be a {@link LineKind#FRAME} that
+     * {@link StackTraceCollapser} also counts as a frame and that holds no
+     * "Caused by:". Anything unusual (non-ASCII leading whitespace, '\r',
+     * Unicode line separators) answers false, leaving the caller to decode.
+     */
+    static boolean isPlainFrame(byte[] line, int from, int to) {
+        int i = from;
+        while (i < to && line[i] >= 0 && Character.isWhitespace(line[i])) {
+            i++;
+        }
+        if (i + 3 > to || line[i] != 'a' || line[i + 1] != 't' || (line[i + 2] != ' ' && line[i + 2] != '\t')) {
+            return false;
+        }
+        // The collapser trims the line and needs text after "at "
+        int end = to;
+        while (end > i && (line[end - 1] & 0xFF) <= ' ') {
+            end--;
+        }
+        if (end <= i + 3) {
+            return false;
+        }
+        for (int k = from; k < to; k++) {
+            byte b = line[k];
+            if (b == '\r'
+                    || (b == 'C' && startsWith(line, k, to, "Caused by:"))
+                    // U+0085, U+2028 and U+2029 end a regex line
+                    || (b == (byte) 0xC2 && k + 1 < to && line[k + 1] == (byte) 0x85)
+                    || (b == (byte) 0xE2 && k + 2 < to && line[k + 1] == (byte) 0x80
+                        && (line[k + 2] == (byte) 0xA8 || line[k + 2] == (byte) 0xA9))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsWith(byte[] s, int offset, int to, String prefix) {
+        int len = prefix.length();
+        if (offset + len > to) {
+            return false;
+        }
+        for (int k = 0; k < len; k++) {
+            if (s[offset + k] != prefix.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int timestampStart() {
+        return timestampStart;
+    }
+
+    int timestampEnd() {
+        return timestampEnd;
+    }
+
+    /**
+     * Timestamp packed as yyyyMMddHHmmss by the dialect, {@link #UNDECODED}
+     * or {@link #RAW}.
+     */
+    long timestampKey() {
+        return timestampKey;
+    }
+
+    /** Level of the last header; a constant, so it costs no substring. */
+    String level() {
+        return level;
+    }
+
+    int levelStart() {
+        return levelStart;
+    }
+
+    int levelEnd() {
+        return levelEnd;
+    }
+
+    int messageStart() {
+        return messageStart;
+    }
+
+    int messageEnd() {
+        return messageEnd;
+    }
+
+    // Field setters for LogDialect matchers
+
+    void timestamp(int start, int end, long key) {
+        timestampStart = start;
+        timestampEnd = end;
+        timestampKey = key;
+    }
+
+    void level(String name, int start, int end) {
+        level = name;
+        levelStart = start;
+        levelEnd = end;
+    }
+
+    void message(int start, int end) {
+        messageStart = start;
+        messageEnd = end;
+    }
+
+    private boolean scanHeader(CharSequence line) {
+        int n = line.length();
+        if (n == 0 || line.charAt(0) != '[') {
+            return false;
+        }
+
+        // Timestamp: one or more of [0-9T:-./\s], then optional Z or +HH:mm
+        int i = 1;
+        while (i < n && isTimestampChar(line.charAt(i))) {
+            i++;
+        }
+        if (i == 1 || i == n) {
+            return false;
+        }
+        char c = line.charAt(i);
+        if (c == 'Z') {
+            i++;
+        } else if (c == '+') {
+            // '-' offsets are already absorbed by the character class above
+            if (i + 6 <= n && isDigit(line.charAt(i + 1)) && isDigit(line.charAt(i + 2))
+                    && line.charAt(i + 3) == ':' && isDigit(line.charAt(i + 4)) && isDigit(line.charAt(i + 5))) {
+                i += 6;
+            }
+        }
+        if (i >= n || line.charAt(i) != ']') {
+            return false;
+        }
+        int tsEnd = i;
+        i = skipRegexWhitespace(line, i + 1, n);
+
+        // Level
+        int lvlStart = i;
+        int lvlEnd = -1;
+        String lvl = null;
+        for (String candidate : LEVELS) {
+            if (startsWith(line, i, candidate)) {
+                lvlEnd = i + candidate.length();
+                lvl = candidate;
+                break;
+            }
+        }
+        if (lvlEnd < 0) {
+            return false;
+        }
+        i = skipRegexWhitespace(line, lvlEnd, n);
+        if (i >= n || line.charAt(i) != '-') {
+            return false;
+        }
+        i = skipRegexWhitespace(line, i + 1, n);
+
+        // Message: (.*)$ — '.' stops at a line terminator, '$' tolerates only a final one
+        int msgEnd = n;
+        for (int j = i; j < n; j++) {
+            if (isLineTerminator(line.charAt(j))) {
+                boolean finalTerminator = j == n - 1
+                        || (j == n - 2 && line.charAt(j) == '\r' && line.charAt(j + 1) == '\n');
+                if (!finalTerminator) {
+                    return false;
+                }
+                msgEnd = j;
+                break;
+            }
+        }
+
+        timestamp(1, tsEnd, UNDECODED);
+        level(lvl, lvlStart, lvlEnd);
+        message(i, msgEnd);
+        return true;
+    }
+
+    /** Index of the first char after leading chars {@code <= ' '} (String.trim semantics). */
+    static int trimStart(CharSequence s, int from, int to) {
+        while (from < to && s.charAt(from) <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    /** Index just past the last char {@code > ' '} in [from, to) (String.trim semantics). */
+    static int trimEnd(CharSequence s, int from, int to) {
+        while (to > from && s.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        return to;
+    }
+
+    static boolean startsWith(CharSequence s, int offset, String prefix) {
+        int len = prefix.length();
+        if (offset + len > s.length()) {
+            return false;
+        }
+        for (int k = 0; k < len; k++) {
+            if (s.charAt(offset + k) != prefix.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static int skipRegexWhitespace(CharSequence s, int i, int n) {
+        while (i < n && isRegexWhitespace(s.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isTimestampChar(char c) {
+        return isDigit(c) || c == 'T' || c == ':' || c == '-' || c == '.' || c == '/' || isRegexWhitespace(c);
+    }
+
+    static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /** The regex {@code \s} class: [ \t\n\x0B\f\r]. */
+    static boolean isRegexWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /** Characters the regex '.' refuses to match. */
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+}
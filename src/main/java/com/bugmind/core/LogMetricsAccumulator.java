@@ -0,0 +1,101 @@
+package com.bugmind.core;
+
+import java.util.function.Consumer;
+import java.util.stream.Collector;
+
+/**
+ * Single-pass, mergeable accumulator behind {@link LogMetricsAnalyzer}.
+ * <p>
+ * Feed entries as they are parsed (it is a {@code Consumer<ParsedLog>}, so it
+ * can be passed straight to {@link LogFileParser#parseFile(java.nio.file.Path, Consumer)}),
+ * merge per-thread or per-file partials with {@link #combine}, then call
+ * {@link #toMetrics()}. Timestamp range is the lexicographic min/max of the
+ * raw timestamp strings, as before. Not thread-safe; use one per thread.
+ */
+public class LogMetricsAccumulator implements Consumer<ParsedLog> {
+
+    private long total;
+    private long errors;
+    private long messageCount;
+    private long messageLengthSum;
+    private String firstTimestamp;
+    private String lastTimestamp;
+
+    @Override
+    public void accept(ParsedLog log) {
+        total++;
+        if ("ERROR".equalsIgnoreCase(log.getLevel())) {
+            errors++;
+        }
+        String message = log.getMessage();
+        if (message != null) {
+            messageCount++;
+            messageLengthSum += message.length();
+        }
+        String timestamp = log.getTimestamp();
+        if (timestamp != null) {
+            if (firstTimestamp == null || timestamp.compareTo(firstTimestamp) < 0) {
+                firstTimestamp = timestamp;
+            }
+            if (lastTimestamp == null || timestamp.compareTo(lastTimestamp) > 0) {
+                lastTimestamp = timestamp;
+            }
+        }
+    }
+
+    /**
+     * Merges another partial result into this one.
+     *
+     * @return this accumulator
+     */
+    public LogMetricsAccumulator combine(LogMetricsAccumulator other) {
+        total += other.total;
+        errors += other.errors;
+        messageCount += other.messageCount;
+        messageLengthSum += other.messageLengthSum;
+        if (other.firstTimestamp != null
+                && (firstTimestamp == null || other.firstTimestamp.compareTo(firstTimestamp) < 0)) {
+            firstTimestamp = other.firstTimestamp;
+        }
+        if (other.lastTimestamp != null
+                && (lastTimestamp == null || other.lastTimestamp.compareTo(lastTimestamp) > 0)) {
+            lastTimestamp = other.lastTimestamp;
+        }
+        return this;
+    }
+
+    public long getTotalCount() {
+        return total;
+    }
+
+    public long getErrorCount() {
+        return errors;
+    }
+
+    /**
+     * Snapshot of the metrics accumulated so far.
+     */
+    public LogMetricsAnalyzer.LogMetrics toMetrics() {
+        if (total == 0) {
+            return new LogMetricsAnalyzer.LogMetrics(0, 0, 0, 0, "-", "-");
+        }
+        double avgLength = messageCount == 0 ? 0 : (double) messageLengthSum / messageCount;
+        double errorPercent = errors * 100.0 / total;
+        return new LogMetricsAnalyzer.LogMetrics(
+                Math.toIntExact(total), Math.toIntExact(errors), errorPercent, avgLength,
+                firstTimestamp == null ? "-" : firstTimestamp,
+                lastTimestamp == null ? "-" : lastTimestamp);
+    }
+
+    /**
+     * Collector that computes metrics in one pass; safe for parallel streams.
+     */
+    public static Collector<ParsedLog, ?, LogMetricsAnalyzer.LogMetrics> collector() {
+        return Collector.of(
+                LogMetricsAccumulator::new,
+                LogMetricsAccumulator::accept,
+                LogMetricsAccumulator::combine,
+                LogMetricsAccumulator::toMetrics,
+                Collector.Characteristics.UNORDERED);
+    }
+}
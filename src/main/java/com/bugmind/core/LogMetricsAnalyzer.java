@@ -1,10 +1,6 @@
 package com.bugmind.core;
 
-import java.time.LocalDateTime;
-import java.util.Comparator;
-import java.util.DoubleSummaryStatistics;
 import java.util.List;
-import java.util.Objects;
 
 /**
  * Computes summary metrics from a collection of parsed logs.
@@ -51,35 +47,17 @@ public class LogMetricsAnalyzer {
     }
 
     /**
-     * Computes high-level metrics for a set of logs.
+     * Computes high-level metrics for a set of logs in a single pass.
      */
     public LogMetrics computeMetrics(List<ParsedLog> logs) {
         if (logs == null || logs.isEmpty()) {
             return new LogMetrics(0, 0, 0, 0, "-", "-");
         }
 
-        int total = logs.size();
-        int errors = (int) logs.stream()
-                .filter(l -> "ERROR".equalsIgnoreCase(l.getLevel()))
-                .count();
-
-        double avgLength = logs.stream()
-                .map(ParsedLog::getMessage)
-                .filter(Objects::nonNull)
-                .mapToInt(String::length)
-                .average().orElse(0);
-
-        double errorPercent = (total == 0) ? 0 : (errors * 100.0 / total);
-
-        List<String> timestamps = logs.stream()
-                .map(ParsedLog::getTimestamp)
-                .filter(Objects::nonNull)
-                .sorted()
-                .toList();
-
-        String first = timestamps.isEmpty() ? "-" : timestamps.get(0);
-        String last = timestamps.isEmpty() ? "-" : timestamps.get(timestamps.size() - 1);
-
-        return new LogMetrics(total, errors, errorPercent, avgLength, first, last);
+        LogMetricsAccumulator accumulator = new LogMetricsAccumulator();
+        for (ParsedLog log : logs) {
+            accumulator.accept(log);
+        }
+        return accumulator.toMetrics();
     }
 }
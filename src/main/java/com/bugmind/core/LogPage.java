@@ -0,0 +1,37 @@
+package com.bugmind.core;
+
+import java.util.List;
+
+/**
+ * One page of query results plus the token to fetch the next one.
+ */
+public class LogPage {
+
+    private final List<ParsedLog> items;
+    private final String nextCursor;
+
+    public LogPage(List<ParsedLog> items, String nextCursor) {
+        this.items = List.copyOf(items);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ParsedLog> getItems() {
+        return items;
+    }
+
+    /**
+     * Opaque continuation token, or null when this is the last page.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+
+    @Override
+    public String toString() {
+        return "LogPage{" + items.size() + " items, nextCursor=" + nextCursor + "}";
+    }
+}
@@ -1,12 +1,24 @@
 package com.bugmind.core;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Enhanced parser for structured log lines.
@@ -16,33 +28,71 @@ import java.util.regex.Pattern;
  *  • Extracts root-cause exception type from message/stack
  *  • Accepts multiple timestamp formats (standard/ISO with optional millis/offset)
  *  • Gracefully handles malformed inputs
+ *  • Streams entries from a Reader/InputStream holding only one entry in flight
+ *  • Drops frames past the cap on raw UTF-8 bytes, without decoding them
+ *  • Reads other header layouts (logback, log4j2, syslog, ...) through a {@link LogDialect}
  *
  * New behavior is opt-in at parse time (applied to assembled message blocks),
  * old single-line parsing still works the same.
  */
 public class LogParser {
 
-    // Header lines like: [2025-10-27 21:10:00.123] ERROR - message
+    // Default header lines like: [2025-10-27 21:10:00.123] ERROR - message
     // Accepts:
     //  - ISO: [2025-10-27T21:10:00Z], [2025-10-27T21:10:00+05:30]
     //  - Space style: [2025-10-27 21:10:00], with optional .SSS
-	private static final Pattern HEADER_PATTERN =
-	    Pattern.compile("^\\[([0-9T:\\-\\./\\s]+(?:Z|[+\\-][0-9]{2}:[0-9]{2})?)\\]\\s*(INFO|WARN|ERROR|DEBUG)\\s*-\\s*(.*)$");
+    // Matching is done by LogLineScanner without java.util.regex; other
+    // layouts are compiled LogDialects.
+
+    // Stack frames kept per entry; the rest are summarized as "… (n more)"
+    private static final int MAX_FRAMES = 12;
+
+    // Bytes read at a time by parse(InputStream)
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
 
     // Detects throwable names: ...Exception, ...Error, or Throwable
     private static final Pattern EXCEPTION_PATTERN =
         Pattern.compile("([A-Za-z0-9_$.]+(?:Exception|Error|Throwable))");
 
-    // Common timestamp formats seen in real logs (no offset here; we strip it before parsing)
-    private static final DateTimeFormatter[] FORMATTERS = new DateTimeFormatter[] {
-        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
-        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"),
-        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss"),
-        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'"),
-        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS"),
-        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS"),
-        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'")
-    };
+    // Optional shared frame table; when set, entries keep frames as ids
+    private final FrameDictionary frames;
+    private final LogDialect dialect;
+    // Frame lines past the cap can be dropped on their bytes unless they could be headers
+    private final boolean dropFramesOnBytes;
+
+    public LogParser() {
+        this((FrameDictionary) null);
+    }
+
+    /**
+     * Creates a parser that interns stack frames into {@code frames}. Parsed
+     * entries then hold frame ids plus the remaining text and rebuild the
+     * message on each {@link ParsedLog#getMessage()} call, which shrinks
+     * retained heap for trace-heavy logs. Pass null for plain messages.
+     */
+    public LogParser(FrameDictionary frames) {
+        this(LogDialect.DEFAULT, frames);
+    }
+
+    /**
+     * Creates a parser for the given header layout.
+     *
+     * @param frames shared frame table, or null; see {@link #LogParser(FrameDictionary)}
+     */
+    public LogParser(LogDialect dialect, FrameDictionary frames) {
+        this.dialect = Objects.requireNonNull(dialect, "dialect must not be null");
+        this.frames = frames;
+        this.dropFramesOnBytes = !dialect.mayStartLikeFrame();
+    }
+
+    public LogDialect dialect() {
+        return dialect;
+    }
+
+    /** Returns a parser for another dialect that shares this one's frame table. */
+    public LogParser withDialect(LogDialect other) {
+        return other == dialect ? this : new LogParser(other, frames);
+    }
 
     /**
      * Parses raw multi-line log text into structured {@link ParsedLog} entries.
@@ -55,43 +105,260 @@ public class LogParser {
             return List.of();
         }
 
-        String[] lines = text.split("\\r?\\n");
-        List<ParsedLog> results = new ArrayList<>();
+        try (Stream<ParsedLog> entries = parse(new StringReader(text))) {
+            return entries.collect(Collectors.toList());
+        }
+    }
 
-        String timestamp = null;
-        String level = null;
-        StringBuilder message = new StringBuilder();
+    /**
+     * Lazily parses log text from a reader. Only the entry currently being
+     * assembled is held in memory, so arbitrarily large inputs can be consumed.
+     * Closing the returned stream closes the reader; read failures surface as
+     * {@link UncheckedIOException}.
+     *
+     * @param reader source of raw log text
+     * @return ordered stream of parsed log entries
+     */
+    public Stream<ParsedLog> parse(Reader reader) {
+        Objects.requireNonNull(reader, "reader must not be null");
+        return stream(new ReaderEntryIterator(reader), reader);
+    }
 
-        for (String line : lines) {
-            Matcher m = HEADER_PATTERN.matcher(line);
-            if (m.find()) {
-                // Flush previous block
-                if (timestamp != null && message.length() > 0) {
-                    results.add(finishEntry(timestamp, level, message.toString()));
-                    message.setLength(0);
+    /**
+     * Lazily parses UTF-8 encoded log text from an input stream. Lines are
+     * split on the raw bytes, and frames past the cap are dropped before
+     * they are decoded; the entries are the same as from {@link #parse(Reader)}.
+     *
+     * @see #parse(Reader)
+     */
+    public Stream<ParsedLog> parse(InputStream in) {
+        Objects.requireNonNull(in, "input stream must not be null");
+        return stream(new ByteEntryIterator(in), in);
+    }
+
+    private static Stream<ParsedLog> stream(Iterator<ParsedLog> entries, Closeable source) {
+        return StreamSupport.stream(
+                        Spliterators.spliteratorUnknownSize(entries, Spliterator.ORDERED | Spliterator.NONNULL),
+                        false)
+                .onClose(() -> {
+                    try {
+                        source.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /** Creates a fresh assembler for callers that feed lines themselves. */
+    EntryAssembler newAssembler() {
+        return new EntryAssembler();
+    }
+
+    /** Returns true if the line opens a new entry in this parser's dialect. */
+    boolean isHeader(String line) {
+        return dialect.isHeader(line);
+    }
+
+    /**
+     * Header/continuation state machine shared by every parse entry point.
+     * Lines are pushed one at a time and an entry is handed back as soon as
+     * the next header (or {@link #finish()}) completes it.
+     */
+    final class EntryAssembler {
+        private String timestamp;
+        private LocalDateTime parsedTimestamp;
+        private String level;
+        // Collapses the message while it is assembled; frames beyond the cap are never copied
+        private final StackTraceCollapser.LineCollapser message = new StackTraceCollapser.LineCollapser(MAX_FRAMES, frames);
+        private final LogLineScanner scanner = new LogLineScanner(dialect);
+        private final TimestampNormalizer timestamps = new TimestampNormalizer();
+
+        /**
+         * Feeds one physical line (without its terminator).
+         *
+         * @return the entry completed by this line, or null
+         */
+        ParsedLog accept(String line) {
+            ParsedLog completed = null;
+            switch (scanner.scan(line)) {
+                case HEADER -> {
+                    // Flush previous block
+                    if (timestamp != null && !message.isEmpty()) {
+                        completed = finishEntry(timestamp, parsedTimestamp, level, message.build());
+                    }
+
+                    long key = scanner.timestampKey();
+                    if (key == LogLineScanner.RAW) {
+                        timestamp = line.substring(scanner.timestampStart(), scanner.timestampEnd());
+                        parsedTimestamp = null;
+                    } else {
+                        timestamp = key >= 0
+                                ? timestamps.normalize(key)
+                                : timestamps.normalize(line, scanner.timestampStart(), scanner.timestampEnd());
+                        parsedTimestamp = timestamps.lastParsed();
+                    }
+                    level = scanner.level();
+                    appendTrimmed(line, scanner.messageStart(), scanner.messageEnd());
+                }
+                // Stack frames, "Caused by" lines and extra message text are all kept
+                case FRAME, CAUSED_BY, CONTINUATION -> {
+                    message.newLine();
+                    appendTrimmed(line, 0, line.length());
                 }
+                case BLANK -> { }
+            }
+            return completed;
+        }
 
-                timestamp = normalizeTimestamp(m.group(1));
-                level = safeTrim(m.group(2));
-                message.append(safeTrim(m.group(3)));
-            } else if (isStackFrameLine(line)) {
-                // Continuation of stack trace frame
-                message.append(System.lineSeparator()).append(line.trim());
-            } else if (looksLikeCausedBy(line)) {
-                // Preserve "Caused by" lines
-                message.append(System.lineSeparator()).append(line.trim());
-            } else if (!line.isBlank()) {
-                // Extra message continuation
-                message.append(System.lineSeparator()).append(line.trim());
+        /**
+         * Feeds one physical UTF-8 line; a trailing '\r' is dropped. Frames
+         * past the cap are classified on the raw bytes and only counted, so
+         * deep traces are never decoded beyond the frames that are kept.
+         *
+         * @return the entry completed by this line, or null
+         */
+        ParsedLog accept(byte[] line, int from, int to) {
+            if (to > from && line[to - 1] == '\r') {
+                to--;
+            }
+            if (dropFramesOnBytes && message.frameCapReached() && LogLineScanner.isPlainFrame(line, from, to)) {
+                message.appendDroppedFrame();
+                return null;
             }
+            return accept(new String(line, from, to - from, StandardCharsets.UTF_8));
         }
 
-        // Add last log
-        if (timestamp != null && message.length() > 0) {
-            results.add(finishEntry(timestamp, level, message.toString()));
+        private void appendTrimmed(String line, int from, int to) {
+            int start = LogLineScanner.trimStart(line, from, to);
+            message.append(line, start, LogLineScanner.trimEnd(line, start, to));
         }
 
-        return results;
+        /**
+         * Completes the in-flight entry at end of input and resets the state.
+         *
+         * @return the last entry, or null if nothing is pending
+         */
+        ParsedLog finish() {
+            ParsedLog completed = null;
+            if (timestamp != null && !message.isEmpty()) {
+                completed = finishEntry(timestamp, parsedTimestamp, level, message.build());
+            }
+            timestamp = null;
+            parsedTimestamp = null;
+            level = null;
+            message.reset();
+            return completed;
+        }
+    }
+
+    /**
+     * Pulls lines into an {@link EntryAssembler}. Lines are split on "\n" with
+     * an optional preceding "\r", matching {@link #parseLogs(String)}.
+     */
+    private abstract class EntryIterator implements Iterator<ParsedLog> {
+        final EntryAssembler assembler = new EntryAssembler();
+        // Entry completed by the last line fed, if any
+        ParsedLog next;
+        private boolean done;
+
+        /** Feeds the next line to the assembler, or returns false at end of input. */
+        abstract boolean feedLine() throws IOException;
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && !done) {
+                boolean fed;
+                try {
+                    fed = feedLine();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (!fed) {
+                    done = true;
+                    next = assembler.finish();
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public ParsedLog next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ParsedLog result = next;
+            next = null;
+            return result;
+        }
+    }
+
+    private final class ReaderEntryIterator extends EntryIterator {
+        private final LineReader lines;
+
+        ReaderEntryIterator(Reader reader) {
+            this.lines = new LineReader(reader);
+        }
+
+        @Override
+        boolean feedLine() throws IOException {
+            String raw = lines.readLine();
+            if (raw == null) {
+                return false;
+            }
+            next = assembler.accept(raw);
+            return true;
+        }
+    }
+
+    /** Splits UTF-8 bytes into lines without decoding them first. */
+    private final class ByteEntryIterator extends EntryIterator {
+        private final InputStream in;
+        private final byte[] buffer = new byte[READ_BUFFER_BYTES];
+        // Start of a line cut by the end of the buffer
+        private final LineBuffer carry = new LineBuffer();
+        private int pos;
+        private int limit;
+        private boolean eof;
+
+        ByteEntryIterator(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        boolean feedLine() throws IOException {
+            while (!eof) {
+                if (pos == limit) {
+                    limit = Math.max(0, in.read(buffer, 0, buffer.length));
+                    pos = 0;
+                    if (limit == 0) {
+                        eof = true;
+                        break;
+                    }
+                }
+                int start = pos;
+                while (pos < limit && buffer[pos] != '\n') {
+                    pos++;
+                }
+                if (pos == limit) {
+                    carry.append(buffer, start, pos - start);
+                    continue;
+                }
+                int end = pos++;
+                if (carry.length() == 0) {
+                    // Common case: the whole line is in the buffer
+                    next = assembler.accept(buffer, start, end);
+                } else {
+                    carry.append(buffer, start, end - start);
+                    next = carry.drainTo(assembler);
+                }
+                return true;
+            }
+            if (carry.length() > 0) {
+                next = carry.drainTo(assembler);
+                return true;
+            }
+            return false;
+        }
     }
 
     /** Backward-compatible single-line variant */
@@ -102,30 +369,20 @@ public class LogParser {
 
     /**
      * Completes a single entry:
-     *  - Collapses multi-line frames (with cap + ellipsis)
-     *  - Extracts root-cause exception if present
+     *  - Takes the collapsed message (frames capped + ellipsis) and root cause
+     *  - Falls back to scanning the message for an exception name
      *  - Creates ParsedLog and returns it
      */
-    private ParsedLog finishEntry(String ts, String lvl, String rawMsg) {
-        StackTraceCollapser.Result collapsed = StackTraceCollapser.collapseAndExtract(rawMsg, 12);
+    private ParsedLog finishEntry(String ts, LocalDateTime parsedTs, String lvl, StackTraceCollapser.Result collapsed) {
         // If no root exception found in stack, fall back to message scanning
         String exception = collapsed.rootException() != null
                 ? collapsed.rootException()
                 : extractException(collapsed.collapsedMessage());
 
-        return new ParsedLog(ts, lvl, collapsed.collapsedMessage(), exception);
-    }
-
-    private static boolean isStackFrameLine(String line) {
-        if (line == null) return false;
-        String t = line.stripLeading();
-        return t.startsWith("at ") || t.startsWith("\tat ") || t.startsWith("at\t");
-    }
-
-    private static boolean looksLikeCausedBy(String line) {
-        if (line == null) return false;
-        String t = line.trim();
-        return t.startsWith("Caused by:");
+        if (collapsed.compact() != null) {
+            return new ParsedLog(ts, lvl, collapsed.compact(), exception, parsedTs);
+        }
+        return new ParsedLog(ts, lvl, collapsed.collapsedMessage(), exception, parsedTs);
     }
 
     private String extractException(String message) {
@@ -134,55 +391,6 @@ public class LogParser {
         return m.find() ? m.group(1) : null;
     }
 
-    private String safeTrim(String s) {
-        return s == null ? "" : s.trim();
-    }
-
-    /**
-     * Normalizes timestamps to "yyyy-MM-dd HH:mm:ss".
-     * Best-effort: removes trailing 'Z' or timezone offsets (±HH:mm), drops .SSS to seconds.
-     */
-    private String normalizeTimestamp(String ts) {
-        if (ts == null || ts.isBlank()) return "";
-        String candidate = ts.replace("T", " ").trim();
-
-        // Remove trailing 'Z'
-        String base = candidate.endsWith("Z") ? candidate.substring(0, candidate.length() - 1) : candidate;
-
-        // Strip timezone offset if present (e.g., +05:30 or -07:00)
-        int plus = base.lastIndexOf('+');
-        int minus = base.lastIndexOf('-');
-        int idx = Math.max(plus, minus);
-        if (idx > 10 && idx < base.length()) {
-            String tail = base.substring(idx);
-            if (tail.matches("[+\\-][0-9]{2}:[0-9]{2}")) {
-                base = base.substring(0, idx);
-            }
-        }
-
-        // Try formatters (with and without milliseconds)
-        for (DateTimeFormatter f : FORMATTERS) {
-            try {
-                LocalDateTime parsed = LocalDateTime.parse(base, f);
-                return parsed.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-            } catch (DateTimeParseException ignored) { }
-        }
-
-        // As a last resort, drop milliseconds manually if pattern resembles "...:ss.SSS"
-        if (base.matches(".*:\\d{2}\\.\\d{3}$")) {
-            String trimmed = base.replaceFirst("\\.(\\d{3})$", "");
-            for (DateTimeFormatter f : FORMATTERS) {
-                try {
-                    LocalDateTime parsed = LocalDateTime.parse(trimmed, f);
-                    return parsed.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-                } catch (DateTimeParseException ignored) { }
-            }
-        }
-
-        // Fallback: return original candidate for visibility
-        return candidate;
-    }
-
     /** Manual smoke test */
     public static void main(String[] args) {
         String logs = """
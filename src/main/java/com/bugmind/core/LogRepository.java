@@ -1,30 +1,401 @@
 package com.bugmind.core;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Repository layer for storing and retrieving logs.
  * Supports multi-level filtering, deduplication, and timestamp sorting.
+ * <p>
+ * Entries are kept in a pluggable {@link LogStore}; {@link ColumnarLogStore}
+ * trades a little CPU per read for a much smaller heap footprint.
+ * <p>
+ * Safe for concurrent use. Appends go straight to the store; whichever
+ * thread wins the publish lock then indexes all completed entries in sequence
+ * order and advances the published count. Queries never lock: they read the
+ * published count once and ignore anything appended after it, so each query
+ * sees one consistent prefix of the log. Listeners are told afterwards,
+ * under a separate lock, so they never run while entries are being indexed.
  */
 public class LogRepository {
 
-    private final List<ParsedLog> logs = new ArrayList<>();
+    private static final Logger logger = Logger.getLogger(LogRepository.class.getName());
+
+    private final LogStore store;
+    // Optional durability; null keeps the repository purely in memory
+    private final WriteAheadLog wal;
+    // Entries are stored in log order: seq + walOffset is the entry's log record
+    private final long walOffset;
+    private final LevelIndex levelIndex = new LevelIndex();
+    private final MessageIndex messageIndex = new MessageIndex();
+    private final ReentrantLock publishLock = new ReentrantLock();
+    private final ReentrantLock notifyLock = new ReentrantLock();
+    private final List<Consumer<? super ParsedLog>> listeners = new CopyOnWriteArrayList<>();
+
+    // Entries [0, published) are stored and indexed
+    private volatile int published;
+    // Entries [0, notified) have been handed to the listeners
+    private volatile int notified;
 
     public LogRepository() {
-        logs.add(new ParsedLog("2025-10-30 10:00:00", "INFO", "Application started", null));
-        logs.add(new ParsedLog("10/30/2025 10:02:00", "ERROR", "NullPointerException in Service", "NullPointerException"));
-        logs.add(new ParsedLog("2025/10/30 10:03:00", "WARN", "Low memory warning", null));
-        logs.add(new ParsedLog("2025-10-30 10:04:00", "INFO", "Background task executed", null));
+        this(new ChunkedLogStore());
+        add(new ParsedLog("2025-10-30 10:00:00", "INFO", "Application started", null));
+        add(new ParsedLog("10/30/2025 10:02:00", "ERROR", "NullPointerException in Service", "NullPointerException"));
+        add(new ParsedLog("2025/10/30 10:03:00", "WARN", "Low memory warning", null));
+        add(new ParsedLog("2025-10-30 10:04:00", "INFO", "Background task executed", null));
 
         // Only added when explicit system property enabled
         if (System.getProperty("includeInvalidLog", "false").equals("true")) {
-            logs.add(new ParsedLog("", "INFO", "Invalid timestamp entry", null));
+            add(new ParsedLog("", "INFO", "Invalid timestamp entry", null));
         }
     }
 
+    /**
+     * Creates a repository over the given backend, without the demo entries.
+     */
+    public LogRepository(LogStore store) {
+        this.store = Objects.requireNonNull(store, "store must not be null");
+        this.wal = null;
+        this.walOffset = 0;
+    }
+
+    /**
+     * Creates a durable repository: replays what the write-ahead log holds into
+     * the store, then logs every later {@link #add} before it returns. The
+     * caller keeps ownership of the log and closes it on shutdown.
+     *
+     * @throws IOException if the log cannot be read, or retention already
+     *                     deleted records that a snapshot covered
+     */
+    public LogRepository(LogStore store, WriteAheadLog wal) throws IOException {
+        this(store, wal, null);
+    }
+
+    /**
+     * Creates a durable repository that starts from a snapshot: loads the
+     * snapshot, if the file exists, then replays only the log records written
+     * after it. The snapshot's coverage becomes the log's checkpoint, so log
+     * retention may delete what the snapshot holds. Snapshots of this
+     * repository written with {@link LogSnapshot#write(LogRepository, Path)}
+     * move the checkpoint forward.
+     *
+     * @param snapshot snapshot file, or null to replay the whole log
+     */
+    public LogRepository(LogStore store, WriteAheadLog wal, Path snapshot) throws IOException {
+        this.store = Objects.requireNonNull(store, "store must not be null");
+        Objects.requireNonNull(wal, "wal must not be null");
+        long loaded = 0;
+        long covered = 0;
+        if (snapshot != null && Files.exists(snapshot)) {
+            long[] walRecords = new long[1];
+            loaded = new LogSnapshot().read(snapshot, this::insert, walRecords);
+            covered = walRecords[0];
+            if (covered > wal.durableRecords()) {
+                throw new IOException("Snapshot " + snapshot + " covers " + covered
+                        + " log records, but the write-ahead log ends at record " + wal.durableRecords());
+            }
+        }
+        long replayed = wal.replay(covered, this::insert);
+        logger.log(Level.INFO, "Loaded {0} entries from the snapshot and replayed {1} from the write-ahead log",
+                new Object[]{loaded, replayed});
+        this.walOffset = covered - loaded;
+        this.wal = wal;
+        wal.checkpoint(covered);
+    }
+
     public List<ParsedLog> findAll() {
-        return new ArrayList<>(logs);
+        int size = published;
+        List<ParsedLog> all = new ArrayList<>(size);
+        for (int seq = 0; seq < size; seq++) {
+            all.add(store.get(seq));
+        }
+        return all;
+    }
+
+    /**
+     * Full-text search over messages, e.g. {@code "timeout OR refused"} or
+     * {@code "ORD-4711 payment"}; see {@link MessageQuery} for the syntax.
+     * Results follow {@link #findByLevelsAndRange}: chronological, unparseable
+     * timestamps last (only without bounds), deduplicated on (timestamp + message).
+     * <p>
+     * Matches come from the inverted message index, so the cost grows with the
+     * number of matching entries rather than with the repository size. Level
+     * and time filters read the store's columns; only the entries that make
+     * it into the first {@code limit} are loaded, and selecting them costs
+     * O(matches log limit).
+     *
+     * @param levels levels to keep, or null/empty for every level
+     * @param limit  maximum number of entries to return; 0 or less means no limit
+     * @throws IllegalArgumentException if the query is blank or malformed
+     */
+    public List<ParsedLog> searchMessages(String query, List<String> levels, LocalDateTime from, LocalDateTime to,
+                                          boolean desc, int limit) {
+        MessageQuery parsed = MessageQuery.parse(query);
+        Set<String> wanted = null;
+        if (levels != null) {
+            // Null and blank levels are skipped; if nothing is left, every level matches
+            for (String level : levels) {
+                if (level == null || level.isBlank()) {
+                    continue;
+                }
+                if (wanted == null) {
+                    wanted = new HashSet<>();
+                }
+                wanted.add(level.trim().toUpperCase());
+            }
+        }
+
+        IntList candidates = messageIndex.match(parsed, published);
+        long fromSecond = from == null ? Long.MIN_VALUE : from.toEpochSecond(ZoneOffset.UTC);
+        long toSecond = to == null ? Long.MAX_VALUE : to.toEpochSecond(ZoneOffset.UTC);
+        ChronologicalOrder timed = new ChronologicalOrder(candidates.size(), desc);
+        IntList untimed = new IntList();
+        // Level and time come from the store's columns; no entry is loaded here
+        for (int i = 0; i < candidates.size(); i++) {
+            int seq = candidates.get(i);
+            if (wanted != null) {
+                String level = store.level(seq);
+                if (level == null || !wanted.contains(level.toUpperCase())) {
+                    continue;
+                }
+            }
+            long second = store.epochSecond(seq);
+            if (second == LogStore.NO_TIMESTAMP) {
+                if (from == null && to == null) {
+                    untimed.add(seq);
+                }
+                continue;
+            }
+            if (second < fromSecond || second > toSecond) {
+                continue;
+            }
+            int nano = store.nano(seq);
+            if (second == fromSecond && nano < from.getNano() || second == toSecond && nano > to.getNano()) {
+                continue;
+            }
+            timed.add(seq, second, nano);
+        }
+
+        // Only the first `limit` entries are ordered; dropped duplicates or
+        // failed verifications widen the selection and try again
+        int max = limit > 0 ? limit : Integer.MAX_VALUE;
+        List<ParsedLog> results = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        IntList group = new IntList();
+        int wantedCount = Math.min(timed.size(), max);
+        while (true) {
+            int[] order = timed.first(wantedCount);
+            results.clear();
+            int i = 0;
+            while (i < order.length && results.size() < max) {
+                int head = order[i];
+                group.clear();
+                while (i < order.length && timed.sameTime(order[i], head)) {
+                    group.add(timed.seq(order[i++]));
+                }
+                collectMatching(group, parsed, seen, results, max);
+            }
+            if (results.size() >= max || wantedCount == timed.size()) {
+                break;
+            }
+            wantedCount = (int) Math.min(timed.size(), 2L * wantedCount);
+        }
+        if (!untimed.isEmpty() && results.size() < max) {
+            collectMatching(untimed, parsed, seen, results, max);
+        }
+        return results;
+    }
+
+    /**
+     * Like {@link #collectDistinct}, but skips entries whose message fails
+     * the query's verification.
+     */
+    private void collectMatching(IntList seqs, MessageQuery query, Set<String> seen, List<ParsedLog> out, int max) {
+        seen.clear();
+        for (int i = 0; i < seqs.size() && out.size() < max; i++) {
+            ParsedLog log = store.get(seqs.get(i));
+            if (query.needsVerification() && !query.matches(log.getMessage())) {
+                continue;
+            }
+            if (seqs.size() == 1 || seen.add(log.getTimestamp() + "|" + log.getMessage())) {
+                out.add(log);
+            }
+        }
+    }
+
+    /**
+     * Search candidates keyed by primitive time columns. {@link #first}
+     * selects the leading entries with a bounded heap of indices, so picking
+     * {@code k} of {@code n} matches costs O(n log k) and boxes nothing.
+     * Order is chronological (or reversed), ties in sequence order.
+     */
+    private static final class ChronologicalOrder {
+        private final boolean desc;
+        private int[] seqs;
+        private long[] seconds;
+        private int[] nanos;
+        private int size;
+
+        ChronologicalOrder(int capacity, boolean desc) {
+            this.desc = desc;
+            this.seqs = new int[Math.max(capacity, 1)];
+            this.seconds = new long[seqs.length];
+            this.nanos = new int[seqs.length];
+        }
+
+        /** Adds a candidate. */
+        void add(int seq, long second, int nano) {
+            seqs[size] = seq;
+            seconds[size] = second;
+            nanos[size] = nano;
+            size++;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int seq(int index) {
+            return seqs[index];
+        }
+
+        boolean sameTime(int a, int b) {
+            return seconds[a] == seconds[b] && nanos[a] == nanos[b];
+        }
+
+        /** Indices of the first {@code k} candidates, in order. */
+        int[] first(int k) {
+            // Max-heap on the order: the root is the last of the entries kept so far
+            int[] heap = new int[k];
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                if (n < k) {
+                    heap[n] = i;
+                    siftUp(heap, n++);
+                } else if (k > 0 && compare(i, heap[0]) < 0) {
+                    heap[0] = i;
+                    siftDown(heap, 0, n);
+                }
+            }
+            int[] order = new int[n];
+            while (n > 0) {
+                order[--n] = heap[0];
+                heap[0] = heap[n];
+                siftDown(heap, 0, n);
+            }
+            return order;
+        }
+
+        private int compare(int a, int b) {
+            int c = Long.compare(seconds[a], seconds[b]);
+            if (c == 0) {
+                c = Integer.compare(nanos[a], nanos[b]);
+            }
+            if (desc) {
+                c = -c;
+            }
+            return c != 0 ? c : Integer.compare(seqs[a], seqs[b]);
+        }
+
+        private void siftUp(int[] heap, int pos) {
+            int item = heap[pos];
+            while (pos > 0) {
+                int parent = (pos - 1) >>> 1;
+                if (compare(heap[parent], item) >= 0) {
+                    break;
+                }
+                heap[pos] = heap[parent];
+                pos = parent;
+            }
+            heap[pos] = item;
+        }
+
+        private void siftDown(int[] heap, int pos, int n) {
+            int item = heap[pos];
+            while (true) {
+                int child = 2 * pos + 1;
+                if (child >= n) {
+                    break;
+                }
+                if (child + 1 < n && compare(heap[child + 1], heap[child]) > 0) {
+                    child++;
+                }
+                if (compare(item, heap[child]) >= 0) {
+                    break;
+                }
+                heap[pos] = heap[child];
+                pos = child;
+            }
+            heap[pos] = item;
+        }
+    }
+
+    /**
+     * Passes every published entry to the action, in insertion order.
+     *
+     * @return the number of entries passed
+     */
+    int forEachPublished(Consumer<? super ParsedLog> action) {
+        int size = published;
+        for (int seq = 0; seq < size; seq++) {
+            action.accept(store.get(seq));
+        }
+        return size;
+    }
+
+    boolean hasWriteAheadLog() {
+        return wal != null;
+    }
+
+    /**
+     * Forces the log records behind the first {@code entries} entries to disk
+     * and returns how many records that is; 0 without a log. A snapshot thus
+     * never claims records that the log could still lose in a crash.
+     */
+    long syncWal(int entries) {
+        if (wal == null) {
+            return 0;
+        }
+        wal.flush();
+        return entries + walOffset;
+    }
+
+    /** Tells the log that a snapshot now holds its first {@code walRecords} records. */
+    void snapshotWritten(long walRecords) throws IOException {
+        if (wal != null) {
+            wal.checkpoint(walRecords);
+        }
+    }
+
+    /**
+     * Returns up to {@code pageSize} entries in insertion order.
+     *
+     * @param cursor token from the previous page, or null for the first page
+     */
+    public LogPage findAllPage(int pageSize, String cursor) {
+        checkPageSize(pageSize);
+        int visible = published;
+        int next = 0;
+        if (cursor != null) {
+            int[] position = PageCursor.decodeAll(cursor);
+            visible = checkVisible(position[0], cursor);
+            next = position[1];
+        }
+        int end = (int) Math.min(visible, (long) next + pageSize);
+        List<ParsedLog> items = new ArrayList<>(end - next);
+        for (int seq = next; seq < end; seq++) {
+            items.add(store.get(seq));
+        }
+        return new LogPage(items, end < visible ? PageCursor.encodeAll(visible, end) : null);
     }
 
     /**
@@ -38,39 +409,304 @@ public class LogRepository {
     /**
      * Filters by levels and sorts chronologically.
      * Deduplicates based on (timestamp + message).
+     * <p>
+     * Served from the per-level indexes: cost grows with the result size, not
+     * with the repository size. Entries with unparseable timestamps come last;
+     * entries sharing a timestamp keep insertion order in both directions.
      */
     public List<ParsedLog> findByLevelsSorted(List<String> levels, boolean desc) {
+        return findByLevelsAndRange(levels, null, null, desc, 0);
+    }
+
+    /**
+     * Filters by levels and an inclusive timestamp range, sorted chronologically.
+     * Deduplicates based on (timestamp + message).
+     * <p>
+     * Range bounds are found by binary search in the per-level indexes and the
+     * scan stops as soon as {@code limit} entries have been collected.
+     *
+     * @param from  inclusive lower bound, or null for no lower bound
+     * @param to    inclusive upper bound, or null for no upper bound
+     * @param limit maximum number of entries to return; 0 or less means no limit
+     */
+    public List<ParsedLog> findByLevelsAndRange(List<String> levels, LocalDateTime from, LocalDateTime to,
+                                                boolean desc, int limit) {
         if (levels == null || levels.isEmpty()) return List.of();
 
-        Comparator<ParsedLog> comparator = Comparator
-                .comparing(ParsedLog::getParsedTimestamp,
-                        Comparator.nullsLast(Comparator.naturalOrder()));
+        int max = limit > 0 ? limit : Integer.MAX_VALUE;
+        List<ParsedLog> results = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        levelIndex.scan(levels, from, to, desc, published,
+                (timestamp, seqs) -> collectDistinct(seqs, seen, results, max));
+        return results;
+    }
+
+    /**
+     * Paged variant of {@link #findByLevelsAndRange}: same order and
+     * deduplication, but returns at most {@code pageSize} entries plus a
+     * cursor for the rest. All pages of one query see the entries that were
+     * published when its first page was served.
+     * <p>
+     * Resuming seeks straight to the cursor's timestamp in the per-level
+     * indexes, so memory and work per page are bounded by the page size
+     * (plus the entries sharing the cursor's timestamp).
+     *
+     * @param cursor token from the previous page, or null for the first page
+     */
+    public LogPage findByLevelsPage(List<String> levels, LocalDateTime from, LocalDateTime to, boolean desc,
+                                    int pageSize, String cursor) {
+        checkPageSize(pageSize);
+        if (levels == null || levels.isEmpty()) return new LogPage(List.of(), null);
+
+        PageCursor resume = cursor == null ? null : PageCursor.decode(cursor);
+        int visible = published;
+        LocalDateTime lower = from;
+        LocalDateTime upper = to;
+        if (resume != null) {
+            if (resume.desc != desc) {
+                throw new IllegalArgumentException("Cursor was issued for the opposite sort order");
+            }
+            visible = checkVisible(resume.visible, cursor);
+            if (resume.timestamp != null) {
+                // Restart at the cursor's group; entries up to its seq are skipped below
+                if (desc) {
+                    upper = upper == null || resume.timestamp.isBefore(upper) ? resume.timestamp : upper;
+                } else {
+                    lower = lower == null || resume.timestamp.isAfter(lower) ? resume.timestamp : lower;
+                }
+            }
+        }
+
+        PageCollector page = new PageCollector(resume, pageSize);
+        boolean more = resume != null && resume.timestamp == null
+                || levelIndex.scanTimed(levels, lower, upper, desc, visible, page);
+        if (more && from == null && to == null) {
+            levelIndex.scanUntimed(levels, visible, page);
+        }
+        String next = page.more ? new PageCursor(desc, visible, page.lastTimestamp, page.lastSeq).encode() : null;
+        return new LogPage(page.items, next);
+    }
 
-        // Reverse AFTER applying nullsLast
-        if (desc) {
-            comparator = Comparator.comparing(
-                    ParsedLog::getParsedTimestamp,
-                    Comparator.nullsLast(Comparator.reverseOrder())
-            );
+    /**
+     * Fills one page from the index scan, skipping what earlier pages
+     * returned. Deduplication state is per group, so resuming inside a group
+     * only needs that group to be replayed.
+     */
+    private final class PageCollector implements LevelIndex.GroupVisitor {
+        private final PageCursor resume;
+        private final int pageSize;
+        private final List<ParsedLog> items = new ArrayList<>();
+        private final Set<String> seen = new HashSet<>();
+        private LocalDateTime lastTimestamp;
+        private int lastSeq;
+        private boolean more;
+
+        PageCollector(PageCursor resume, int pageSize) {
+            this.resume = resume;
+            this.pageSize = pageSize;
         }
 
-        return logs.stream()
-                .filter(l -> l.getLevel() != null && levels.contains(l.getLevel().toUpperCase()))
-                .filter(distinctByKey(l -> l.getTimestamp() + "|" + l.getMessage()))
-                .sorted(comparator)
-                .collect(Collectors.toList());
+        @Override
+        public boolean visit(LocalDateTime timestamp, IntList seqs) {
+            boolean resumedGroup = resume != null && Objects.equals(resume.timestamp, timestamp);
+            seen.clear();
+            for (int i = 0; i < seqs.size(); i++) {
+                int seq = seqs.get(i);
+                ParsedLog log = store.get(seq);
+                if (seqs.size() > 1 && !seen.add(log.getTimestamp() + "|" + log.getMessage())) {
+                    continue;
+                }
+                if (resumedGroup && seq <= resume.seq) {
+                    continue;
+                }
+                if (items.size() == pageSize) {
+                    more = true;
+                    return false;
+                }
+                items.add(log);
+                lastTimestamp = timestamp;
+                lastSeq = seq;
+            }
+            return true;
+        }
     }
 
+    private static void checkPageSize(int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+    }
+
+    private int checkVisible(int visible, String cursor) {
+        if (visible > published) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return visible;
+    }
+
+    private void notifyListeners(ParsedLog log) {
+        for (Consumer<? super ParsedLog> listener : listeners) {
+            try {
+                listener.accept(log);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Log listener failed", e);
+            }
+        }
+    }
+
+    /**
+     * Materializes a group of entries sharing one parsed timestamp, skipping
+     * (timestamp + message) duplicates. Equal timestamp strings always parse
+     * to the same value, so duplicates can only occur within a group.
+     *
+     * @return false once {@code max} entries have been collected
+     */
+    private boolean collectDistinct(IntList seqs, Set<String> seen, List<ParsedLog> out, int max) {
+        if (seqs.size() == 1) {
+            out.add(store.get(seqs.get(0)));
+            return out.size() < max;
+        }
+        seen.clear();
+        for (int i = 0; i < seqs.size() && out.size() < max; i++) {
+            ParsedLog log = store.get(seqs.get(i));
+            if (seen.add(log.getTimestamp() + "|" + log.getMessage())) {
+                out.add(log);
+            }
+        }
+        return out.size() < max;
+    }
 
     /**
-     * Utility for distinct-by-key filtering in streams.
+     * Registers a listener that is told about every entry added from now on.
+     * Listeners are called in sequence order, one entry at a time, from
+     * whichever adding thread gets to them, after the entry became visible to
+     * queries. A failing listener is logged and does not affect the others.
+     * <p>
+     * Listeners run on a writer's thread and hold up its {@code add} (and
+     * every later entry's notification) while they run, so they must not
+     * block. A listener may itself add entries; those are handed out after
+     * the current one, never nested inside it.
      */
-    private static <T> java.util.function.Predicate<T> distinctByKey(java.util.function.Function<? super T, ?> keyExtractor) {
-        Set<Object> seen = java.util.concurrent.ConcurrentHashMap.newKeySet();
-        return t -> seen.add(keyExtractor.apply(t));
+    public void addListener(Consumer<? super ParsedLog> listener) {
+        listeners.add(Objects.requireNonNull(listener, "listener must not be null"));
     }
 
+    public void removeListener(Consumer<? super ParsedLog> listener) {
+        listeners.remove(listener);
+    }
+
+    /** Number of entries visible to queries. */
+    public int size() {
+        return published;
+    }
+
+    /**
+     * Appends an entry. It is visible to queries by the time this returns,
+     * together with every entry whose {@code add} completed before it. With a
+     * write-ahead log, it is also on disk unless the log is set not to wait.
+     */
     public void add(ParsedLog log) {
-        logs.add(log);
+        if (wal == null) {
+            insert(log);
+            return;
+        }
+        // Stored under the log's append lock, so sequence and record order agree
+        long record = wal.append(log, store::add);
+        awaitPublished((int) (record - walOffset));
+        // Concurrent adders share one force of the log
+        wal.awaitDurable(record);
+    }
+
+    /**
+     * Appends a batch in list order. Entries are indexed and, with a write-ahead
+     * log, forced to disk together, which is far cheaper than one {@link #add}
+     * per entry. Entries of concurrent calls may interleave.
+     */
+    public void addAll(List<ParsedLog> logs) {
+        if (logs.isEmpty()) {
+            return;
+        }
+        if (wal == null) {
+            int last = -1;
+            for (ParsedLog log : logs) {
+                last = store.add(log);
+            }
+            awaitPublished(last);
+            return;
+        }
+        long record = -1;
+        for (ParsedLog log : logs) {
+            record = wal.append(log, store::add);
+        }
+        awaitPublished((int) (record - walOffset));
+        wal.awaitDurable(record);
+    }
+
+    private void insert(ParsedLog log) {
+        awaitPublished(store.add(log));
+    }
+
+    /** Publishes pending entries and returns once {@code seq} is visible, then notifies listeners. */
+    private void awaitPublished(int seq) {
+        publish();
+        while (published <= seq) {
+            // Another thread is indexing; it (or we, once it lets go) will reach our entry
+            Thread.yield();
+            publish();
+        }
+        deliver();
+    }
+
+    /**
+     * Indexes completed entries in sequence order. A thread that finds the
+     * lock taken leaves its entry to the holder, which re-checks for stragglers
+     * after unlocking, so no entry is ever left unpublished.
+     */
+    private void publish() {
+        while (publishLock.tryLock()) {
+            try {
+                int next = published;
+                ParsedLog log;
+                while (next < store.size() && (log = store.get(next)) != null) {
+                    levelIndex.add(next, log);
+                    messageIndex.add(next, log);
+                    published = ++next;
+                }
+            } finally {
+                publishLock.unlock();
+            }
+            int next = published;
+            if (next >= store.size() || store.get(next) == null) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Hands published entries to the listeners in sequence order. Works like
+     * {@link #publish}: a thread that finds the lock taken leaves the entries
+     * to the holder. A listener that adds an entry re-enters here on the same
+     * thread and returns at once; the outer loop reads {@code published} on
+     * every pass and delivers that entry next.
+     */
+    private void deliver() {
+        if (notifyLock.isHeldByCurrentThread()) {
+            return;
+        }
+        while (notifyLock.tryLock()) {
+            try {
+                int next;
+                while ((next = notified) < published) {
+                    ParsedLog log = store.get(next);
+                    notified = next + 1;
+                    notifyListeners(log);
+                }
+            } finally {
+                notifyLock.unlock();
+            }
+            if (notified >= published) {
+                return;
+            }
+        }
     }
 }
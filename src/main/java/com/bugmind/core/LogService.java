@@ -1,5 +1,6 @@
 package com.bugmind.core;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -26,4 +27,35 @@ public class LogService {
     public List<ParsedLog> getLogsByLevelsSorted(List<String> levels, boolean desc) {
         return repository.findByLevelsSorted(levels, desc);
     }
+
+    /**
+     * Multi-level query restricted to an inclusive time range, with an optional limit.
+     */
+    public List<ParsedLog> getLogsByLevelsAndRange(List<String> levels, LocalDateTime from, LocalDateTime to,
+                                                   boolean desc, int limit) {
+        return repository.findByLevelsAndRange(levels, from, to, desc, limit);
+    }
+
+    /**
+     * Paged multi-level query; pass the previous page's cursor to continue.
+     */
+    public LogPage getLogsByLevelsPage(List<String> levels, LocalDateTime from, LocalDateTime to,
+                                       boolean desc, int pageSize, String cursor) {
+        return repository.findByLevelsPage(levels, from, to, desc, pageSize, cursor);
+    }
+
+    /**
+     * Pages through all logs in insertion order.
+     */
+    public LogPage getAllLogsPage(int pageSize, String cursor) {
+        return repository.findAllPage(pageSize, cursor);
+    }
+
+    /**
+     * Full-text message search, optionally restricted to levels and a time range.
+     */
+    public List<ParsedLog> searchLogs(String query, List<String> levels, LocalDateTime from, LocalDateTime to,
+                                      boolean desc, int limit) {
+        return repository.searchMessages(query, levels, from, to, desc, limit);
+    }
 }
@@ -0,0 +1,275 @@
+package com.bugmind.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Binary snapshot of a {@link LogRepository}, so a restart loads entries
+ * instead of re-parsing raw text.
+ * <p>
+ * File layout: an 8-byte header ({@code "BMSN"}, version, reserved), then
+ * {@link LogEntryCodec} blocks of roughly {@code blockBytes} each, then an end
+ * marker ({@code int -1}) followed by the total entry count and the number of
+ * {@link WriteAheadLog} records the snapshot covers (0 for repositories
+ * without a log; version 1 files lack this field). Every block carries its
+ * own CRC32 and dictionaries, so corruption is reported with the offending
+ * offset.
+ * <p>
+ * Snapshots are written to a temporary sibling through a {@link FileChannel}
+ * and moved into place, so a crash mid-write never leaves a half-written
+ * snapshot under the target name. Loading memory-maps the file.
+ * <p>
+ * A repository backed by a write-ahead log is restored with
+ * {@link LogRepository#LogRepository(LogStore, WriteAheadLog, Path)}, which
+ * replays only the records the snapshot does not cover.
+ */
+public class LogSnapshot {
+
+    /** Default target size of one encoded block. */
+    public static final int DEFAULT_BLOCK_BYTES = 256 * 1024;
+
+    static final int MAGIC = 0x424D534E; // "BMSN"
+    static final short VERSION = 2;
+    static final int HEADER_BYTES = 8;
+    private static final int END_MARKER = -1;
+    private static final int TRAILER_BYTES = 4 + 8 + 8;
+    private static final int V1_TRAILER_BYTES = 4 + 8;
+
+    // Upper bound for a single mapping; blocks larger than this get their own
+    private static final long MAX_WINDOW_BYTES = 64L * 1024 * 1024;
+
+    private final int blockBytes;
+
+    public LogSnapshot() {
+        this(DEFAULT_BLOCK_BYTES);
+    }
+
+    public LogSnapshot(int blockBytes) {
+        if (blockBytes <= 0) {
+            throw new IllegalArgumentException("blockBytes must be positive");
+        }
+        this.blockBytes = blockBytes;
+    }
+
+    /**
+     * Writes every entry the repository has published so far. For a
+     * repository with a write-ahead log, the snapshot records how many log
+     * records it covers, and once it is in place the log may delete them.
+     *
+     * @return the number of entries written
+     */
+    public long write(LogRepository repository, Path file) throws IOException {
+        Objects.requireNonNull(repository, "repository must not be null");
+        long[] walRecords = new long[1];
+        long count = writeFrom(sink -> walRecords[0] = repository.syncWal(repository.forEachPublished(sink)),
+                () -> walRecords[0], file);
+        repository.snapshotWritten(walRecords[0]);
+        return count;
+    }
+
+    /**
+     * Writes the given entries in iteration order.
+     *
+     * @return the number of entries written
+     */
+    public long write(Iterable<ParsedLog> logs, Path file) throws IOException {
+        Objects.requireNonNull(logs, "logs must not be null");
+        return writeFrom(logs::forEach, () -> 0L, file);
+    }
+
+    private long writeFrom(Consumer<Consumer<ParsedLog>> source, LongSupplier walRecords, Path file)
+            throws IOException {
+        Objects.requireNonNull(file, "file must not be null");
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        long count;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putShort(VERSION).putShort((short) 0);
+            writeFully(channel, header.flip());
+
+            LogEntryCodec.BlockEncoder encoder = new LogEntryCodec.BlockEncoder();
+            long[] written = new long[1];
+            try {
+                source.accept(log -> {
+                    encoder.add(log);
+                    written[0]++;
+                    if (encoder.size() >= blockBytes) {
+                        writeBlock(channel, encoder);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (!encoder.isEmpty()) {
+                writeBlock(channel, encoder);
+            }
+            count = written[0];
+
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_BYTES).putInt(END_MARKER).putLong(count)
+                    .putLong(walRecords.getAsLong());
+            writeFully(channel, trailer.flip());
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        // The rename must be durable before the log may drop what the snapshot covers
+        WriteAheadLog.syncDirectory(file.toAbsolutePath().getParent());
+        return count;
+    }
+
+    private static void writeBlock(FileChannel channel, LogEntryCodec.BlockEncoder encoder) {
+        try {
+            writeFully(channel, encoder.finish());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Adds every entry of the snapshot to the repository, in snapshot order.
+     *
+     * @return the number of entries loaded
+     * @throws IllegalStateException if the repository has a write-ahead log;
+     *         open it with {@link LogRepository#LogRepository(LogStore, WriteAheadLog, Path)}
+     *         instead, so the entries are not logged a second time
+     */
+    public long load(Path file, LogRepository repository) throws IOException {
+        Objects.requireNonNull(repository, "repository must not be null");
+        if (repository.hasWriteAheadLog()) {
+            throw new IllegalStateException("Snapshots of a repository with a write-ahead log are loaded when it is opened");
+        }
+        return read(file, repository::add);
+    }
+
+    /**
+     * Decodes the snapshot and pushes its entries to the sink in order. Entries
+     * of a block are only handed out once the block's checksum has been verified.
+     *
+     * @return the number of entries read
+     * @throws IOException if the file is not a snapshot, or is truncated or corrupt
+     */
+    public long read(Path file, Consumer<? super ParsedLog> sink) throws IOException {
+        return read(file, sink, new long[1]);
+    }
+
+    /** Like {@link #read(Path, Consumer)}, and stores the covered log records in {@code walRecords[0]}. */
+    long read(Path file, Consumer<? super ParsedLog> sink, long[] walRecords) throws IOException {
+        Objects.requireNonNull(sink, "sink must not be null");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + V1_TRAILER_BYTES) {
+                throw corrupt(file, 0, "file too short for a snapshot");
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            channel.read(header, 0);
+            if (header.getInt(0) != MAGIC) {
+                throw corrupt(file, 0, "bad magic");
+            }
+            short version = header.getShort(4);
+            if (version != VERSION && version != 1) {
+                throw corrupt(file, 4, "unsupported version " + version);
+            }
+            int trailerBytes = version == 1 ? V1_TRAILER_BYTES : TRAILER_BYTES;
+
+            Window window = new Window(channel, size);
+            long pos = HEADER_BYTES;
+            long count = 0;
+            while (true) {
+                MappedByteBuffer map = window.cover(pos, 4);
+                if (map == null) {
+                    throw corrupt(file, pos, "truncated before end marker");
+                }
+                int payloadLength = map.getInt(window.offset(pos));
+                if (payloadLength == END_MARKER) {
+                    map = window.cover(pos, trailerBytes);
+                    if (map == null || pos + trailerBytes != size) {
+                        throw corrupt(file, pos, "malformed end marker");
+                    }
+                    long expected = map.getLong(window.offset(pos) + 4);
+                    if (expected != count) {
+                        throw corrupt(file, pos, "trailer counts " + expected + " entries, blocks hold " + count);
+                    }
+                    walRecords[0] = version == 1 ? 0 : map.getLong(window.offset(pos) + 12);
+                    return count;
+                }
+                if (payloadLength < 0) {
+                    throw corrupt(file, pos, "negative block length");
+                }
+                long blockLength = LogEntryCodec.BLOCK_HEADER_BYTES + (long) payloadLength;
+                map = window.cover(pos, blockLength);
+                if (map == null) {
+                    throw corrupt(file, pos, "block runs past end of file");
+                }
+                int offset = window.offset(pos);
+                int payloadOffset = offset + LogEntryCodec.BLOCK_HEADER_BYTES;
+                if (LogEntryCodec.checksum(map, payloadOffset, payloadLength) != map.getInt(offset + 4)) {
+                    throw corrupt(file, pos, "checksum mismatch");
+                }
+                try {
+                    count += LogEntryCodec.decode(map.slice(payloadOffset, payloadLength), sink);
+                } catch (IllegalArgumentException e) {
+                    throw corrupt(file, pos, e.getMessage());
+                }
+                pos += blockLength;
+            }
+        }
+    }
+
+    private static IOException corrupt(Path file, long offset, String reason) {
+        return new IOException("Corrupt snapshot " + file + " at offset " + offset + ": " + reason);
+    }
+
+    /** Read-only mapping of part of the file, moved forward as blocks are consumed. */
+    private static final class Window {
+        private final FileChannel channel;
+        private final long fileSize;
+        private MappedByteBuffer map;
+        private long start;
+
+        Window(FileChannel channel, long fileSize) {
+            this.channel = channel;
+            this.fileSize = fileSize;
+        }
+
+        /**
+         * Returns a mapping that contains {@code [pos, pos + length)}, or null
+         * if that range extends past the end of the file.
+         */
+        MappedByteBuffer cover(long pos, long length) throws IOException {
+            if (pos + length > fileSize) {
+                return null;
+            }
+            if (map == null || pos < start || pos + length > start + map.capacity()) {
+                long mapLength = Math.min(fileSize - pos, Math.max(MAX_WINDOW_BYTES, length));
+                if (mapLength > Integer.MAX_VALUE) {
+                    throw new IOException("block at offset " + pos + " is too large to map");
+                }
+                map = channel.map(FileChannel.MapMode.READ_ONLY, pos, mapLength);
+                start = pos;
+            }
+            return map;
+        }
+
+        int offset(long pos) {
+            return (int) (pos - start);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.bugmind.core;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Storage backend behind {@link LogRepository}.
+ * <p>
+ * Entries are append-only and addressed by their sequence number, i.e. the
+ * 0-based position in insertion order. Entries must not be mutated after
+ * they have been added.
+ * <p>
+ * Implementations must accept concurrent {@link #add} calls and allow reads
+ * while appends are in progress.
+ */
+public interface LogStore {
+
+    /** {@link #epochSecond} of an entry whose timestamp could not be parsed. */
+    long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    /**
+     * Appends an entry. Once this returns, {@link #get(int)} sees the entry.
+     *
+     * @return the sequence number assigned to it
+     */
+    int add(ParsedLog log);
+
+    /**
+     * Number of sequence numbers handed out so far. The newest of them may
+     * still belong to {@link #add} calls that have not completed yet.
+     */
+    int size();
+
+    /**
+     * Returns the entry with the given sequence number, or null while the
+     * {@link #add} call that reserved it is still in progress.
+     */
+    ParsedLog get(int seq);
+
+    /**
+     * Returns the level of a completed entry. Backends that keep levels
+     * separately can answer this without materializing the entry.
+     */
+    default String level(int seq) {
+        return get(seq).getLevel();
+    }
+
+    /**
+     * Parsed timestamp of a completed entry as UTC epoch seconds, or
+     * {@link #NO_TIMESTAMP}. Lets queries filter and order by time without
+     * materializing entries.
+     */
+    default long epochSecond(int seq) {
+        LocalDateTime parsed = get(seq).getParsedTimestamp();
+        return parsed == null ? NO_TIMESTAMP : parsed.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /** Nanosecond part of the parsed timestamp of a completed entry; 0 without one. */
+    default int nano(int seq) {
+        LocalDateTime parsed = get(seq).getParsedTimestamp();
+        return parsed == null ? 0 : parsed.getNano();
+    }
+}
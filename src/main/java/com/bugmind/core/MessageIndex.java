@@ -0,0 +1,244 @@
+package com.bugmind.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Inverted index from message tokens (see {@link MessageQuery#tokenize}) to
+ * the sequence numbers of the entries containing them.
+ * <p>
+ * Each posting list is delta-encoded as varints, usually one or two bytes per
+ * entry, with a skip entry every {@value #SKIP_INTERVAL} postings so that
+ * intersections can jump over long lists instead of decoding them.
+ * <p>
+ * Like {@link LevelIndex}, a single thread adds entries in ascending sequence
+ * order while any number of queries run; queries only report sequence numbers
+ * below the bound they are given.
+ */
+final class MessageIndex {
+
+    static final int SKIP_INTERVAL = 64;
+
+    private final Map<String, Postings> byToken = new ConcurrentHashMap<>();
+
+    void add(int seq, ParsedLog log) {
+        String message = log.getMessage();
+        if (message == null) {
+            return;
+        }
+        MessageQuery.tokenize(message, token -> byToken.computeIfAbsent(token, k -> new Postings()).add(seq));
+    }
+
+    /** Number of distinct tokens. */
+    int tokenCount() {
+        return byToken.size();
+    }
+
+    /**
+     * Returns the ascending sequence numbers below {@code visible} whose
+     * messages contain every token of some alternative of the query. When
+     * {@link MessageQuery#needsVerification()} is true these are candidates.
+     */
+    IntList match(MessageQuery query, int visible) {
+        List<IntList> perAlternative = new ArrayList<>();
+        for (List<MessageQuery.Term> terms : query.alternatives()) {
+            List<Postings> lists = new ArrayList<>();
+            boolean missing = false;
+            for (MessageQuery.Term term : terms) {
+                for (String token : term.tokens) {
+                    Postings postings = byToken.get(token);
+                    if (postings == null) {
+                        missing = true;
+                        break;
+                    }
+                    lists.add(postings);
+                }
+            }
+            if (!missing) {
+                perAlternative.add(intersect(lists, visible));
+            }
+        }
+        return union(perAlternative);
+    }
+
+    /** Leapfrog intersection driven by the shortest list. */
+    private static IntList intersect(List<Postings> lists, int visible) {
+        lists.sort(Comparator.comparingInt(p -> p.count));
+        Postings.Cursor lead = lists.get(0).cursor(visible);
+        Postings.Cursor[] others = new Postings.Cursor[lists.size() - 1];
+        for (int i = 1; i < lists.size(); i++) {
+            others[i - 1] = lists.get(i).cursor(visible);
+        }
+        IntList out = new IntList();
+        int candidate = lead.next();
+        outer:
+        while (candidate != Postings.Cursor.END) {
+            for (Postings.Cursor other : others) {
+                int found = other.advance(candidate);
+                if (found == Postings.Cursor.END) {
+                    break outer;
+                }
+                if (found != candidate) {
+                    candidate = lead.advance(found);
+                    continue outer;
+                }
+            }
+            out.add(candidate);
+            candidate = lead.next();
+        }
+        return out;
+    }
+
+    private static IntList union(List<IntList> lists) {
+        if (lists.size() == 1) {
+            return lists.get(0);
+        }
+        int total = 0;
+        for (IntList list : lists) {
+            total += list.size();
+        }
+        int[] all = new int[total];
+        int n = 0;
+        for (IntList list : lists) {
+            for (int i = 0; i < list.size(); i++) {
+                all[n++] = list.get(i);
+            }
+        }
+        Arrays.sort(all);
+        IntList out = new IntList(Math.max(1, total));
+        for (int i = 0; i < total; i++) {
+            if (i == 0 || all[i] != all[i - 1]) {
+                out.add(all[i]);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Delta-varint posting list with skip entries. One writer; readers take
+     * {@link #length} first, then {@link #data}, which is then guaranteed to
+     * hold at least that many valid bytes.
+     */
+    static final class Postings {
+        private volatile byte[] data = new byte[4];
+        private volatile int length;
+        volatile int count;
+        private int last = -1;
+        // Every SKIP_INTERVAL postings: (previous value, offset of the next delta) pairs; null until needed
+        private volatile IntList skips;
+
+        void add(int seq) {
+            if (seq == last) {
+                return; // token repeated within one message
+            }
+            int n = count;
+            int len = length;
+            if (n > 0 && n % SKIP_INTERVAL == 0) {
+                IntList s = skips;
+                if (s == null) {
+                    s = new IntList();
+                    skips = s;
+                }
+                s.add(last);
+                s.add(len);
+            }
+            byte[] d = data;
+            if (len + 5 > d.length) {
+                d = Arrays.copyOf(d, Math.max(len + 5, d.length * 2));
+                data = d;
+            }
+            int delta = seq - last;
+            while ((delta & ~0x7F) != 0) {
+                d[len++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            d[len++] = (byte) delta;
+            last = seq;
+            length = len;
+            count = n + 1;
+        }
+
+        Cursor cursor(int visible) {
+            int len = length;
+            return new Cursor(data, len, skips, visible);
+        }
+
+        /** Ascending iteration with seek; returns {@link #END} once past {@code visible}. */
+        static final class Cursor {
+            static final int END = Integer.MAX_VALUE;
+
+            private final byte[] data;
+            private final int limit;
+            private final IntList skips;
+            private final int visible;
+            private int pos;
+            private int current = -1;
+
+            Cursor(byte[] data, int limit, IntList skips, int visible) {
+                this.data = data;
+                this.limit = limit;
+                this.skips = skips;
+                this.visible = visible;
+            }
+
+            int next() {
+                if (current == END || pos >= limit) {
+                    return current = END;
+                }
+                int delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data[pos++];
+                    delta |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                current += delta;
+                if (current >= visible) {
+                    current = END;
+                }
+                return current;
+            }
+
+            /** Moves to the first value at or after {@code target} and returns it. */
+            int advance(int target) {
+                if (current >= target) {
+                    return current;
+                }
+                skipTo(target);
+                int value;
+                do {
+                    value = next();
+                } while (value < target);
+                return value;
+            }
+
+            private void skipTo(int target) {
+                if (skips == null) {
+                    return;
+                }
+                // Skip entries are appended before the bytes they point at, so bound them by limit
+                int lo = 0;
+                int hi = skips.size() / 2 - 1;
+                int best = -1;
+                while (lo <= hi) {
+                    int mid = (lo + hi) >>> 1;
+                    if (skips.get(2 * mid) < target && skips.get(2 * mid + 1) <= limit) {
+                        best = mid;
+                        lo = mid + 1;
+                    } else {
+                        hi = mid - 1;
+                    }
+                }
+                if (best >= 0 && skips.get(2 * best + 1) > pos) {
+                    pos = skips.get(2 * best + 1);
+                    current = skips.get(2 * best);
+                }
+            }
+        }
+    }
+}
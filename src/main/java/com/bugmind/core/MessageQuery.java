@@ -0,0 +1,166 @@
+package com.bugmind.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parsed message-search query: alternatives separated by {@code OR}, each a
+ * conjunction of whitespace-separated terms (an explicit {@code AND} is
+ * allowed and ignored). {@code AND} binds tighter, so {@code a b OR c} means
+ * {@code (a AND b) OR c}. Matching is case-insensitive.
+ * <p>
+ * A term made of one token ({@code timeout}, {@code 4711}) matches messages
+ * containing that token. A term with punctuation ({@code ORD-4711},
+ * {@code com.example.Repo}) matches messages containing it verbatim, starting
+ * and ending on token boundaries (so {@code com.example.Repo} does not match
+ * {@code com.example.RepoCache}); the index narrows the candidates by its
+ * tokens and {@link #matches(String)} confirms.
+ */
+final class MessageQuery {
+
+    /** Longest token kept; longer runs are cut, and terms containing them are verified. */
+    static final int MAX_TOKEN_LENGTH = 64;
+
+    /** One term: its tokens, plus the lower-cased text when tokens alone are not exact. */
+    static final class Term {
+        final List<String> tokens;
+        final String verbatim;
+
+        Term(List<String> tokens, String verbatim) {
+            this.tokens = tokens;
+            this.verbatim = verbatim;
+        }
+    }
+
+    private final List<List<Term>> alternatives;
+    private final boolean needsVerification;
+
+    private MessageQuery(List<List<Term>> alternatives) {
+        this.alternatives = alternatives;
+        this.needsVerification = alternatives.stream().flatMap(List::stream).anyMatch(t -> t.verbatim != null);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the query has no searchable term or
+     *                                  an {@code OR} without terms on one side
+     */
+    static MessageQuery parse(String query) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be blank");
+        }
+        List<List<Term>> alternatives = new ArrayList<>();
+        List<Term> current = new ArrayList<>();
+        for (String word : query.trim().split("\\s+")) {
+            if (word.equals("OR")) {
+                addAlternative(alternatives, current);
+                current = new ArrayList<>();
+            } else if (!word.equals("AND")) {
+                List<String> tokens = new ArrayList<>();
+                boolean truncated = tokenize(word, tokens::add);
+                if (tokens.isEmpty()) {
+                    throw new IllegalArgumentException("Search term has no letters or digits: " + word);
+                }
+                boolean exact = tokens.size() == 1 && !truncated && tokens.get(0).length() == word.length();
+                current.add(new Term(List.copyOf(tokens), exact ? null : word.toLowerCase(Locale.ROOT)));
+            }
+        }
+        addAlternative(alternatives, current);
+        return new MessageQuery(List.copyOf(alternatives));
+    }
+
+    private static void addAlternative(List<List<Term>> alternatives, List<Term> terms) {
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("OR needs search terms on both sides");
+        }
+        alternatives.add(List.copyOf(terms));
+    }
+
+    List<List<Term>> alternatives() {
+        return alternatives;
+    }
+
+    /** True when index candidates must be confirmed with {@link #matches(String)}. */
+    boolean needsVerification() {
+        return needsVerification;
+    }
+
+    /** Exact match semantics, for confirming index candidates. */
+    boolean matches(String message) {
+        if (message == null) {
+            return false;
+        }
+        String lower = message.toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        tokenize(message, tokens::add);
+        for (List<Term> terms : alternatives) {
+            boolean all = true;
+            for (Term term : terms) {
+                boolean hit = term.verbatim != null
+                        ? containsOnBoundaries(lower, term.verbatim)
+                        : tokens.contains(term.tokens.get(0));
+                if (!hit) {
+                    all = false;
+                    break;
+                }
+            }
+            if (all) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean containsOnBoundaries(String text, String term) {
+        for (int at = text.indexOf(term); at >= 0; at = text.indexOf(term, at + 1)) {
+            int end = at + term.length();
+            boolean startOk = at == 0 || !isTokenChar(term.charAt(0)) || !isTokenChar(text.charAt(at - 1));
+            boolean endOk = end == text.length() || !isTokenChar(term.charAt(term.length() - 1))
+                    || !isTokenChar(text.charAt(end));
+            if (startOk && endOk) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Receives one lower-cased token. */
+    @FunctionalInterface
+    interface TokenSink {
+        void token(String token);
+    }
+
+    /**
+     * Splits text into lower-cased runs of letters, digits and '_', each cut
+     * to {@link #MAX_TOKEN_LENGTH} characters.
+     *
+     * @return true if any run had to be cut
+     */
+    static boolean tokenize(String text, TokenSink sink) {
+        boolean truncated = false;
+        int n = text.length();
+        int i = 0;
+        while (i < n) {
+            while (i < n && !isTokenChar(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < n && isTokenChar(text.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                int end = Math.min(i, start + MAX_TOKEN_LENGTH);
+                truncated |= end < i;
+                sink.token(text.substring(start, end).toLowerCase(Locale.ROOT));
+            }
+        }
+        return truncated;
+    }
+
+    private static boolean isTokenChar(char c) {
+        if (c < 0x80) {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+        }
+        return Character.isLetterOrDigit(c);
+    }
+}
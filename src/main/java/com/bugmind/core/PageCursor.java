@@ -0,0 +1,112 @@
+package com.bugmind.core;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Position of the last entry handed out by a paged query.
+ * <p>
+ * Encoded as an opaque URL-safe token holding the sort direction, the
+ * published size the first page was served from (so later pages see the
+ * same snapshot), and the timestamp and sequence number of the last entry.
+ * A null timestamp means the last entry was in the unparseable-timestamp
+ * group.
+ */
+final class PageCursor {
+
+    private static final String LEVEL_QUERY = "L1";
+    private static final String ALL_QUERY = "A1";
+    private static final String NO_TIMESTAMP = "-";
+
+    final boolean desc;
+    final int visible;
+    final LocalDateTime timestamp;
+    final int seq;
+
+    PageCursor(boolean desc, int visible, LocalDateTime timestamp, int seq) {
+        this.desc = desc;
+        this.visible = visible;
+        this.timestamp = timestamp;
+        this.seq = seq;
+    }
+
+    /** Token for a level query, resuming after the given entry. */
+    String encode() {
+        String ts = timestamp == null
+                ? NO_TIMESTAMP
+                : timestamp.toEpochSecond(ZoneOffset.UTC) + "." + timestamp.getNano();
+        return toToken(LEVEL_QUERY + ":" + (desc ? "d" : "a") + ":" + visible + ":" + ts + ":" + seq);
+    }
+
+    /** Token for an insertion-order scan, resuming at {@code nextSeq}. */
+    static String encodeAll(int visible, int nextSeq) {
+        return toToken(ALL_QUERY + ":" + visible + ":" + nextSeq);
+    }
+
+    static PageCursor decode(String token) {
+        String[] parts = fromToken(token).split(":");
+        try {
+            if (parts.length != 5 || !LEVEL_QUERY.equals(parts[0])
+                    || !(parts[1].equals("a") || parts[1].equals("d"))) {
+                throw invalid(token);
+            }
+            LocalDateTime timestamp = null;
+            if (!NO_TIMESTAMP.equals(parts[3])) {
+                int dot = parts[3].indexOf('.');
+                timestamp = LocalDateTime.ofEpochSecond(Long.parseLong(parts[3].substring(0, dot)),
+                        Integer.parseInt(parts[3].substring(dot + 1)), ZoneOffset.UTC);
+            }
+            return checked(new PageCursor(parts[1].equals("d"), Integer.parseInt(parts[2]),
+                    timestamp, Integer.parseInt(parts[4])), token);
+        } catch (RuntimeException e) {
+            throw e instanceof IllegalArgumentException ? e : invalid(token);
+        }
+    }
+
+    /**
+     * Decodes an insertion-order token.
+     *
+     * @return {visible, nextSeq}
+     */
+    static int[] decodeAll(String token) {
+        String[] parts = fromToken(token).split(":");
+        try {
+            if (parts.length != 3 || !ALL_QUERY.equals(parts[0])) {
+                throw invalid(token);
+            }
+            int visible = Integer.parseInt(parts[1]);
+            int next = Integer.parseInt(parts[2]);
+            if (visible < 0 || next < 0 || next > visible) {
+                throw invalid(token);
+            }
+            return new int[] {visible, next};
+        } catch (NumberFormatException e) {
+            throw invalid(token);
+        }
+    }
+
+    private static PageCursor checked(PageCursor cursor, String token) {
+        if (cursor.visible < 0 || cursor.seq < 0 || cursor.seq >= cursor.visible) {
+            throw invalid(token);
+        }
+        return cursor;
+    }
+
+    private static String toToken(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static String fromToken(String token) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.US_ASCII);
+        } catch (IllegalArgumentException e) {
+            throw invalid(token);
+        }
+    }
+
+    private static IllegalArgumentException invalid(String token) {
+        return new IllegalArgumentException("Invalid cursor: " + token);
+    }
+}
@@ -8,15 +8,23 @@ import java.util.List;
 /**
  * Represents a structured log entry parsed from raw text,
  * enhanced with timestamp normalization support.
+ * <p>
+ * The timestamp string is only parsed on the first {@link #getParsedTimestamp()}
+ * call, unless the creator already supplied the parsed value.
  */
 public class ParsedLog {
 
     private String timestamp;
     private final String level;
     private String message;
+    // Frame-interned message, rendered on every getMessage(); null for plain messages
+    private CompactMessage compactMessage;
     private final String exceptionType;
+    // UNRESOLVED until first access; null once resolved means "unparseable"
     private LocalDateTime parsedTimestamp;
 
+    private static final LocalDateTime UNRESOLVED = LocalDateTime.MIN;
+
     private static final List<DateTimeFormatter> SUPPORTED_FORMATS = List.of(
             DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
             DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss"),
@@ -25,11 +33,30 @@ public class ParsedLog {
     );
 
     public ParsedLog(String timestamp, String level, String message, String exceptionType) {
+        this(timestamp, level, message, exceptionType, null);
+    }
+
+    /**
+     * Creates an entry whose timestamp has already been decoded, e.g. by {@link LogParser}.
+     *
+     * @param parsedTimestamp value of {@code timestamp}, or null to parse lazily
+     */
+    public ParsedLog(String timestamp, String level, String message, String exceptionType,
+                     LocalDateTime parsedTimestamp) {
         this.timestamp = timestamp;
         this.level = level;
         this.message = message;
         this.exceptionType = exceptionType;
-        this.parsedTimestamp = parseTimestampSafe(timestamp);
+        this.parsedTimestamp = (parsedTimestamp != null) ? parsedTimestamp : UNRESOLVED;
+    }
+
+    /**
+     * Creates an entry whose message is kept frame-interned; see {@link FrameDictionary}.
+     */
+    ParsedLog(String timestamp, String level, CompactMessage message, String exceptionType,
+              LocalDateTime parsedTimestamp) {
+        this(timestamp, level, (String) null, exceptionType, parsedTimestamp);
+        this.compactMessage = message;
     }
 
     public String getTimestamp() {
@@ -41,7 +68,8 @@ public class ParsedLog {
     }
 
     public String getMessage() {
-        return message;
+        CompactMessage compact = compactMessage;
+        return compact != null ? compact.render() : message;
     }
 
     public String getExceptionType() {
@@ -49,16 +77,23 @@ public class ParsedLog {
     }
 
     public LocalDateTime getParsedTimestamp() {
-        return parsedTimestamp;
+        // Racy single-check: LocalDateTime is immutable and parsing is idempotent
+        LocalDateTime parsed = parsedTimestamp;
+        if (parsed == UNRESOLVED) {
+            parsed = parseTimestampSafe(timestamp);
+            parsedTimestamp = parsed;
+        }
+        return parsed;
     }
 
     public void setMessage(String newMessage) {
         this.message = (newMessage == null) ? "" : newMessage.trim();
+        this.compactMessage = null;
     }
 
     public void setTimestamp(String newTimestamp) {
         this.timestamp = newTimestamp;
-        this.parsedTimestamp = parseTimestampSafe(newTimestamp);
+        this.parsedTimestamp = UNRESOLVED;
     }
 
     /**
@@ -77,9 +112,11 @@ public class ParsedLog {
 
     @Override
     public String toString() {
+        // Read once: a frame-interned message is rebuilt on every getMessage()
+        String text = getMessage();
         return "[" + (timestamp != null ? timestamp : "-") + "] "
                 + (level != null ? level : "-") + ": "
-                + (message != null ? message : "")
+                + (text != null ? text : "")
                 + (exceptionType != null ? " (" + exceptionType + ")" : "");
     }
 }
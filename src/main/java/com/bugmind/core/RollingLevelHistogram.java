@@ -0,0 +1,207 @@
+package com.bugmind.core;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.function.Consumer;
+
+/**
+ * Rolling per-level counts over recent event time, in second, minute and
+ * hour tiers.
+ * <p>
+ * Each tier is a fixed ring of {@link LevelCounts} buckets, so memory stays
+ * constant however many entries arrive, and a windowed query touches only
+ * the buckets it covers. Windows end at the newest event seen (or at an
+ * explicit end time) and are answered from the finest tier that spans them.
+ * Entries whose timestamp could not be parsed, or that fall behind a tier's
+ * window, are not counted in that tier.
+ * <p>
+ * Feed it with {@link LogRepository#addListener} or straight from
+ * {@link LogFileParser#parseFile(java.nio.file.Path, Consumer)}. Thread-safe.
+ */
+public class RollingLevelHistogram implements Consumer<ParsedLog> {
+
+    private final Tier seconds;
+    private final Tier minutes;
+    private final Tier hours;
+    private long untimed;
+
+    /** Keeps the last 60 seconds, 60 minutes and 24 hours. */
+    public RollingLevelHistogram() {
+        this(60, 60, 24);
+    }
+
+    public RollingLevelHistogram(int secondBuckets, int minuteBuckets, int hourBuckets) {
+        this.seconds = new Tier(1, secondBuckets);
+        this.minutes = new Tier(60, minuteBuckets);
+        this.hours = new Tier(3600, hourBuckets);
+    }
+
+    @Override
+    public synchronized void accept(ParsedLog log) {
+        LocalDateTime timestamp = log.getParsedTimestamp();
+        if (timestamp == null) {
+            untimed++;
+            return;
+        }
+        long second = timestamp.toEpochSecond(ZoneOffset.UTC);
+        String level = log.getLevel();
+        seconds.add(second, level);
+        minutes.add(second, level);
+        hours.add(second, level);
+    }
+
+    /** Newest event time seen, truncated to the second; null before the first entry. */
+    public synchronized LocalDateTime latest() {
+        return seconds.newest == Long.MIN_VALUE
+                ? null
+                : LocalDateTime.ofEpochSecond(seconds.newest, 0, ZoneOffset.UTC);
+    }
+
+    /** Entries skipped because their timestamp could not be parsed. */
+    public synchronized long untimedCount() {
+        return untimed;
+    }
+
+    /** Count of the level within the window ending at the newest event. */
+    public synchronized long count(String level, Duration window) {
+        LocalDateTime end = latest();
+        return end == null ? 0 : count(level, window, end);
+    }
+
+    /**
+     * Count of the level in the buckets covering {@code window} up to and
+     * including the bucket that contains {@code end}.
+     */
+    public synchronized long count(String level, Duration window, LocalDateTime end) {
+        Tier tier = tierFor(window);
+        long last = Math.floorDiv(end.toEpochSecond(ZoneOffset.UTC), tier.width);
+        long total = 0;
+        for (long id = last - tier.span(window) + 1; id <= last; id++) {
+            LevelCounts bucket = tier.bucket(id);
+            if (bucket != null) {
+                total += bucket.count(level);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Average entries of the level per second over the window ending at the
+     * newest event. The count covers whole buckets, so it is divided by the
+     * seconds those buckets span rather than by the window itself.
+     */
+    public synchronized double ratePerSecond(String level, Duration window) {
+        Tier tier = tierFor(window);
+        return (double) count(level, window) / (tier.span(window) * tier.width);
+    }
+
+    /**
+     * Counts for every level within the window ending at {@code end}, as a
+     * fresh {@link LevelCounts}.
+     */
+    public synchronized LevelCounts window(Duration window, LocalDateTime end) {
+        Tier tier = tierFor(window);
+        long last = Math.floorDiv(end.toEpochSecond(ZoneOffset.UTC), tier.width);
+        LevelCounts merged = new LevelCounts();
+        for (long id = last - tier.span(window) + 1; id <= last; id++) {
+            LevelCounts bucket = tier.bucket(id);
+            if (bucket != null) {
+                merged.merge(bucket);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Per-bucket counts of the level, oldest first, ending with the bucket of
+     * the newest event; e.g. {@code series("ERROR", ChronoUnit.MINUTES, 60)}
+     * gives errors per minute over the last hour.
+     */
+    public synchronized long[] series(String level, ChronoUnit unit, int buckets) {
+        Tier tier = switch (unit) {
+            case SECONDS -> seconds;
+            case MINUTES -> minutes;
+            case HOURS -> hours;
+            default -> throw new IllegalArgumentException("Unsupported bucket unit: " + unit);
+        };
+        if (buckets <= 0 || buckets > tier.capacity()) {
+            throw new IllegalArgumentException("buckets must be between 1 and " + tier.capacity());
+        }
+        long[] out = new long[buckets];
+        if (seconds.newest == Long.MIN_VALUE) {
+            return out;
+        }
+        long last = tier.newest;
+        for (int i = 0; i < buckets; i++) {
+            LevelCounts bucket = tier.bucket(last - buckets + 1 + i);
+            out[i] = bucket == null ? 0 : bucket.count(level);
+        }
+        return out;
+    }
+
+    private Tier tierFor(Duration window) {
+        if (window == null || window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("window must be positive");
+        }
+        for (Tier tier : new Tier[] {seconds, minutes, hours}) {
+            if (tier.span(window) <= tier.capacity()) {
+                return tier;
+            }
+        }
+        throw new IllegalArgumentException("window exceeds the retained " + hours.capacity() + " hours");
+    }
+
+    /** Ring of buckets of a fixed width, indexed by bucket id modulo capacity. */
+    private static final class Tier {
+        final long width;
+        final LevelCounts[] buckets;
+        final long[] ids;
+        long newest = Long.MIN_VALUE;
+
+        Tier(long width, int capacity) {
+            if (capacity <= 0) {
+                throw new IllegalArgumentException("bucket count must be positive");
+            }
+            this.width = width;
+            this.buckets = new LevelCounts[capacity];
+            this.ids = new long[capacity];
+            for (int i = 0; i < capacity; i++) {
+                buckets[i] = new LevelCounts();
+                ids[i] = Long.MIN_VALUE;
+            }
+        }
+
+        int capacity() {
+            return buckets.length;
+        }
+
+        /** Number of buckets needed to cover the window, rounded up. */
+        long span(Duration window) {
+            return (window.getSeconds() + (window.getNano() > 0 ? 1 : 0) + width - 1) / width;
+        }
+
+        void add(long second, String level) {
+            long id = Math.floorDiv(second, width);
+            if (newest != Long.MIN_VALUE && id <= newest - buckets.length) {
+                return;
+            }
+            int slot = (int) Math.floorMod(id, (long) buckets.length);
+            if (ids[slot] != id) {
+                buckets[slot].clear();
+                ids[slot] = id;
+            }
+            buckets[slot].add(level);
+            if (id > newest) {
+                newest = id;
+            }
+        }
+
+        /** The bucket for the id, or null if it was never filled or has been recycled. */
+        LevelCounts bucket(long id) {
+            int slot = (int) Math.floorMod(id, (long) buckets.length);
+            return ids[slot] == id ? buckets[slot] : null;
+        }
+    }
+}
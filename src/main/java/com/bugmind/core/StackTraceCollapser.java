@@ -1,34 +1,47 @@
 package com.bugmind.core;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 /**
  * Utility that collapses long stack traces and extracts the deepest root cause.
  * <p>
  * Compatible with LogParser: used to post-process raw message blocks.
+ * {@link LineCollapser} does the same work incrementally, so the parser can
+ * feed it line offsets while assembling an entry and frames beyond the cap
+ * are never copied.
  */
 public class StackTraceCollapser {
 
-    private static final Pattern CAUSED_BY_PATTERN =
-            Pattern.compile("Caused by:\\s+([A-Za-z0-9_$.]+(?:Exception|Error|Throwable))");
+    // Both checks below emulate the regexes this class used to run per line:
+    //   Caused by:\s+([A-Za-z0-9_$.]+(?:Exception|Error|Throwable))   (find)
+    //   ^\s*(at\s+.+)$                                                  (find)
 
-    // Accepts lines starting with spaces or tabs before "at ..."
-    private static final Pattern STACK_LINE_PATTERN =
-            Pattern.compile("^\\s*(at\\s+.+)$");
+    private static final String CAUSED_BY = "Caused by:";
+    private static final String[] THROWABLE_SUFFIXES = {"Exception", "Error", "Throwable"};
 
     /** Immutable result model */
     public static class Result {
         private final String collapsedMessage;
         private final String rootException;
+        private final CompactMessage compact;
 
         public Result(String collapsedMessage, String rootException) {
             this.collapsedMessage = collapsedMessage;
             this.rootException = rootException;
+            this.compact = null;
+        }
+
+        Result(CompactMessage compact, String rootException) {
+            this.collapsedMessage = null;
+            this.rootException = rootException;
+            this.compact = compact;
         }
 
         public String collapsedMessage() {
-            return collapsedMessage;
+            return compact != null ? compact.render() : collapsedMessage;
+        }
+
+        /** Frame-interned form of the message, or null if it is held as plain text. */
+        CompactMessage compact() {
+            return compact;
         }
 
         public String rootException() {
@@ -43,40 +56,301 @@ public class StackTraceCollapser {
      * @param maxLines maximum number of stack frames to retain
      */
     public static Result collapseAndExtract(String message, int maxLines) {
-        if (message == null || message.isBlank()) {
+        if (message == null) {
             return new Result("", null);
         }
+        // Lines are split on "\n" with an optional preceding "\r"
+        LineCollapser collapser = new LineCollapser(maxLines);
+        int start = 0;
+        for (int i = message.indexOf('\n'); i >= 0; i = message.indexOf('\n', start)) {
+            int end = (i > start && message.charAt(i - 1) == '\r') ? i - 1 : i;
+            collapser.append(message, start, end);
+            collapser.newLine();
+            start = i + 1;
+        }
+        collapser.append(message, start, message.length());
+        return collapser.build();
+    }
+
+    /**
+     * Incremental form of {@link #collapseAndExtract}: text is appended to the
+     * current line and {@link #newLine()} completes it. Each completed line is
+     * classified in place; kept lines are copied once into the output, frames
+     * beyond the cap are only counted. {@link #build()} yields exactly what
+     * {@code collapseAndExtract} returns for the same lines joined by newlines.
+     * <p>
+     * With a {@link FrameDictionary}, kept frames are interned instead of
+     * copied and the result carries a {@link CompactMessage}.
+     * Not thread-safe.
+     */
+    static final class LineCollapser {
+        private final int maxLines;
+        private final FrameDictionary frames;
+        private final StringBuilder out = new StringBuilder();
+        // Compact mode: one token per line, non-frame lines joined by '\n' in out
+        private final IntList tokens = new IntList(16);
+
+        // Current line: a single source range, or joined text once a second piece arrives
+        private String source;
+        private int sourceFrom;
+        private int sourceTo;
+        private final StringBuilder joined = new StringBuilder();
+        private boolean isJoined;
+        private boolean empty = true;
+        // The current line was already accounted for by appendDroppedFrame()
+        private boolean lineDone;
+
+        private boolean hasTextLine;
+        private int pendingEmptyLines;
+        private int totalFrames;
+        private String lastCause;
+        private boolean nonBlank;
+
+        LineCollapser(int maxLines) {
+            this(maxLines, null);
+        }
+
+        LineCollapser(int maxLines, FrameDictionary frames) {
+            this.maxLines = maxLines;
+            this.frames = frames;
+        }
+
+        /** Appends {@code s[from, to)} to the current line. */
+        void append(String s, int from, int to) {
+            if (from < to) {
+                empty = false;
+            }
+            if (isJoined) {
+                joined.append(s, from, to);
+            } else if (source == null || sourceFrom == sourceTo) {
+                source = s;
+                sourceFrom = from;
+                sourceTo = to;
+            } else if (from < to) {
+                joined.setLength(0);
+                joined.append(source, sourceFrom, sourceTo).append(s, from, to);
+                isJoined = true;
+            }
+        }
 
-        String[] lines = message.split("\\r?\\n");
-        StringBuilder collapsed = new StringBuilder();
-        String lastCause = null;
-        int frameCount = 0;
-        int totalFrames = 0;
+        /** Completes the current line and starts a new, empty one. */
+        void newLine() {
+            completeLine();
+            empty = false;
+        }
 
-        for (String line : lines) {
-            Matcher cb = CAUSED_BY_PATTERN.matcher(line);
-            if (cb.find()) {
-                lastCause = cb.group(1);
+        /** True once further frame lines would only be counted, not kept. */
+        boolean frameCapReached() {
+            return totalFrames >= maxLines;
+        }
+
+        /**
+         * Same as {@link #newLine()} followed by appending a frame line, for a
+         * frame past the cap that contains no "Caused by:", so the caller
+         * never has to decode it.
+         */
+        void appendDroppedFrame() {
+            newLine();
+            for (; pendingEmptyLines > 0; pendingEmptyLines--) {
+                emitText("", 0, 0);
             }
+            nonBlank = true;
+            totalFrames++;
+            lineDone = true;
+        }
+
+        /** True if nothing at all (not even a line break) has been added. */
+        boolean isEmpty() {
+            return empty;
+        }
 
-            Matcher frame = STACK_LINE_PATTERN.matcher(line);
-            if (frame.find()) {
-                totalFrames++;
-                frameCount++;
-                if (frameCount <= maxLines) {
-                    collapsed.append(line.trim()).append(System.lineSeparator());
+        /**
+         * Completes the last line and returns the collapsed message and root
+         * cause. The collapser is reset for the next message.
+         */
+        Result build() {
+            completeLine();
+            Result result;
+            if (!nonBlank) {
+                result = new Result("", null);
+            } else if (frames != null) {
+                int omitted = Math.max(0, totalFrames - maxLines);
+                result = new Result(new CompactMessage(frames, tokens.toArray(), out.toString(), omitted), lastCause);
+            } else {
+                // Trailing empty lines are dropped, as String.split does
+                if (totalFrames > maxLines) {
+                    out.append("… (").append(totalFrames - maxLines).append(" more)");
                 }
-                // Skip appending beyond maxLines
+                int start = LogLineScanner.trimStart(out, 0, out.length());
+                int end = LogLineScanner.trimEnd(out, start, out.length());
+                result = new Result(out.substring(start, end), lastCause);
+            }
+            reset();
+            return result;
+        }
+
+        void reset() {
+            out.setLength(0);
+            tokens.clear();
+            joined.setLength(0);
+            isJoined = false;
+            source = null;
+            sourceFrom = 0;
+            sourceTo = 0;
+            empty = true;
+            lineDone = false;
+            hasTextLine = false;
+            pendingEmptyLines = 0;
+            totalFrames = 0;
+            lastCause = null;
+            nonBlank = false;
+        }
+
+        private void completeLine() {
+            if (lineDone) {
+                lineDone = false;
+            } else if (isJoined) {
+                String line = joined.toString();
+                processLine(line, 0, line.length());
+            } else if (source != null) {
+                processLine(source, sourceFrom, sourceTo);
             } else {
-                collapsed.append(line.trim()).append(System.lineSeparator());
+                processLine("", 0, 0);
             }
+            source = null;
+            isJoined = false;
         }
 
-        if (totalFrames > maxLines) {
-            collapsed.append("… (").append(totalFrames - maxLines).append(" more)");
+        private void processLine(String s, int from, int to) {
+            if (from == to) {
+                pendingEmptyLines++;
+                return;
+            }
+            for (; pendingEmptyLines > 0; pendingEmptyLines--) {
+                emitText(s, from, from);
+            }
+            if (!nonBlank) {
+                for (int i = from; i < to && !nonBlank; i++) {
+                    nonBlank = !Character.isWhitespace(s.charAt(i));
+                }
+            }
+            String cause = findCause(s, from, to);
+            if (cause != null) {
+                lastCause = cause;
+            }
+            boolean frame = isFrameLine(s, from, to);
+            if (frame && ++totalFrames > maxLines) {
+                return;
+            }
+            int start = LogLineScanner.trimStart(s, from, to);
+            int end = LogLineScanner.trimEnd(s, start, to);
+            if (frame && frames != null) {
+                tokens.add(frames.intern(s, start, end));
+            } else {
+                emitText(s, start, end);
+            }
+        }
+
+        private void emitText(String s, int from, int to) {
+            if (frames == null) {
+                out.append(s, from, to).append(System.lineSeparator());
+                return;
+            }
+            if (hasTextLine) {
+                out.append('\n');
+            }
+            out.append(s, from, to);
+            tokens.add(CompactMessage.TEXT_LINE);
+            hasTextLine = true;
         }
+    }
+
+    /** First {@code Caused by:\s+<throwable>} match in the line, or null. */
+    static String findCause(String s, int from, int to) {
+        for (int at = s.indexOf(CAUSED_BY, from); at >= 0 && at + CAUSED_BY.length() <= to;
+             at = s.indexOf(CAUSED_BY, at + 1)) {
+            int nameStart = at + CAUSED_BY.length();
+            while (nameStart < to && isRegexWhitespace(s.charAt(nameStart))) {
+                nameStart++;
+            }
+            if (nameStart == at + CAUSED_BY.length()) {
+                continue;
+            }
+            int runEnd = nameStart;
+            while (runEnd < to && isNameChar(s.charAt(runEnd))) {
+                runEnd++;
+            }
+            // Greedy name, backing off until a throwable suffix follows
+            for (int split = runEnd - 1; split > nameStart; split--) {
+                for (String suffix : THROWABLE_SUFFIXES) {
+                    if (split + suffix.length() <= runEnd && LogLineScanner.startsWith(s, split, suffix)) {
+                        return s.substring(nameStart, split + suffix.length());
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /** True if the line matches {@code ^\s*(at\s+.+)$}. */
+    static boolean isFrameLine(String s, int from, int to) {
+        int i = from;
+        while (i < to && isRegexWhitespace(s.charAt(i))) {
+            i++;
+        }
+        if (i + 2 >= to || s.charAt(i) != 'a' || s.charAt(i + 1) != 't' || !isRegexWhitespace(s.charAt(i + 2))) {
+            return false;
+        }
+        int gap = i + 2;
+        // '$' matches at the end, or before one final line terminator (or a final "\r\n")
+        int[] ends = {to, -1, -1};
+        char last = s.charAt(to - 1);
+        if (isLineTerminator(last) && !(last == '\n' && to - 2 >= from && s.charAt(to - 2) == '\r')) {
+            ends[1] = to - 1;
+        }
+        if (to - 2 >= from && s.charAt(to - 2) == '\r' && last == '\n') {
+            ends[2] = to - 2;
+        }
+        for (int end : ends) {
+            if (end <= gap) {
+                continue;
+            }
+            // '.' rejects terminators, so everything up to the last one must be \s
+            int lastTerminator = -1;
+            for (int k = end - 1; k >= gap; k--) {
+                if (isLineTerminator(s.charAt(k))) {
+                    lastTerminator = k;
+                    break;
+                }
+            }
+            int textStart = Math.max(gap + 1, lastTerminator + 1);
+            if (textStart >= end) {
+                continue;
+            }
+            boolean gapIsWhitespace = true;
+            for (int k = gap; k < textStart && gapIsWhitespace; k++) {
+                gapIsWhitespace = isRegexWhitespace(s.charAt(k));
+            }
+            if (gapIsWhitespace) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isNameChar(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                || c == '_' || c == '$' || c == '.';
+    }
+
+    /** The regex {@code \s} class: [ \t\n\x0B\f\r]. */
+    private static boolean isRegexWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
 
-        return new Result(collapsed.toString().trim(), lastCause);
+    /** Characters the regex '.' refuses to match. */
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
     }
 
     /** Manual smoke test */
@@ -0,0 +1,46 @@
+package com.bugmind.core;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Assigns dense int codes to distinct strings, in first-seen order.
+ * <p>
+ * Encoding is synchronized; decoding is lock-free and safe for any code
+ * that has been handed out.
+ */
+final class StringDictionary {
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private volatile String[] values = new String[8];
+    private volatile int size;
+
+    /** Returns the code of the value, adding it if unseen. */
+    synchronized int encode(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = size;
+            String[] table = values;
+            if (code == table.length) {
+                table = Arrays.copyOf(table, table.length * 2);
+            }
+            table[code] = value;
+            values = table;
+            codes.put(value, code);
+            size = code + 1;
+        }
+        return code;
+    }
+
+    String decode(int code) {
+        if (code < 0 || code >= size) {
+            throw new IndexOutOfBoundsException("code " + code + " out of bounds for size " + size);
+        }
+        return values[code];
+    }
+
+    int size() {
+        return size;
+    }
+}
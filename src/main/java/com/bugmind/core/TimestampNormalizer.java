@@ -0,0 +1,260 @@
+package com.bugmind.core;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.regex.Pattern;
+
+/**
+ * Normalizes header timestamps to "yyyy-MM-dd HH:mm:ss".
+ * <p>
+ * The common layouts ({@code yyyy-MM-dd[ T]HH:mm[:ss[.SSS]]} followed by an
+ * optional {@code ±HH:mm} offset and/or {@code Z}) are decoded digit by digit;
+ * a miss costs no allocation. Consecutive lines from the same second reuse the
+ * previously rendered string. Anything else goes through the original
+ * {@link DateTimeFormatter} loop, so results are identical to the old parser.
+ * <p>
+ * Instances cache the last result and are not thread-safe.
+ */
+final class TimestampNormalizer {
+
+    private static final DateTimeFormatter CANONICAL = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    // Common timestamp formats seen in real logs (no offset here; we strip it before parsing)
+    private static final DateTimeFormatter[] FORMATTERS = new DateTimeFormatter[] {
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"),
+        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss"),
+        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'"),
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS"),
+        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS"),
+        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'")
+    };
+
+    private static final Pattern OFFSET = Pattern.compile("[+\\-][0-9]{2}:[0-9]{2}");
+    private static final Pattern ENDS_WITH_MILLIS = Pattern.compile(".*:\\d{2}\\.\\d{3}$");
+    private static final Pattern TRAILING_MILLIS = Pattern.compile("\\.(\\d{3})$");
+
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    // Offsets of ss, mm, HH, dd, MM in the canonical layout, least significant first
+    private static final int[] FIELD_POSITIONS = {17, 14, 11, 8, 5};
+
+    // Last second decoded by the fast path, packed as yyyyMMddHHmmss
+    private long cachedKey = -1;
+    private String cachedText;
+    private LocalDateTime cachedValue;
+
+    // Decoded value of the last normalize() call; null when it took the fallback
+    private LocalDateTime lastParsed;
+
+    /**
+     * Normalizes {@code ts[from, to)}.
+     */
+    String normalize(CharSequence ts, int from, int to) {
+        long key = decode(ts, from, to);
+        if (key < 0) {
+            lastParsed = null;
+            return normalizeSlow(ts.subSequence(from, to).toString());
+        }
+        return normalize(key);
+    }
+
+    /**
+     * Normalizes a timestamp already decoded elsewhere, e.g. by a
+     * {@link LogDialect}, packed as yyyyMMddHHmmss; see {@link #pack}.
+     */
+    String normalize(long key) {
+        if (key != cachedKey) {
+            cachedKey = key;
+            cachedText = render(key);
+            cachedValue = toDateTime(key);
+        }
+        lastParsed = cachedValue;
+        return cachedText;
+    }
+
+    /**
+     * Returns the value decoded by the last {@link #normalize} call, or null if
+     * that call fell back to the formatter path. Entries with a null value
+     * parse their normalized string lazily.
+     */
+    LocalDateTime lastParsed() {
+        return lastParsed;
+    }
+
+    String normalize(String ts) {
+        return ts == null ? "" : normalize(ts, 0, ts.length());
+    }
+
+    /**
+     * Decodes the supported layouts into a packed yyyyMMddHHmmss value.
+     *
+     * @return the packed value, or -1 if the fast path cannot vouch for the result
+     */
+    private static long decode(CharSequence s, int from, int to) {
+        int p = LogLineScanner.trimStart(s, from, to);
+        int end = LogLineScanner.trimEnd(s, p, to);
+        if (end - p < 16) {
+            return -1;
+        }
+        int year = digits(s, p, 4);
+        int month = digits(s, p + 5, 2);
+        int day = digits(s, p + 8, 2);
+        int hour = digits(s, p + 11, 2);
+        int minute = digits(s, p + 14, 2);
+        char sep = s.charAt(p + 10);
+        if (year < 1 || month < 1 || month > 12 || day < 1 || hour < 0 || hour > 23 || minute < 0 || minute > 59
+                || s.charAt(p + 4) != '-' || s.charAt(p + 7) != '-' || (sep != ' ' && sep != 'T')
+                || s.charAt(p + 13) != ':') {
+            return -1;
+        }
+        int maxDay = (month == 2 && isLeap(year)) ? 29 : DAYS_IN_MONTH[month - 1];
+        if (day > maxDay) {
+            return -1;
+        }
+        p += 16;
+
+        int second = 0;
+        if (p < end && s.charAt(p) == ':') {
+            second = digits(s, p + 1, 2);
+            if (second < 0 || second > 59 || p + 3 > end) {
+                return -1;
+            }
+            p += 3;
+            if (p < end && s.charAt(p) == '.') {
+                // Exactly three fraction digits, truncated to seconds
+                if (p + 4 > end || digits(s, p + 1, 3) < 0) {
+                    return -1;
+                }
+                p += 4;
+            }
+        }
+        if (p + 6 <= end && (s.charAt(p) == '+' || s.charAt(p) == '-')) {
+            if (digits(s, p + 1, 2) < 0 || s.charAt(p + 3) != ':' || digits(s, p + 4, 2) < 0) {
+                return -1;
+            }
+            p += 6;
+        }
+        if (p < end && s.charAt(p) == 'Z') {
+            p++;
+        }
+        if (p != end) {
+            return -1;
+        }
+        return ((((year * 100L + month) * 100 + day) * 100 + hour) * 100 + minute) * 100 + second;
+    }
+
+    /**
+     * Packs a date and time as yyyyMMddHHmmss.
+     *
+     * @return the packed value, or -1 if the fields are not a valid date and time
+     */
+    static long pack(int year, int month, int day, int hour, int minute, int second) {
+        if (year < 1 || year > 9999 || month < 1 || month > 12 || day < 1 || hour < 0 || hour > 23
+                || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return -1;
+        }
+        int maxDay = (month == 2 && isLeap(year)) ? 29 : DAYS_IN_MONTH[month - 1];
+        if (day > maxDay) {
+            return -1;
+        }
+        return ((((year * 100L + month) * 100 + day) * 100 + hour) * 100 + minute) * 100 + second;
+    }
+
+    /** Parses {@code count} ASCII digits at {@code offset}, or returns -1. */
+    private static int digits(CharSequence s, int offset, int count) {
+        if (offset + count > s.length()) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isLeap(int year) {
+        return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+    }
+
+    private static LocalDateTime toDateTime(long key) {
+        int second = (int) (key % 100);
+        int minute = (int) (key / 100 % 100);
+        int hour = (int) (key / 10_000 % 100);
+        int day = (int) (key / 1_000_000 % 100);
+        int month = (int) (key / 100_000_000 % 100);
+        int year = (int) (key / 10_000_000_000L);
+        return LocalDateTime.of(year, month, day, hour, minute, second);
+    }
+
+    private static String render(long key) {
+        char[] out = new char[19];
+        for (int pos : FIELD_POSITIONS) {
+            int v = (int) (key % 100);
+            key /= 100;
+            out[pos] = (char) ('0' + v / 10);
+            out[pos + 1] = (char) ('0' + v % 10);
+        }
+        int year = (int) key;
+        for (int i = 3; i >= 0; i--) {
+            out[i] = (char) ('0' + year % 10);
+            year /= 10;
+        }
+        out[4] = '-';
+        out[7] = '-';
+        out[10] = ' ';
+        out[13] = ':';
+        out[16] = ':';
+        return new String(out);
+    }
+
+    /**
+     * Original formatter-driven normalization, kept for exotic inputs.
+     * Best-effort: removes trailing 'Z' or timezone offsets (±HH:mm), drops .SSS to seconds.
+     */
+    static String normalizeSlow(String ts) {
+        if (ts == null || ts.isBlank()) return "";
+        String candidate = ts.replace("T", " ").trim();
+
+        // Remove trailing 'Z'
+        String base = candidate.endsWith("Z") ? candidate.substring(0, candidate.length() - 1) : candidate;
+
+        // Strip timezone offset if present (e.g., +05:30 or -07:00)
+        int plus = base.lastIndexOf('+');
+        int minus = base.lastIndexOf('-');
+        int idx = Math.max(plus, minus);
+        if (idx > 10 && idx < base.length()) {
+            String tail = base.substring(idx);
+            if (OFFSET.matcher(tail).matches()) {
+                base = base.substring(0, idx);
+            }
+        }
+
+        // Try formatters (with and without milliseconds)
+        for (DateTimeFormatter f : FORMATTERS) {
+            try {
+                LocalDateTime parsed = LocalDateTime.parse(base, f);
+                return parsed.format(CANONICAL);
+            } catch (DateTimeParseException ignored) { }
+        }
+
+        // As a last resort, drop milliseconds manually if pattern resembles "...:ss.SSS"
+        if (ENDS_WITH_MILLIS.matcher(base).matches()) {
+            String trimmed = TRAILING_MILLIS.matcher(base).replaceFirst("");
+            for (DateTimeFormatter f : FORMATTERS) {
+                try {
+                    LocalDateTime parsed = LocalDateTime.parse(trimmed, f);
+                    return parsed.format(CANONICAL);
+                } catch (DateTimeParseException ignored) { }
+            }
+        }
+
+        // Fallback: return original candidate for visibility
+        return candidate;
+    }
+}
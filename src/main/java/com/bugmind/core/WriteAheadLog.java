@@ -0,0 +1,576 @@
+package com.bugmind.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Segmented, append-only write-ahead log for {@link LogRepository}.
+ * <p>
+ * Appends are buffered and written as one {@link LogEntryCodec} block per
+ * commit, then forced to disk together (group commit). A commit happens when
+ * the buffer reaches {@link Options#syncBytes}, every {@link Options#syncInterval},
+ * and whenever a caller waits in {@link #awaitDurable(long)} with no commit in
+ * flight; appends that arrive during a force ride along with the next one.
+ * <p>
+ * Each segment ({@code wal-<first record>.log}) starts with a 16-byte header
+ * ({@code "BMWL"}, version, reserved, first record number). Segments roll at
+ * {@link Options#segmentBytes}. Closed segments are deleted once they fall
+ * outside the retention limits, but only if a {@link #checkpoint} (normally
+ * a {@link LogSnapshot}) covers every record in them. On open, a torn block at the tail of the
+ * newest segment is cut off, so appends continue after the last good block;
+ * a newest segment whose header never made it to disk (a crash while rolling)
+ * is recreated. The directory is forced after segments are created or
+ * deleted, so a rolled segment survives power loss.
+ */
+public class WriteAheadLog implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(WriteAheadLog.class.getName());
+
+    static final int MAGIC = 0x424D574C; // "BMWL"
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    private static final String PREFIX = "wal-";
+    private static final String SUFFIX = ".log";
+    // Directories cannot be opened as channels on Windows, nor need to be forced there
+    private static final boolean WINDOWS = System.getProperty("os.name", "").startsWith("Windows");
+
+    /** Tuning knobs; every setter returns this options object. */
+    public static final class Options {
+        private long segmentBytes = 64L * 1024 * 1024;
+        private int syncBytes = 1024 * 1024;
+        private Duration syncInterval = Duration.ofMillis(10);
+        private boolean waitForSync = true;
+        private long retentionBytes = Long.MAX_VALUE;
+        private Duration retention;
+
+        /** Size at which the active segment is closed and a new one started. */
+        public Options segmentBytes(long bytes) {
+            if (bytes <= HEADER_BYTES) {
+                throw new IllegalArgumentException("segmentBytes must exceed the " + HEADER_BYTES + "-byte header");
+            }
+            this.segmentBytes = bytes;
+            return this;
+        }
+
+        /** Buffered bytes that trigger a commit without waiting for the interval. */
+        public Options syncBytes(int bytes) {
+            if (bytes <= 0) {
+                throw new IllegalArgumentException("syncBytes must be positive");
+            }
+            this.syncBytes = bytes;
+            return this;
+        }
+
+        /** Longest time an appended entry stays buffered. */
+        public Options syncInterval(Duration interval) {
+            if (interval == null || interval.isNegative() || interval.isZero()) {
+                throw new IllegalArgumentException("syncInterval must be positive");
+            }
+            this.syncInterval = interval;
+            return this;
+        }
+
+        /**
+         * Whether {@link #awaitDurable(long)} blocks until the record is on disk.
+         * With false, a crash may lose up to one sync interval of entries.
+         */
+        public Options waitForSync(boolean wait) {
+            this.waitForSync = wait;
+            return this;
+        }
+
+        /** Closed segments beyond this total size are deleted, oldest first, once a checkpoint covers them. */
+        public Options retentionBytes(long bytes) {
+            if (bytes < 0) {
+                throw new IllegalArgumentException("retentionBytes must not be negative");
+            }
+            this.retentionBytes = bytes;
+            return this;
+        }
+
+        /** Closed segments last written longer ago than this are deleted once a checkpoint covers them; null keeps them. */
+        public Options retention(Duration age) {
+            if (age != null && age.isNegative()) {
+                throw new IllegalArgumentException("retention must not be negative");
+            }
+            this.retention = age;
+            return this;
+        }
+    }
+
+    private final Path directory;
+    private final Options options;
+    private final ScheduledExecutorService flusher;
+
+    // Guards the pending block and the record counter
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final LogEntryCodec.BlockEncoder pending = new LogEntryCodec.BlockEncoder();
+    private long nextRecord;
+
+    // Held while a block is written and forced; orders commits and guards the segment
+    private final ReentrantLock commitLock = new ReentrantLock();
+    private FileChannel segment;
+    private long segmentFirstRecord;
+    private volatile long durableRecords;
+    private volatile IOException failure;
+    private boolean closed;
+    // Records [0, checkpointed) are stored elsewhere; guarded by commitLock
+    private long checkpointed;
+
+    /**
+     * Opens (or creates) the log in {@code directory} and recovers its tail.
+     * Call {@link #replay(Consumer)} to read back what is already there.
+     */
+    public WriteAheadLog(Path directory, Options options) throws IOException {
+        this.directory = Objects.requireNonNull(directory, "directory must not be null");
+        this.options = Objects.requireNonNull(options, "options must not be null");
+        Files.createDirectories(directory);
+
+        List<Path> segments = segments();
+        if (segments.isEmpty()) {
+            openSegment(0);
+        } else {
+            Path last = segments.get(segments.size() - 1);
+            long first = firstRecord(last);
+            if (isTorn(last, first)) {
+                // Created by a roll whose header write did not survive; it holds no records
+                logger.log(Level.WARNING, "Recreating torn WAL segment {0}", last);
+                Files.delete(last);
+                syncDirectory(directory);
+                openSegment(first);
+                nextRecord = first;
+            } else {
+                segment = FileChannel.open(last, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                Scan scan = scan(segment, last, null);
+                if (scan.validEnd < segment.size()) {
+                    logger.log(Level.WARNING, "Truncating torn tail of {0} at offset {1}",
+                            new Object[]{last, scan.validEnd});
+                    segment.truncate(scan.validEnd);
+                    segment.force(true);
+                }
+                segment.position(scan.validEnd);
+                segmentFirstRecord = first;
+                nextRecord = first + scan.records;
+            }
+        }
+        durableRecords = nextRecord;
+
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "wal-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalNanos = options.syncInterval.toNanos();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Buffers an entry for the next commit.
+     *
+     * @return the entry's record number, for {@link #awaitDurable(long)}
+     * @throws UncheckedIOException if an earlier commit failed
+     */
+    public long append(ParsedLog log) {
+        return append(log, null);
+    }
+
+    /**
+     * Like {@link #append(ParsedLog)}, but first passes the entry to
+     * {@code inOrder} under the append lock, so the caller can store entries
+     * in record order.
+     */
+    long append(ParsedLog log, Consumer<? super ParsedLog> inOrder) {
+        Objects.requireNonNull(log, "log must not be null");
+        checkHealthy();
+        boolean full;
+        long record;
+        appendLock.lock();
+        try {
+            if (inOrder != null) {
+                inOrder.accept(log);
+            }
+            pending.add(log);
+            record = nextRecord++;
+            full = pending.size() >= options.syncBytes;
+        } finally {
+            appendLock.unlock();
+        }
+        if (full) {
+            commit(record);
+        }
+        return record;
+    }
+
+    /**
+     * Blocks until the record is on disk, committing it right away unless a
+     * commit is already in flight. Returns at once when the options say not
+     * to wait for syncs.
+     *
+     * @throws UncheckedIOException if the commit failed
+     */
+    public void awaitDurable(long record) {
+        if (options.waitForSync) {
+            commit(record);
+        }
+    }
+
+    /** Number of records known to be on disk; records {@code [0, n)} survive a crash. */
+    public long durableRecords() {
+        return durableRecords;
+    }
+
+    /** Commits everything appended so far. */
+    public void flush() {
+        long last;
+        appendLock.lock();
+        try {
+            last = nextRecord - 1;
+        } finally {
+            appendLock.unlock();
+        }
+        if (last >= 0) {
+            commit(last);
+        }
+    }
+
+    /**
+     * Reads every retained record, oldest first. Reading stops at the first
+     * block that fails its checksum, since nothing after it can be trusted.
+     *
+     * @return the number of records replayed
+     */
+    public long replay(Consumer<? super ParsedLog> sink) throws IOException {
+        Objects.requireNonNull(sink, "sink must not be null");
+        return replay(segments(), Long.MIN_VALUE, sink);
+    }
+
+    /**
+     * Reads the records numbered {@code fromRecord} and later, oldest first,
+     * e.g. those written after a snapshot. Segments that end before
+     * {@code fromRecord} are not read.
+     *
+     * @return the number of records replayed
+     * @throws IOException if retention already deleted records at or after {@code fromRecord}
+     */
+    public long replay(long fromRecord, Consumer<? super ParsedLog> sink) throws IOException {
+        Objects.requireNonNull(sink, "sink must not be null");
+        List<Path> segments = segments();
+        long first = segments.isEmpty() ? 0 : firstRecord(segments.get(0));
+        if (first > fromRecord) {
+            throw new IOException("Write-ahead log in " + directory + " starts at record " + first
+                    + "; records from " + fromRecord + " on were deleted");
+        }
+        return replay(segments, fromRecord, sink);
+    }
+
+    private long replay(List<Path> segments, long fromRecord, Consumer<? super ParsedLog> sink) throws IOException {
+        // Next record number, and records handed to the sink
+        long[] counts = new long[2];
+        Consumer<ParsedLog> from = log -> {
+            if (counts[0]++ >= fromRecord) {
+                sink.accept(log);
+                counts[1]++;
+            }
+        };
+        for (int i = 0; i < segments.size(); i++) {
+            Path path = segments.get(i);
+            if (i + 1 < segments.size() && firstRecord(segments.get(i + 1)) <= fromRecord) {
+                continue;
+            }
+            counts[0] = firstRecord(path);
+            Scan scan;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                scan = scan(channel, path, from);
+            }
+            if (scan.validEnd < Files.size(path) && !isActive(path)) {
+                logger.log(Level.WARNING, "Stopping replay at corrupt block in {0}, offset {1}",
+                        new Object[]{path, scan.validEnd});
+                break;
+            }
+        }
+        return counts[1];
+    }
+
+    /**
+     * Marks records {@code [0, records)} as stored elsewhere, e.g. in a
+     * snapshot. Retention only ever deletes closed segments whose records are
+     * all covered; it runs now and again whenever a segment rolls.
+     */
+    public void checkpoint(long records) throws IOException {
+        commitLock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("write-ahead log is closed");
+            }
+            if (records > checkpointed) {
+                checkpointed = records;
+                applyRetention();
+            }
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flusher.shutdown();
+        try {
+            flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            commitLock.lock();
+            try {
+                closed = true;
+                segment.close();
+            } finally {
+                commitLock.unlock();
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Recorded in failure; appenders see it on their next call
+            logger.log(Level.WARNING, "WAL commit failed", e);
+        }
+    }
+
+    /** Makes records up to and including {@code record} durable. */
+    private void commit(long record) {
+        commitLock.lock();
+        try {
+            // A commit that finished while we waited for the lock may have covered us
+            while (durableRecords <= record) {
+                checkHealthy();
+                if (closed) {
+                    throw new IllegalStateException("write-ahead log is closed");
+                }
+                writeBatch();
+            }
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    // Caller holds commitLock
+    private void writeBatch() {
+        ByteBuffer block;
+        long batchEnd;
+        appendLock.lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            block = pending.finish();
+            batchEnd = nextRecord;
+        } finally {
+            appendLock.unlock();
+        }
+        try {
+            while (block.hasRemaining()) {
+                segment.write(block);
+            }
+            segment.force(false);
+            durableRecords = batchEnd;
+            if (segment.size() >= options.segmentBytes) {
+                roll(batchEnd);
+            }
+        } catch (IOException e) {
+            failure = e;
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void checkHealthy() {
+        IOException e = failure;
+        if (e != null) {
+            throw new UncheckedIOException("write-ahead log failed earlier", e);
+        }
+    }
+
+    private void roll(long firstRecord) throws IOException {
+        segment.close();
+        openSegment(firstRecord);
+        applyRetention();
+    }
+
+    private void openSegment(long firstRecord) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", PREFIX, firstRecord, SUFFIX));
+        segment = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                .putInt(MAGIC).putShort(VERSION).putShort((short) 0).putLong(firstRecord).flip();
+        while (header.hasRemaining()) {
+            segment.write(header);
+        }
+        segment.force(true);
+        syncDirectory(directory);
+        segmentFirstRecord = firstRecord;
+    }
+
+    /**
+     * True if the segment is no longer than a header and that header is not a
+     * valid one for the segment. Larger files with a bad header are left for
+     * {@link #scan} to reject, since they may hold records.
+     */
+    private static boolean isTorn(Path path, long firstRecord) throws IOException {
+        if (Files.size(path) > HEADER_BYTES) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            return channel.read(header, 0) < HEADER_BYTES || header.getInt(0) != MAGIC
+                    || header.getShort(4) != VERSION || header.getLong(8) != firstRecord;
+        }
+    }
+
+    /** Forces the directory, so files created or deleted in it survive a crash. */
+    static void syncDirectory(Path directory) throws IOException {
+        if (WINDOWS) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Deletes closed segments outside the retention limits, oldest first,
+     * stopping at the first segment the checkpoint does not fully cover.
+     * Caller holds commitLock.
+     */
+    private void applyRetention() throws IOException {
+        List<Path> closedSegments = segments();
+        closedSegments.removeIf(this::isActive);
+        long total = 0;
+        for (Path path : closedSegments) {
+            total += Files.size(path);
+        }
+        // A segment's records end where the next segment starts
+        List<Path> all = segments();
+        List<Path> covered = new ArrayList<>();
+        for (int i = 0; i + 1 < all.size() && firstRecord(all.get(i + 1)) <= checkpointed; i++) {
+            covered.add(all.get(i));
+        }
+        Instant cutoff = options.retention == null ? null : Instant.now().minus(options.retention);
+        boolean deleted = false;
+        for (Path path : covered) {
+            FileTime modified = Files.getLastModifiedTime(path);
+            boolean expired = cutoff != null && modified.toInstant().isBefore(cutoff);
+            if (!expired && total <= options.retentionBytes) {
+                break;
+            }
+            total -= Files.size(path);
+            Files.delete(path);
+            deleted = true;
+            logger.log(Level.FINE, "Deleted WAL segment {0}", path);
+        }
+        if (deleted) {
+            syncDirectory(directory);
+        }
+    }
+
+    private boolean isActive(Path path) {
+        return firstRecord(path) == segmentFirstRecord;
+    }
+
+    /** Segment files, oldest first. */
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return new ArrayList<>(files
+                    .filter(p -> p.getFileName().toString().matches(PREFIX + "\\d{20}" + SUFFIX.replace(".", "\\.")))
+                    .sorted()
+                    .toList());
+        }
+    }
+
+    private static long firstRecord(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    /** Valid prefix of a segment: where its last good block ends and how many records precede that. */
+    private static final class Scan {
+        final long validEnd;
+        final long records;
+
+        Scan(long validEnd, long records) {
+            this.validEnd = validEnd;
+            this.records = records;
+        }
+    }
+
+    /**
+     * Walks the blocks of a segment, handing decoded entries to the sink (if any),
+     * and stops at the first truncated, corrupt or undecodable block.
+     */
+    private static Scan scan(FileChannel channel, Path path, Consumer<? super ParsedLog> sink) throws IOException {
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        if (channel.read(header, 0) < HEADER_BYTES || header.getInt(0) != MAGIC) {
+            throw new IOException("Not a write-ahead log segment: " + path);
+        }
+        if (header.getShort(4) != VERSION) {
+            throw new IOException("Unsupported WAL version " + header.getShort(4) + " in " + path);
+        }
+        long pos = HEADER_BYTES;
+        long records = 0;
+        ByteBuffer blockHeader = ByteBuffer.allocate(LogEntryCodec.BLOCK_HEADER_BYTES);
+        while (pos + LogEntryCodec.BLOCK_HEADER_BYTES <= size) {
+            blockHeader.clear();
+            readFully(channel, blockHeader, pos);
+            int payloadLength = blockHeader.getInt(0);
+            if (payloadLength < 0 || pos + LogEntryCodec.BLOCK_HEADER_BYTES + payloadLength > size) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(payloadLength);
+            readFully(channel, payload, pos + LogEntryCodec.BLOCK_HEADER_BYTES);
+            if (LogEntryCodec.checksum(payload, 0, payloadLength) != blockHeader.getInt(4)) {
+                break;
+            }
+            List<ParsedLog> entries = new ArrayList<>();
+            try {
+                LogEntryCodec.decode(payload.flip(), entries::add);
+            } catch (IllegalArgumentException e) {
+                break;
+            }
+            if (sink != null) {
+                entries.forEach(sink);
+            }
+            records += entries.size();
+            pos += LogEntryCodec.BLOCK_HEADER_BYTES + payloadLength;
+        }
+        return new Scan(pos, records);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("unexpected end of file");
+            }
+        }
+    }
+}
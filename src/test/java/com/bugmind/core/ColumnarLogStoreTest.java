@@ -0,0 +1,62 @@
+package com.bugmind.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link ColumnarLogStore}: materialized views must round-trip every field.
+ */
+public class ColumnarLogStoreTest {
+
+    @Test
+    void roundTripsAllFields() {
+        // Tiny blocks force messages to span arena blocks
+        ColumnarLogStore store = new ColumnarLogStore(8);
+        List<ParsedLog> originals = List.of(
+                new ParsedLog("2025-10-30 10:00:00", "INFO", "Application started ✓", null),
+                new ParsedLog("10/30/2025 10:02:00", "ERROR", "NullPointerException in Service", "NullPointerException"),
+                new ParsedLog("", "WARN", "Invalid timestamp entry", null),
+                new ParsedLog(null, null, null, null),
+                new ParsedLog("2025-10-30 10:05:00", "ERROR", "", "java.io.IOException",
+                        LocalDateTime.of(2025, 10, 30, 10, 5, 0, 500)));
+
+        ChunkedLogStore reference = new ChunkedLogStore();
+        for (int i = 0; i < originals.size(); i++) {
+            assertEquals(i, store.add(originals.get(i)));
+            reference.add(originals.get(i));
+        }
+        assertEquals(LogStore.NO_TIMESTAMP, store.epochSecond(2));
+        assertEquals(500, store.nano(4));
+
+        assertEquals(originals.size(), store.size());
+        for (int i = 0; i < originals.size(); i++) {
+            ParsedLog expected = originals.get(i);
+            ParsedLog actual = store.get(i);
+            assertEquals(expected.getTimestamp(), actual.getTimestamp());
+            assertEquals(expected.getParsedTimestamp(), actual.getParsedTimestamp());
+            assertEquals(expected.getLevel(), actual.getLevel());
+            assertEquals(expected.getLevel(), store.level(i));
+            // Column access agrees with the LogStore defaults that go through get()
+            assertEquals(reference.epochSecond(i), store.epochSecond(i));
+            assertEquals(reference.nano(i), store.nano(i));
+            assertEquals(expected.getMessage(), actual.getMessage());
+            assertEquals(expected.getExceptionType(), actual.getExceptionType());
+        }
+    }
+
+    @Test
+    void backsRepositoryQueries() {
+        LogRepository repository = new LogRepository(new ColumnarLogStore());
+        repository.add(new ParsedLog("2025-10-30 10:04:00", "INFO", "second", null));
+        repository.add(new ParsedLog("2025-10-30 10:00:00", "info", "first", null));
+        repository.add(new ParsedLog("2025-10-30 10:02:00", "ERROR", "boom", null));
+
+        List<ParsedLog> infos = repository.findByLevelsSorted(List.of("INFO"), false);
+        assertEquals(List.of("first", "second"), infos.stream().map(ParsedLog::getMessage).toList());
+        assertEquals(3, repository.findAll().size());
+    }
+}
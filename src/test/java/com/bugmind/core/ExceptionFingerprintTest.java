@@ -0,0 +1,128 @@
+package com.bugmind.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link ExceptionFingerprinter} and {@link FingerprintIndex}.
+ */
+public class ExceptionFingerprintTest {
+
+    private static ParsedLog failure(String ts, String root, int line, String lambdaId) {
+        String text = "[" + ts + "] ERROR - Request failed\n"
+                + "    at com.example.Web.handle(Web.java:" + (line + 100) + ")\n"
+                + "Caused by: " + root + ": boom " + line + "\n"
+                + "    at com.example.Repo.load(Repo.java:" + line + ")\n"
+                + "    at com.example.Service$$Lambda$" + lambdaId + "/0x0000000800c0b000.apply(Unknown Source)\n"
+                + "    at com.example.Service.run(Service.java:" + (line + 1) + ")\n";
+        return new LogParser().parseLogs(text).get(0);
+    }
+
+    @Test
+    void sameFailureHashesTheSameAcrossLineNumbersAndLambdaIds() {
+        ExceptionFingerprinter fingerprinter = new ExceptionFingerprinter();
+        ParsedLog a = failure("2025-10-30 10:00:00", "java.io.IOException", 10, "17");
+        ParsedLog b = failure("2025-10-30 10:05:00", "java.io.IOException", 42, "311");
+        ParsedLog c = failure("2025-10-30 10:05:00", "java.lang.IllegalStateException", 10, "17");
+
+        assertEquals("java.io.IOException", a.getExceptionType());
+        assertEquals(fingerprinter.fingerprint(a), fingerprinter.fingerprint(b));
+        assertNotEquals(fingerprinter.fingerprint(a), fingerprinter.fingerprint(c));
+
+        ExceptionFingerprinter strict = new ExceptionFingerprinter(5, true);
+        assertNotEquals(strict.fingerprint(a), strict.fingerprint(b));
+
+        // Only the root cause's frames count, so the outer frame's line is irrelevant
+        ExceptionFingerprinter typeOnly = new ExceptionFingerprinter(0, true);
+        assertEquals(typeOnly.fingerprint(a), typeOnly.fingerprint(b));
+    }
+
+    @Test
+    void onlyLinesStartingWithCausedByMoveTheRootCause() {
+        ExceptionFingerprinter fingerprinter = new ExceptionFingerprinter(1, false);
+        String outer = "Request failed\n    at com.example.Web.handle(Web.java:1)\n";
+        String inner = "    at com.example.Repo.load(Repo.java:2)\n";
+        long inline = fingerprinter.fingerprint(new ParsedLog("2025-10-30 10:00:00", "ERROR",
+                outer + "retry failed. Caused by: upstream\n" + inner, "java.io.IOException"));
+        long plain = fingerprinter.fingerprint(new ParsedLog("2025-10-30 10:00:00", "ERROR",
+                outer + "retry failed\n" + inner, "java.io.IOException"));
+        long caused = fingerprinter.fingerprint(new ParsedLog("2025-10-30 10:00:00", "ERROR",
+                outer + "  Caused by: java.io.IOException: upstream\n" + inner, "java.io.IOException"));
+        assertEquals(plain, inline);
+        assertNotEquals(plain, caused);
+    }
+
+    private static ParsedLog deepFailure(String service, String method, int line) {
+        StringBuilder text = new StringBuilder("[2025-10-30 10:00:00] ERROR - Request failed\n");
+        for (int i = 0; i < 15; i++) {
+            text.append("    at com.example.").append(service).append("Layer").append(i)
+                    .append(".call(").append(service).append("Layer").append(i).append(".java:").append(line + i)
+                    .append(")\n");
+        }
+        text.append("Caused by: java.lang.NullPointerException: null\n")
+                .append("    at com.example.").append(service).append('.').append(method)
+                .append('(').append(service).append(".java:").append(line).append(")\n");
+        return new LogParser().parseLogs(text.toString()).get(0);
+    }
+
+    @Test
+    void deepTracesFallBackToTheLeadingFramesWhenCauseFramesWereCut() {
+        ExceptionFingerprinter fingerprinter = new ExceptionFingerprinter();
+        ParsedLog billing = deepFailure("Billing", "charge", 10);
+        ParsedLog inventory = deepFailure("Inventory", "reserve", 10);
+
+        // The parser keeps the outer frames and the Caused by line, but none of the cause's frames
+        assertEquals("java.lang.NullPointerException", billing.getExceptionType());
+        assertFalse(billing.getMessage().contains("Billing.charge"));
+        assertTrue(billing.getMessage().contains("Caused by:"));
+
+        assertNotEquals(fingerprinter.fingerprint(billing), fingerprinter.fingerprint(inventory));
+        assertEquals(fingerprinter.fingerprint(billing), fingerprinter.fingerprint(deepFailure("Billing", "charge", 77)));
+    }
+
+    @Test
+    void entriesWithoutExceptionHaveNoFingerprint() {
+        ParsedLog plain = new ParsedLog("2025-10-30 10:00:00", "ERROR", "Disk almost full", null);
+        assertEquals(ExceptionFingerprinter.NONE, new ExceptionFingerprinter().fingerprint(plain));
+        assertEquals("00000000000000ff", ExceptionFingerprinter.toHex(0xff));
+    }
+
+    @Test
+    void indexRanksGroupsAndTracksFirstAndLastSeen() {
+        List<ParsedLog> logs = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            String ts = String.format("2025-10-30 10:%02d:00", i);
+            logs.add(failure(ts, "java.io.IOException", i, String.valueOf(i)));
+            if (i % 3 == 0) {
+                logs.add(failure(ts, "java.lang.IllegalStateException", i, "1"));
+            }
+            if (i == 29) {
+                logs.add(failure(ts, "java.util.ConcurrentModificationException", i, "1"));
+            }
+            logs.add(new ParsedLog(ts, "INFO", "ok", null));
+        }
+
+        FingerprintIndex index = new FingerprintIndex();
+        // Feed concurrently, as ingestion threads would
+        IntStream.range(0, logs.size()).parallel().forEach(i -> index.accept(logs.get(i)));
+
+        assertEquals(3, index.size());
+        List<FingerprintIndex.ErrorGroup> top = index.top(2);
+        assertEquals(2, top.size());
+        assertEquals("java.io.IOException", top.get(0).getExceptionType());
+        assertEquals(30, top.get(0).getCount());
+        assertEquals(LocalDateTime.of(2025, 10, 30, 10, 0), top.get(0).getFirstSeen());
+        assertEquals(LocalDateTime.of(2025, 10, 30, 10, 29), top.get(0).getLastSeen());
+        assertEquals(10, top.get(1).getCount());
+
+        List<FingerprintIndex.ErrorGroup> recent = index.top(5, LocalDateTime.of(2025, 10, 30, 10, 29));
+        assertEquals(List.of("java.io.IOException", "java.util.ConcurrentModificationException"),
+                recent.stream().map(FingerprintIndex.ErrorGroup::getExceptionType).toList());
+    }
+}
@@ -0,0 +1,75 @@
+package com.bugmind.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link FrameDictionary} and frame-interned messages in {@link LogParser}.
+ */
+public class FrameDictionaryTest {
+
+    private static String traces(Random random, int entries) {
+        String[] lineKinds = {
+                "    at com.example.Repo.load(Repo.java:42)", "\tat com.example.Web.handle(Web.java:7)",
+                "    at com.example.Service.run(Service.java:11)", "Caused by: java.io.IOException: disk",
+                "", "   ", "plain text", "  at odd spacing  "
+        };
+        StringBuilder text = new StringBuilder();
+        for (int e = 0; e < entries; e++) {
+            text.append("[2025-10-30 10:00:").append(String.format("%02d", e % 60)).append("] ERROR - failed ")
+                    .append(e).append('\n');
+            int lines = random.nextInt(30);
+            for (int l = 0; l < lines; l++) {
+                text.append(lineKinds[random.nextInt(lineKinds.length)]).append(random.nextInt(6) == 0 ? "\r\n" : "\n");
+            }
+        }
+        return text.toString();
+    }
+
+    @Test
+    void internedEntriesRenderLikePlainOnes() {
+        Random random = new Random(3);
+        FrameDictionary frames = new FrameDictionary();
+        LogParser interning = new LogParser(frames);
+        for (int i = 0; i < 200; i++) {
+            String text = traces(random, 1 + random.nextInt(5));
+            List<ParsedLog> plain = new LogParser().parseLogs(text);
+            List<ParsedLog> compact = interning.parseLogs(text);
+            assertEquals(plain.size(), compact.size());
+            for (int e = 0; e < plain.size(); e++) {
+                assertEquals(plain.get(e).toString(), compact.get(e).toString());
+                assertEquals(plain.get(e).getMessage(), compact.get(e).getMessage());
+            }
+        }
+        // Only four distinct frame lines exist in the input
+        assertEquals(4, frames.size());
+    }
+
+    @Test
+    void setMessageReplacesInternedMessage() {
+        LogParser parser = new LogParser(new FrameDictionary());
+        ParsedLog log = parser.parseLogs("[2025-10-30 10:00:00] ERROR - x\n    at a.B.c(B.java:1)\n").get(0);
+        log.setMessage("  replaced ");
+        assertEquals("replaced", log.getMessage());
+    }
+
+    @Test
+    void concurrentInterningAssignsOneIdPerFrame() {
+        FrameDictionary frames = new FrameDictionary();
+        int[] ids = IntStream.range(0, 20_000).parallel()
+                .map(i -> frames.intern("at com.example.C.m" + (i % 500) + "(C.java:1)"))
+                .toArray();
+        assertEquals(500, frames.size());
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(ids[i % 500], ids[i]);
+            assertEquals("at com.example.C.m" + (i % 500) + "(C.java:1)", frames.frame(ids[i]));
+        }
+        String line = "xx  at a.B.c(B.java:1)yy";
+        assertEquals(frames.intern("at a.B.c(B.java:1)"), frames.intern(line, 4, line.length() - 2));
+    }
+}
@@ -0,0 +1,210 @@
+package com.bugmind.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link IngestionPipeline}.
+ */
+public class IngestionPipelineTest {
+
+    private static String randomLog(Random random, int lines) {
+        String[] kinds = {
+                "[2025-10-27 21:10:00] ERROR - failed", "[2025-10-27 21:10:01] INFO - ok", "[2025-10-27 21:10:02] DEBUG -",
+                "    at a.B.c(B.java:1)", "Caused by: java.io.IOException: x", "", "   ", "plain text"
+        };
+        StringBuilder text = new StringBuilder();
+        for (int l = 0; l < lines; l++) {
+            text.append(kinds[random.nextInt(kinds.length)]).append(random.nextInt(5) == 0 ? "\r\n" : "\n");
+        }
+        return text.toString();
+    }
+
+    private static List<String> render(List<ParsedLog> logs) {
+        return logs.stream().map(ParsedLog::toString).toList();
+    }
+
+    @Test
+    void matchesSequentialParsingForAnyBatching() throws IOException {
+        Random random = new Random(8);
+        for (int i = 0; i < 200; i++) {
+            String text = randomLog(random, random.nextInt(300));
+            IngestionPipeline.Options options = new IngestionPipeline.Options()
+                    .batchLines(1 + random.nextInt(20)).parserThreads(1 + random.nextInt(4))
+                    .maxBatchesInFlight(1 + random.nextInt(6));
+            LogRepository repository = new LogRepository(new ChunkedLogStore());
+            try (IngestionPipeline pipeline = new IngestionPipeline(new LogParser(), repository, List.of(), options)) {
+                long stored = pipeline.ingest(new StringReader(text));
+                List<ParsedLog> expected = new LogParser().parseLogs(text);
+                assertEquals(expected.size(), stored);
+                assertEquals(render(expected), render(repository.findAll()));
+            }
+        }
+    }
+
+    @Test
+    void enrichersRewriteAndDropEntries() throws IOException {
+        String text = randomLog(new Random(2), 2_000);
+        UnaryOperator<ParsedLog> dropDebug = log -> "DEBUG".equals(log.getLevel()) ? null : log;
+        UnaryOperator<ParsedLog> tag = log -> new ParsedLog(log.getTimestamp(), log.getLevel(),
+                "[host-1] " + log.getMessage(), log.getExceptionType());
+
+        LogRepository repository = new LogRepository(new ChunkedLogStore());
+        LevelCounts counts = new LevelCounts();
+        repository.addListener(counts::add);
+        IngestionPipeline.Options options = new IngestionPipeline.Options().batchLines(16).enricherThreads(3);
+        try (IngestionPipeline pipeline = new IngestionPipeline(new LogParser(), repository,
+                List.of(dropDebug, tag), options)) {
+            pipeline.ingest(new StringReader(text));
+        }
+
+        List<String> expected = new LogParser().parseLogs(text).stream()
+                .filter(log -> !"DEBUG".equals(log.getLevel()))
+                .map(tag)
+                .map(ParsedLog::toString)
+                .toList();
+        assertEquals(expected, render(repository.findAll()));
+        assertEquals(0, counts.count("DEBUG"));
+        assertEquals(expected.size(), counts.count("INFO") + counts.count("ERROR"));
+    }
+
+    @Test
+    void readerWaitsWhileTheStoreFallsBehind() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 400; i++) {
+            text.append("[2025-10-27 21:10:00] INFO - entry\n");
+        }
+        LineAtATimeReader reader = new LineAtATimeReader(text.toString());
+        LogRepository repository = new LogRepository(new ChunkedLogStore());
+        AtomicInteger maxAhead = new AtomicInteger();
+        AtomicInteger stored = new AtomicInteger();
+        repository.addListener(log -> {
+            maxAhead.accumulateAndGet(reader.linesRead - stored.incrementAndGet(), Math::max);
+            if (stored.get() % 10 == 0) {
+                sleep();
+            }
+        });
+
+        int batchLines = 10;
+        int inFlight = 2;
+        IngestionPipeline.Options options = new IngestionPipeline.Options().batchLines(batchLines)
+                .maxBatchesInFlight(inFlight).parserThreads(4);
+        try (IngestionPipeline pipeline = new IngestionPipeline(new LogParser(), repository, List.of(), options)) {
+            assertEquals(400, pipeline.ingest(reader));
+        }
+        // Batches in flight plus the batch being cut, which may hold one extra header line
+        assertTrue(maxAhead.get() <= (inFlight + 1) * batchLines + 1, "reader ran ahead by " + maxAhead.get());
+    }
+
+    @Test
+    void stageFailureSurfacesAndPipelineStaysUsable() throws IOException {
+        String text = randomLog(new Random(4), 500);
+        LogRepository repository = new LogRepository(new ChunkedLogStore());
+        UnaryOperator<ParsedLog> failing = log -> {
+            if ("ERROR".equals(log.getLevel())) {
+                throw new IllegalStateException("enricher broke");
+            }
+            return log;
+        };
+        IngestionPipeline.Options options = new IngestionPipeline.Options().batchLines(8);
+        try (IngestionPipeline pipeline = new IngestionPipeline(new LogParser(), repository, List.of(failing), options)) {
+            IllegalStateException e = assertThrows(IllegalStateException.class,
+                    () -> pipeline.ingest(new StringReader(text)));
+            assertEquals("enricher broke", e.getMessage());
+            assertEquals(1, pipeline.ingest(new StringReader("[2025-10-27 21:10:01] INFO - fine\n")));
+        }
+    }
+
+    @Test
+    void closeReleasesAReaderWaitingForTheStore() throws InterruptedException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            text.append("[2025-10-27 21:10:00] INFO - entry ").append(i).append('\n');
+        }
+        LogRepository repository = new LogRepository(new ChunkedLogStore());
+        AtomicInteger stored = new AtomicInteger();
+        repository.addListener(log -> stored.incrementAndGet());
+        // close() drops the queued enrich tasks, so the sink is left waiting on batches that never complete
+        UnaryOperator<ParsedLog> slow = log -> {
+            sleep();
+            return log;
+        };
+        IngestionPipeline.Options options = new IngestionPipeline.Options().batchLines(10).maxBatchesInFlight(2)
+                .enricherThreads(1);
+        IngestionPipeline pipeline = new IngestionPipeline(new LogParser(), repository, List.of(slow), options);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread ingesting = new Thread(() -> {
+            try {
+                pipeline.ingest(new StringReader(text.toString()));
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        ingesting.start();
+        while (stored.get() < 20) {
+            Thread.sleep(1);
+        }
+
+        pipeline.close();
+        ingesting.join(10_000);
+        assertFalse(ingesting.isAlive(), "ingest() still blocked after close()");
+        assertInstanceOf(IllegalStateException.class, failure.get());
+        assertThrows(IllegalStateException.class, () -> pipeline.ingest(new StringReader("")));
+    }
+
+    @Test
+    void rejectsInvalidOptions() {
+        IngestionPipeline.Options options = new IngestionPipeline.Options();
+        assertThrows(IllegalArgumentException.class, () -> options.batchLines(0));
+        assertThrows(IllegalArgumentException.class, () -> options.parserThreads(0));
+        assertThrows(IllegalArgumentException.class, () -> options.maxBatchesInFlight(-1));
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Hands out at most one line per read call, so lines read track the reader's progress. */
+    private static final class LineAtATimeReader extends Reader {
+        private final String text;
+        private int pos;
+        volatile int linesRead;
+
+        LineAtATimeReader(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (pos == text.length()) {
+                return -1;
+            }
+            int end = Math.min(text.indexOf('\n', pos) + 1, pos + length);
+            text.getChars(pos, end, buffer, offset);
+            int n = end - pos;
+            pos = end;
+            if (text.charAt(end - 1) == '\n') {
+                linesRead++;
+            }
+            return n;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.bugmind.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link LevelCounts} and the primitive aggregation path of {@link LogLevelAggregator}.
+ */
+public class LevelCountsTest {
+
+    private static final String[] RAW_LEVELS = {
+            "INFO", "info", " Warn ", "ERROR", "error\t", null, "", "  ", "debug", "Trace", "fatal",
+            "custom", "CUSTOM ", "ınfo", "unknown", "straße"
+    };
+
+    private final LogLevelAggregator aggregator = new LogLevelAggregator();
+
+    // The former boxed aggregation, including its key normalization
+    private static Map<String, Long> reference(List<ParsedLog> logs) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (ParsedLog log : logs) {
+            String raw = log == null ? null : log.getLevel();
+            String key = (raw == null || raw.trim().isEmpty()) ? LogLevelAggregator.UNKNOWN
+                    : raw.trim().toUpperCase(Locale.ROOT);
+            counts.merge(key, 1L, Long::sum);
+        }
+        return counts;
+    }
+
+    private static List<ParsedLog> randomLogs(long seed, int count) {
+        Random random = new Random(seed);
+        List<ParsedLog> logs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int pick = random.nextInt(RAW_LEVELS.length + 1);
+            logs.add(pick == RAW_LEVELS.length ? null
+                    : new ParsedLog("2025-10-27 12:00:00", RAW_LEVELS[pick], "m", null));
+        }
+        return logs;
+    }
+
+    @Test
+    void matchesFormerAggregationIncludingOrder() {
+        for (long seed = 0; seed < 30; seed++) {
+            List<ParsedLog> logs = randomLogs(seed, 200);
+            Map<String, Long> expected = reference(logs);
+            Map<String, Long> actual = aggregator.aggregateByLevel(logs);
+            assertEquals(expected, actual);
+            assertEquals(List.copyOf(expected.entrySet()), List.copyOf(actual.entrySet()));
+        }
+    }
+
+    @Test
+    void parallelPathKeepsCountsAndFirstSeenOrder() {
+        List<ParsedLog> logs = randomLogs(5, LogLevelAggregator.PARALLEL_THRESHOLD * 2);
+        Map<String, Long> expected = reference(logs);
+        Map<String, Long> actual = aggregator.aggregateByLevel(logs);
+        assertEquals(List.copyOf(expected.entrySet()), List.copyOf(actual.entrySet()));
+    }
+
+    @Test
+    void mergesPrimitivePartialsAcrossCustomLevels() {
+        LevelCounts left = new LevelCounts();
+        left.add("INFO");
+        left.add("custom");
+        LevelCounts right = new LevelCounts();
+        right.add("other");
+        right.add(" Custom ");
+        right.add("info", 4);
+
+        LevelCounts merged = aggregator.mergeCounts(List.of(left, right));
+        assertEquals(List.of("INFO", "CUSTOM", "OTHER"), List.copyOf(merged.asMap().keySet()));
+        assertEquals(5, merged.count("info"));
+        assertEquals(2, merged.count("CUSTOM"));
+        assertEquals(0, merged.count("WARN"));
+        assertNull(merged.asMap().get("WARN"));
+    }
+
+    @Test
+    void mergeAggregationsKeepsZeroedKeys() {
+        Map<String, Long> withNull = new LinkedHashMap<>();
+        withNull.put("warn", null);
+        withNull.put("INFO", -3L);
+        Map<String, Long> merged = aggregator.mergeAggregations(List.of(withNull, Map.of("info", 2L)));
+        assertEquals(0L, merged.get("WARN"));
+        assertEquals(2L, merged.get("INFO"));
+        assertThrows(UnsupportedOperationException.class, () -> merged.put("X", 1L));
+    }
+}
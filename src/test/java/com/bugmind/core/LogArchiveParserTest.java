@@ -0,0 +1,280 @@
+package com.bugmind.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link LogArchiveParser}: compressed input must parse exactly like
+ * the decompressed text, however the members cut it.
+ */
+public class LogArchiveParserTest {
+
+    @TempDir
+    Path dir;
+
+    private static byte[] sampleLogs(int entries) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < entries; i++) {
+            String ts = String.format("2025-11-03 07:%02d:%02d", (i / 60) % 60, i % 60);
+            if (i % 5 == 0) {
+                out.write(("[" + ts + "] ERROR - Zahlung fehlgeschlagen für Bestellung " + i + "\r\n"
+                        + "java.lang.IllegalStateException: kaputt ✗\n"
+                        + "    at com.example.Billing.charge(Billing.java:" + i + ")\n"
+                        + "Caused by: java.net.SocketTimeoutException: read timed out\n")
+                        .getBytes(StandardCharsets.UTF_8));
+            } else if (i % 17 == 0) {
+                // Bytes that look like a gzip header once stored uncompressed
+                out.write(("[" + ts + "] WARN - odd payload ").getBytes(StandardCharsets.UTF_8));
+                out.write(new byte[] {0x1f, (byte) 0x8b, 8, 0, 'x', '\n'});
+            } else {
+                out.write(("[" + ts + "] INFO - tick " + i + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /** One gzip member; stored members keep the text verbatim, optional header fields exercise skipping. */
+    private static byte[] member(byte[] data, int from, int to, boolean stored, boolean headerFields) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int flags = headerFields ? 2 | 4 | 8 | 16 : 0;
+        out.write(new byte[] {0x1f, (byte) 0x8b, 8, (byte) flags, 0, 0, 0, 0, 0, (byte) 255});
+        if (headerFields) {
+            out.write(new byte[] {4, 0, 'B', 'C', 0, 0});
+            out.write("app.log\0".getBytes(StandardCharsets.ISO_8859_1));
+            out.write("rotated\0".getBytes(StandardCharsets.ISO_8859_1));
+            CRC32 headerCrc = new CRC32();
+            headerCrc.update(out.toByteArray());
+            out.write((int) headerCrc.getValue());
+            out.write((int) headerCrc.getValue() >>> 8);
+        }
+        Deflater deflater = new Deflater(stored ? Deflater.NO_COMPRESSION : Deflater.DEFAULT_COMPRESSION, true);
+        try (DeflaterOutputStream deflated = new DeflaterOutputStream(nonClosing(out), deflater)) {
+            deflated.write(data, from, to - from);
+        }
+        deflater.end();
+        CRC32 crc = new CRC32();
+        crc.update(data, from, to - from);
+        writeIntLe(out, (int) crc.getValue());
+        writeIntLe(out, to - from);
+        return out.toByteArray();
+    }
+
+    private static OutputStream nonClosing(OutputStream out) {
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+        };
+    }
+
+    private static void writeIntLe(OutputStream out, int value) throws IOException {
+        for (int i = 0; i < 4; i++) {
+            out.write(value >>> (8 * i));
+        }
+    }
+
+    /** Cuts the text into members of varying size, most of them mid-line. */
+    private static List<byte[]> members(byte[] text) throws IOException {
+        List<byte[]> members = new ArrayList<>();
+        int pos = 0;
+        for (int i = 0; pos < text.length; i++) {
+            int end = Math.min(text.length, pos + 37 + (i * 7919) % 900);
+            members.add(member(text, pos, end, i % 3 == 0, i % 4 == 1));
+            pos = end;
+        }
+        return members;
+    }
+
+    private static byte[] multiMember(byte[] text) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] member : members(text)) {
+            out.write(member);
+        }
+        return out.toByteArray();
+    }
+
+    private static List<String> expected(byte[] text) {
+        try (Stream<ParsedLog> entries = new LogParser().parse(new ByteArrayInputStream(text))) {
+            return entries.map(ParsedLog::toString).collect(Collectors.toList());
+        }
+    }
+
+    private static List<String> strings(List<ParsedLog> logs) {
+        return logs.stream().map(ParsedLog::toString).collect(Collectors.toList());
+    }
+
+    @Test
+    void multiMemberGzipParsesLikeTheDecompressedText() throws IOException {
+        byte[] text = sampleLogs(600);
+        Path file = dir.resolve("app.log.gz");
+        Files.write(file, multiMember(text));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // Runs far smaller than members make most speculative starts wrong
+            for (long chunkBytes : new long[] {97, 700, 4096}) {
+                LogArchiveParser archive = new LogArchiveParser(new LogParser(), pool, chunkBytes, List.of(LogCodec.GZIP));
+                assertEquals(expected(text), strings(archive.parseFile(file)), "chunkBytes=" + chunkBytes);
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        try (Stream<ParsedLog> streamed = new LogArchiveParser().parse(Files.newInputStream(file))) {
+            assertEquals(expected(text), streamed.map(ParsedLog::toString).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void textBeforeTheFirstHeaderStaysWithTheFirstEntry() throws IOException {
+        Random random = new Random(11);
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            for (int round = 0; round < 60; round++) {
+                // Headerless preamble that spans several runs, possibly ending mid-line
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                int preamble = 1 + random.nextInt(40);
+                for (int i = 0; i < preamble; i++) {
+                    out.write(("leftover line " + i + (random.nextInt(4) == 0 ? "" : "\n")).getBytes(StandardCharsets.UTF_8));
+                }
+                out.write(sampleLogs(random.nextInt(30)));
+                byte[] text = out.toByteArray();
+
+                ByteArrayOutputStream gz = new ByteArrayOutputStream();
+                for (int pos = 0; pos < text.length; ) {
+                    int end = Math.min(text.length, pos + 1 + random.nextInt(200));
+                    gz.write(member(text, pos, end, random.nextBoolean(), false));
+                    pos = end;
+                }
+                Path file = dir.resolve("preamble-" + round + ".gz");
+                Files.write(file, gz.toByteArray());
+
+                long chunkBytes = 16 + random.nextInt(300);
+                LogArchiveParser archive = new LogArchiveParser(new LogParser(), pool, chunkBytes, List.of(LogCodec.GZIP));
+                assertEquals(expected(text), strings(archive.parseFile(file)), "round " + round);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void singleMemberAndCustomCodecsStream() throws IOException {
+        byte[] text = sampleLogs(120);
+        Path gz = dir.resolve("single.gz");
+        Files.write(gz, member(text, 0, text.length, false, true));
+        assertEquals(expected(text), strings(new LogArchiveParser().parseFile(gz)));
+
+        // A codec the JDK does not know, plugged in by magic and stream wrapper
+        byte[] magic = {'B', 'M', 'Z', '1'};
+        ByteArrayOutputStream custom = new ByteArrayOutputStream();
+        custom.write(magic);
+        try (DeflaterOutputStream deflated = new DeflaterOutputStream(custom)) {
+            deflated.write(text);
+        }
+        Path file = dir.resolve("custom.bmz");
+        Files.write(file, custom.toByteArray());
+        LogCodec codec = new LogCodec("bmz", magic, in -> {
+            in.skipNBytes(magic.length);
+            return new InflaterInputStream(in);
+        });
+        LogArchiveParser archive = new LogArchiveParser(new LogParser(), ForkJoinPool.commonPool(),
+                LogArchiveParser.DEFAULT_CHUNK_BYTES, List.of(LogCodec.GZIP, codec));
+        assertEquals(expected(text), strings(archive.parseFile(file)));
+
+        Path plain = dir.resolve("plain.log");
+        Files.write(plain, text);
+        assertEquals(expected(text), strings(archive.parseFile(plain)));
+    }
+
+    @Test
+    void corruptMemberIsReported() throws IOException {
+        byte[] text = sampleLogs(200);
+        List<byte[]> members = members(text);
+        // Member 3 is stored, so this flips a byte of its payload rather than of the deflate framing
+        members.get(3)[20] ^= 0x55;
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        for (byte[] member : members) {
+            archive.write(member);
+        }
+        Path file = dir.resolve("corrupt.gz");
+        Files.write(file, archive.toByteArray());
+
+        LogArchiveParser parser = new LogArchiveParser(new LogParser(), ForkJoinPool.commonPool(), 128, List.of(LogCodec.GZIP));
+        ZipException e = assertThrows(ZipException.class, () -> parser.parseFile(file));
+        assertTrue(e.getMessage().startsWith("Corrupt gzip member at offset "), e.getMessage());
+    }
+
+    @Test
+    void directoryReplaysRotatedFilesOldestFirst() throws IOException {
+        String[] entries = new String(sampleLogs(90), StandardCharsets.UTF_8).split("(?=\\[2025)");
+        byte[][] parts = new byte[3][];
+        ByteArrayOutputStream all = new ByteArrayOutputStream();
+        for (int p = 0; p < 3; p++) {
+            parts[p] = String.join("", Arrays.copyOfRange(entries, p * 30, (p + 1) * 30)).getBytes(StandardCharsets.UTF_8);
+            all.write(parts[p]);
+        }
+        Path oldest = dir.resolve("app.log.2.gz");
+        Path middle = dir.resolve("app.log.1.gz");
+        Path current = dir.resolve("app.log");
+        Files.write(oldest, multiMember(parts[0]));
+        Files.write(middle, member(parts[1], 0, parts[1].length, false, false));
+        Files.write(current, parts[2]);
+        Files.setLastModifiedTime(oldest, FileTime.fromMillis(1_000_000));
+        Files.setLastModifiedTime(middle, FileTime.fromMillis(2_000_000));
+        Files.setLastModifiedTime(current, FileTime.fromMillis(3_000_000));
+
+        List<ParsedLog> replayed = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            new LogArchiveParser(new LogParser(), pool, 256, List.of(LogCodec.GZIP)).parseDirectory(dir, replayed::add);
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(expected(all.toByteArray()), strings(replayed));
+    }
+
+    @Test
+    void rejectsTruncatedArchive() throws IOException {
+        byte[] text = sampleLogs(50);
+        byte[] archive = member(text, 0, text.length, false, false);
+        Path file = dir.resolve("truncated.gz");
+        Files.write(file, Arrays.copyOf(archive, archive.length - 5));
+        assertThrows(IOException.class, () -> new LogArchiveParser().parseFile(file));
+
+        InputStream empty = new ByteArrayInputStream(new byte[0]);
+        try (Stream<ParsedLog> none = new LogArchiveParser().parse(empty)) {
+            assertEquals(0, none.count());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.bugmind.core;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for time-range queries through repository, service and controller.
+ */
+public class LogControllerRangeTest {
+
+    private LogRepository repository;
+    private LogController controller;
+
+    @BeforeEach
+    void setup() {
+        repository = new LogRepository(new ChunkedLogStore());
+        for (int minute = 0; minute < 60; minute++) {
+            String level = (minute % 2 == 0) ? "ERROR" : "WARN";
+            repository.add(new ParsedLog(String.format("2025-10-30 10:%02d:00", minute), level, "event " + minute, null));
+        }
+        repository.add(new ParsedLog("garbage", "ERROR", "no timestamp", null));
+        controller = new LogController(new LogService(repository));
+    }
+
+    @Test
+    void returnsOnlyEntriesWithinInclusiveBounds() {
+        List<ParsedLog> logs = repository.findByLevelsAndRange(List.of("ERROR", "WARN"),
+                LocalDateTime.of(2025, 10, 30, 10, 10), LocalDateTime.of(2025, 10, 30, 10, 20), false, 0);
+        assertEquals(11, logs.size());
+        assertEquals("event 10", logs.get(0).getMessage());
+        assertEquals("event 20", logs.get(10).getMessage());
+        assertTrue(logs.stream().noneMatch(l -> l.getParsedTimestamp() == null));
+    }
+
+    @Test
+    void descendingWithLimitStopsEarly() {
+        List<ParsedLog> logs = controller.getLogsByLevelAndRange("error", "2025-10-30 10:00:00", null, "desc", 3);
+        assertEquals(List.of("event 58", "event 56", "event 54"), logs.stream().map(ParsedLog::getMessage).toList());
+    }
+
+    @Test
+    void openRangeIncludesUnparseableTimestampsLast() {
+        List<ParsedLog> logs = controller.getLogsByLevelAndRange("ERROR", "", " ", "asc", 0);
+        assertEquals(31, logs.size());
+        assertEquals("no timestamp", logs.get(30).getMessage());
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class,
+                () -> controller.getLogsByLevelAndRange("ERROR", "yesterday", null, "asc", 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> controller.getLogsByLevelAndRange("ERROR", "2025-10-30T11:00", "2025-10-30T10:00", "asc", 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> controller.getLogsByLevelAndRange("ERROR", null, null, "asc", -1));
+        assertThrows(IllegalArgumentException.class,
+                () -> controller.getLogsByLevelAndRange(" ", null, null, "asc", 0));
+    }
+}
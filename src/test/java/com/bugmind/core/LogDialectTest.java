@@ -0,0 +1,164 @@
+package com.bugmind.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link LogDialect}: compiled layouts, detection, and parsing
+ * through every entry point with a non-default dialect.
+ */
+public class LogDialectTest {
+
+    @TempDir
+    Path dir;
+
+    private static final String LOGBACK_LOGS = """
+            2025-11-04 09:15:00.120 [http-nio-8080-exec-1] INFO  com.example.my-service.Api - request served
+            2025-11-04 09:15:01.500 [pool-2 thread-7] ERROR c.e.Billing - charge failed for order 7
+            java.lang.IllegalStateException: declined
+            \tat com.example.Billing.charge(Billing.java:42)
+            Caused by: java.net.SocketTimeoutException: read timed out
+            2025-11-04 09:15:02.000 [main] WARN  com.example.Api - slow
+            """;
+
+    private static final String SYSLOG_LOGS = """
+            Nov  4 09:15:00 web-1 sshd[812]: Accepted publickey for deploy
+            Nov  4 09:15:03 web-1 CRON[901]: (root) CMD (run-parts /etc/cron.hourly)
+            """;
+
+    private static List<String> strings(List<ParsedLog> logs) {
+        return logs.stream().map(ParsedLog::toString).collect(Collectors.toList());
+    }
+
+    @Test
+    void compiledLayoutsExtractTimestampLevelAndMessage() {
+        List<ParsedLog> logs = new LogParser(LogDialect.LOGBACK, null).parseLogs(LOGBACK_LOGS);
+        assertEquals(3, logs.size());
+        assertEquals("2025-11-04 09:15:00", logs.get(0).getTimestamp());
+        assertEquals(LocalDateTime.of(2025, 11, 4, 9, 15, 0), logs.get(0).getParsedTimestamp());
+        assertEquals("INFO", logs.get(0).getLevel());
+        assertEquals("request served", logs.get(0).getMessage());
+        // The thread name holds a space; the trace lines belong to the entry
+        assertEquals("ERROR", logs.get(1).getLevel());
+        assertTrue(logs.get(1).getMessage().startsWith("charge failed for order 7"));
+        assertEquals("java.net.SocketTimeoutException", logs.get(1).getExceptionType());
+        assertEquals("slow", logs.get(2).getMessage());
+
+        // The request's own pattern, with logback's default comma millis and a %pri level
+        LogDialect custom = LogDialect.compile("custom", "<%pri>%d [%t] %-5level %logger - %msg%n");
+        ParsedLog parsed = new LogParser(custom, null).parseLine("<11>2025-11-04 09:15:00,120 [main] DEBUG a.B - hi");
+        assertEquals("2025-11-04 09:15:00", parsed.getTimestamp());
+        assertEquals("DEBUG", parsed.getLevel());
+        assertEquals("hi", parsed.getMessage());
+        LogDialect priority = LogDialect.compile("pri", "<%pri>%d{yyyy-MM-dd'T'HH:mm:ssXXX} %host %logger: %msg");
+        ParsedLog fromPriority = new LogParser(priority, null).parseLine("<11>2025-11-04T09:15:00+01:00 web-1 app: x");
+        assertEquals("ERROR", fromPriority.getLevel());
+        assertEquals("2025-11-04 09:15:00", fromPriority.getTimestamp());
+
+        // Without a year the timestamp is kept as written
+        List<ParsedLog> syslog = new LogParser(LogDialect.SYSLOG, null).parseLogs(SYSLOG_LOGS);
+        assertEquals(List.of("Nov  4 09:15:00", "Nov  4 09:15:03"), syslog.stream().map(ParsedLog::getTimestamp).toList());
+        assertEquals(List.of("INFO", "INFO"), syslog.stream().map(ParsedLog::getLevel).toList());
+        assertEquals("(root) CMD (run-parts /etc/cron.hourly)", syslog.get(1).getMessage());
+        assertNull(syslog.get(0).getParsedTimestamp());
+    }
+
+    @Test
+    void rejectsLinesOutsideTheLayout() {
+        LogDialect logback = LogDialect.LOGBACK;
+        assertTrue(logback.isHeader("2025-11-04 09:15:00.120 [main] INFO  a.B - x"));
+        assertFalse(logback.isHeader("2025-11-04 09:15:00.120 [main] NOTICE a.B - x"));
+        assertFalse(logback.isHeader("2025-02-30 09:15:00.120 [main] INFO  a.B - x"), "no such date");
+        assertFalse(logback.isHeader("2025-11-04 09:15:00 [main] INFO  a.B - x"), "millis are required");
+        assertFalse(logback.isHeader("[2025-11-04 09:15:00] INFO - default layout"));
+        assertFalse(LogDialect.DEFAULT.isHeader("2025-11-04 09:15:00.120 [main] INFO  a.B - x"));
+        assertFalse(logback.isHeader(null));
+    }
+
+    @Test
+    void rejectsUnsupportedPatterns() {
+        assertThrows(IllegalArgumentException.class, () -> LogDialect.compile("x", "%level - %msg"));
+        assertThrows(IllegalArgumentException.class, () -> LogDialect.compile("x", "%d %msg %level"));
+        assertThrows(IllegalArgumentException.class, () -> LogDialect.compile("x", "%d %level"));
+        assertThrows(IllegalArgumentException.class, () -> LogDialect.compile("x", "%d %mdc %msg"));
+        assertThrows(IllegalArgumentException.class, () -> LogDialect.compile("x", "%d{yyyy-ww} %msg"));
+        assertThrows(IllegalArgumentException.class, () -> LogDialect.compile("x", "%d{yyyy %msg"));
+        assertThrows(IllegalArgumentException.class, () -> LogDialect.compile("x", "%d %-5 %msg"));
+    }
+
+    @Test
+    void detectsTheDialectFromASample() throws IOException {
+        List<String> logback = LOGBACK_LOGS.lines().toList();
+        assertSame(LogDialect.LOGBACK, LogDialect.detect(logback, LogDialect.BUILT_IN));
+        assertSame(LogDialect.SYSLOG, LogDialect.detect(SYSLOG_LOGS.lines().toList(), LogDialect.BUILT_IN));
+        assertSame(LogDialect.DEFAULT, LogDialect.detect(List.of("[2025-11-04 09:15:00] INFO - x"), LogDialect.BUILT_IN));
+        // Nothing recognized: the first candidate wins
+        assertSame(LogDialect.SYSLOG, LogDialect.detect(List.of("plain text"), List.of(LogDialect.SYSLOG, LogDialect.DEFAULT)));
+
+        byte[] bytes = LOGBACK_LOGS.getBytes(StandardCharsets.UTF_8);
+        assertSame(LogDialect.LOGBACK, LogDialect.detect(new ByteArrayInputStream(bytes), 2, LogDialect.BUILT_IN));
+        assertThrows(IllegalArgumentException.class, () -> LogDialect.detect(logback, List.of()));
+    }
+
+    @Test
+    void headersThatLookLikeFramesAreNotDroppedOnBytes() {
+        // Thread first: "at" is a thread name here, not the start of a frame
+        LogDialect threadFirst = LogDialect.compile("thread-first", "%thread %d %level %msg");
+        StringBuilder sb = new StringBuilder("main 2025-11-04 09:15:00,000 ERROR first\n");
+        for (int i = 0; i < 30; i++) {
+            sb.append("at com.example.Deep.call(Deep.java:").append(i).append(")\n");
+        }
+        sb.append("at 2025-11-04 09:15:01,000 INFO second\n");
+        LogParser parser = new LogParser(threadFirst, null);
+        List<String> expected = strings(parser.parseLogs(sb.toString()));
+        assertEquals(2, expected.size());
+        try (Stream<ParsedLog> entries = parser.parse(new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.UTF_8)))) {
+            assertEquals(expected, strings(entries.collect(Collectors.toList())));
+        }
+    }
+
+    @Test
+    void archiveParserDetectsEachFile() throws IOException {
+        Path logback = dir.resolve("app.log.1.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(logback))) {
+            out.write(LOGBACK_LOGS.getBytes(StandardCharsets.UTF_8));
+        }
+        Path syslog = dir.resolve("syslog");
+        Files.writeString(syslog, SYSLOG_LOGS);
+        Path plain = dir.resolve("app.log");
+        Files.writeString(plain, "[2025-11-04 10:00:00] WARN - default layout\n");
+        Files.setLastModifiedTime(logback, FileTime.fromMillis(1_000_000));
+        Files.setLastModifiedTime(syslog, FileTime.fromMillis(2_000_000));
+        Files.setLastModifiedTime(plain, FileTime.fromMillis(3_000_000));
+
+        LogArchiveParser archive = new LogArchiveParser(new LogParser(), ForkJoinPool.commonPool(),
+                LogArchiveParser.DEFAULT_CHUNK_BYTES, List.of(LogCodec.GZIP), LogDialect.BUILT_IN);
+        List<ParsedLog> replayed = new ArrayList<>();
+        archive.parseDirectory(dir, replayed::add);
+
+        List<String> expected = new ArrayList<>(strings(new LogParser(LogDialect.LOGBACK, null).parseLogs(LOGBACK_LOGS)));
+        expected.addAll(strings(new LogParser(LogDialect.SYSLOG, null).parseLogs(SYSLOG_LOGS)));
+        expected.add("[2025-11-04 10:00:00] WARN: default layout");
+        assertEquals(expected, strings(replayed));
+
+        // Without dialects every file is read with the parser's own layout
+        assertTrue(new LogArchiveParser().parseFile(syslog).isEmpty());
+    }
+}
@@ -0,0 +1,79 @@
+package com.bugmind.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link LogFileParser}: chunked parsing must match sequential parsing.
+ */
+public class LogFileParserTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static String sampleLogs(int entries) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < entries; i++) {
+            String ts = String.format("2025-10-27 21:%02d:%02d", (i / 60) % 60, i % 60);
+            if (i % 3 == 0) {
+                sb.append('[').append(ts).append("] ERROR - Failure ").append(i).append('\n');
+                for (int f = 0; f < 15; f++) {
+                    sb.append("    at com.example.Worker.step").append(f).append("(Worker.java:").append(f).append(")\n");
+                }
+                sb.append("Caused by: java.lang.IllegalStateException: bad ").append(i).append("\r\n");
+                sb.append("    at com.example.Engine.turn(Engine.java:42)\n");
+            } else {
+                sb.append('[').append(ts).append("] INFO - Tick ").append(i).append(" ✓\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void chunkedParsingMatchesSequentialParsing() throws IOException {
+        String text = sampleLogs(300);
+        Path file = tempDir.resolve("app.log");
+        Files.writeString(file, text, StandardCharsets.UTF_8);
+
+        List<String> expected = new LogParser().parseLogs(text).stream()
+                .map(ParsedLog::toString)
+                .collect(Collectors.toList());
+
+        // Tiny chunks force boundaries into the middle of stack traces
+        ForkJoinPool pool = new ForkJoinPool(4);
+        List<String> actual;
+        try {
+            actual = new LogFileParser(new LogParser(), pool, 97).parseFile(file).stream()
+                    .map(ParsedLog::toString)
+                    .collect(Collectors.toList());
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(300, actual.size());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void handlesUnterminatedLastLineAndEmptyFiles() throws IOException {
+        Path file = tempDir.resolve("tail.log");
+        Files.writeString(file, "[2025-10-27 21:00:00] INFO - first\n[2025-10-27 21:01:00] WARN - last");
+        List<ParsedLog> parsed = new LogFileParser(new LogParser(), ForkJoinPool.commonPool(), 16).parseFile(file);
+        assertEquals(2, parsed.size());
+        assertEquals("last", parsed.get(1).getMessage());
+
+        Path empty = tempDir.resolve("empty.log");
+        Files.createFile(empty);
+        assertTrue(new LogFileParser().parseFile(empty).isEmpty());
+    }
+}
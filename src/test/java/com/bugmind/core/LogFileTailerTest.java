@@ -0,0 +1,162 @@
+package com.bugmind.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link LogFileTailer}: following a file must yield the same
+ * entries as parsing it whole, across arbitrary append boundaries and rotation.
+ */
+public class LogFileTailerTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @TempDir
+    Path dir;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private LogFileTailer tailer(Path file, LogFileTailer.Options options) {
+        return new LogFileTailer(file, new LogParser(), options.readBufferBytes(7), clock::get);
+    }
+
+    private static void append(Path file, byte[] bytes) throws IOException {
+        Files.write(file, bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static void append(Path file, String text) throws IOException {
+        append(file, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> strings(List<ParsedLog> logs) {
+        return logs.stream().map(ParsedLog::toString).collect(Collectors.toList());
+    }
+
+    @Test
+    void followsAppendsSplitAnywhereLikeAWholeParse() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            String ts = String.format("2025-11-02 08:%02d:%02d", i / 60, i % 60);
+            if (i % 4 == 0) {
+                sb.append('[').append(ts).append("] ERROR - Größe überschritten ").append(i).append("\r\n");
+                sb.append("java.lang.IllegalStateException: limit\n");
+                sb.append("    at com.example.Quota.check(Quota.java:").append(i).append(")\n");
+                sb.append("Caused by: java.io.IOException: disk ✗\n");
+            } else {
+                sb.append('[').append(ts).append("] INFO - tick ").append(i).append('\n');
+            }
+        }
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+        List<String> expected = strings(new LogParser().parseLogs(sb.toString()));
+
+        Path file = dir.resolve("app.log");
+        List<ParsedLog> actual = new ArrayList<>();
+        try (LogFileTailer tailer = tailer(file, new LogFileTailer.Options())) {
+            assertTrue(tailer.poll().isEmpty(), "a missing file is not an error");
+            // Odd slice sizes cut lines, CRLFs and multi-byte characters in half
+            int pos = 0;
+            for (int step = 1; pos < bytes.length; step = step % 13 + 2) {
+                int end = Math.min(bytes.length, pos + step);
+                append(file, Arrays.copyOfRange(bytes, pos, end));
+                pos = end;
+                actual.addAll(tailer.poll());
+                assertEquals(pos, tailer.offset());
+            }
+            assertEquals(expected.size() - 1, actual.size(), "the last entry waits for more lines");
+
+            clock.addAndGet(SECOND / 2);
+            assertTrue(tailer.poll().isEmpty());
+            clock.addAndGet(SECOND);
+            actual.addAll(tailer.poll());
+        }
+        assertEquals(expected, strings(actual));
+    }
+
+    @Test
+    void drainsRotatedFileBeforeFollowingItsReplacement() throws IOException {
+        Path file = dir.resolve("app.log");
+        append(file, "[2025-11-02 09:00:00] INFO - one\n[2025-11-02 09:00:01] ERROR - two\n");
+        try (LogFileTailer tailer = tailer(file, new LogFileTailer.Options())) {
+            assertEquals(List.of("one"), tailer.poll().stream().map(ParsedLog::getMessage).toList());
+
+            // The writer finishes the entry after the rename, then reopens the path
+            Path rotated = dir.resolve("app.log.1");
+            Files.move(file, rotated);
+            append(rotated, "    at com.example.Job.run(Job.java:9)\n[2025-11-02 09:00:02] WARN - three");
+            assertTrue(tailer.poll().isEmpty(), "the old file is still followed while the path is missing");
+            append(file, "[2025-11-02 09:01:00] INFO - fresh\n");
+
+            List<ParsedLog> drained = tailer.poll();
+            assertEquals(List.of("ERROR", "WARN"), drained.stream().map(ParsedLog::getLevel).toList());
+            assertTrue(drained.get(0).getMessage().contains("Job.run"));
+            assertEquals("three", drained.get(1).getMessage());
+            assertEquals(35, tailer.offset());
+
+            clock.addAndGet(2 * SECOND);
+            assertEquals(List.of("fresh"), tailer.poll().stream().map(ParsedLog::getMessage).toList());
+        }
+    }
+
+    @Test
+    void lateContinuationLinesAreNotJoinedToTheNextEntry() throws IOException {
+        Path file = dir.resolve("app.log");
+        append(file, "[2025-10-30 10:00:00] ERROR - failed\n    at a.B.c(B.java:1)\n");
+        try (LogFileTailer tailer = tailer(file, new LogFileTailer.Options())) {
+            assertTrue(tailer.poll().isEmpty());
+            clock.addAndGet(2 * SECOND);
+            List<ParsedLog> flushed = tailer.poll();
+            assertEquals(List.of("failed\nat a.B.c(B.java:1)"), flushed.stream().map(ParsedLog::getMessage).toList());
+
+            // The writer finishes the trace after the idle flush, then logs the next entry
+            append(file, "    at a.B.d(B.java:2)\n[2025-10-30 10:00:05] INFO - next entry\n");
+            assertTrue(tailer.poll().isEmpty());
+            clock.addAndGet(2 * SECOND);
+            List<ParsedLog> next = tailer.poll();
+            assertEquals(List.of("next entry"), next.stream().map(ParsedLog::getMessage).toList());
+            assertEquals("2025-10-30 10:00:05", next.get(0).getTimestamp());
+        }
+    }
+
+    @Test
+    void restartsFromTheTopWhenTruncated() throws IOException {
+        Path file = dir.resolve("app.log");
+        append(file, "[2025-11-02 10:00:00] INFO - before\n[2025-11-02 10:00:01] INFO - pending\n");
+        try (LogFileTailer tailer = tailer(file, new LogFileTailer.Options().idleFlush(Duration.ofHours(1)))) {
+            assertEquals(1, tailer.poll().size());
+
+            Files.write(file, "[2025-11-02 10:05:00] INFO - after\n".getBytes(StandardCharsets.UTF_8));
+            List<ParsedLog> logs = tailer.poll();
+            assertEquals(List.of("pending"), logs.stream().map(ParsedLog::getMessage).toList());
+
+            append(file, "[2025-11-02 10:05:01] INFO - next\n");
+            assertEquals(List.of("after"), tailer.poll().stream().map(ParsedLog::getMessage).toList());
+        }
+    }
+
+    @Test
+    void startAtEndSkipsExistingContent() throws IOException {
+        Path file = dir.resolve("app.log");
+        append(file, "[2025-11-02 11:00:00] ERROR - old\n");
+        try (LogFileTailer tailer = tailer(file, new LogFileTailer.Options().startAtEnd(true).idleFlush(Duration.ZERO))) {
+            assertTrue(tailer.poll().isEmpty());
+            // The rest of the skipped entry's trace must not end up in the next entry
+            append(file, "    at a.B.c(B.java:1)\n[2025-11-02 11:00:01] INFO - new\n");
+            assertTrue(tailer.poll().isEmpty());
+            assertEquals(List.of("new"), tailer.poll().stream().map(ParsedLog::getMessage).toList());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.bugmind.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that {@link LogLineScanner} accepts exactly what the former header regex accepted.
+ */
+public class LogLineScannerTest {
+
+    // The header regex LogParser used before the hand-written scanner
+    private static final Pattern HEADER_PATTERN =
+            Pattern.compile("^\\[([0-9T:\\-\\./\\s]+(?:Z|[+\\-][0-9]{2}:[0-9]{2})?)\\]\\s*(INFO|WARN|ERROR|DEBUG)\\s*-\\s*(.*)$");
+
+    private final LogLineScanner scanner = new LogLineScanner();
+
+    @Test
+    void matchesRegexOnKnownShapes() {
+        List<String> lines = List.of(
+                "[2025-10-27 21:10:00] ERROR - NullPointerException occurred",
+                "[2025-10-27T21:10:00Z] WARN - iso",
+                "[2025-10-27T21:10:00+05:30] INFO - offset",
+                "[2025-10-27T21:10:00-07:00] INFO - negative offset",
+                "[2025-10-27 21:10:00.123]DEBUG-tight",
+                "[2025-10-27 21:10]   WARN   -   spaced out message   ",
+                "[2025/10/27 21:10:00] INFO - slashes",
+                "[Z] INFO - no timestamp digits",
+                "[12+05:3] INFO - short offset",
+                "[12Z+05:30] INFO - both",
+                "[2025-10-27] TRACE - unknown level",
+                "[2025-10-27] INFO message without dash",
+                "[2025-10-27] INFO - msg\r",
+                "[2025-10-27] INFO - msg\u2028tail",
+                "[2025-10-27] INFO - msg\u2028",
+                "[2025-10-27] INFO - ",
+                "2025-10-27 13:00:00 INFO User logged in",
+                "    at com.example.Foo.bar(Foo.java:1)",
+                "");
+        for (String line : lines) {
+            assertScannerAgreesWithRegex(line);
+        }
+    }
+
+    @Test
+    void matchesRegexOnRandomizedLines() {
+        String alphabet = "[]0123456789T:-./ \tZ+INFOWARNERRDEBUG-x\r\u2028";
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            StringBuilder sb = new StringBuilder();
+            // Bias towards a plausible prefix so the deeper states get exercised
+            if (random.nextBoolean()) {
+                sb.append("[2025-10-27 21:10:00");
+            }
+            int len = random.nextInt(24);
+            for (int j = 0; j < len; j++) {
+                sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            assertScannerAgreesWithRegex(sb.toString());
+        }
+    }
+
+    @Test
+    void classifiesNonHeaderLines() {
+        assertEquals(LogLineScanner.LineKind.FRAME, scanner.scan("\tat a.b.C.m(C.java:10)"));
+        assertEquals(LogLineScanner.LineKind.CAUSED_BY, scanner.scan("Caused by: java.io.IOException: x"));
+        assertEquals(LogLineScanner.LineKind.CONTINUATION, scanner.scan("  extra detail"));
+        assertEquals(LogLineScanner.LineKind.BLANK, scanner.scan(" \t "));
+    }
+
+    private void assertScannerAgreesWithRegex(String line) {
+        Matcher m = HEADER_PATTERN.matcher(line);
+        boolean regexHeader = m.find();
+        boolean scannerHeader = scanner.scan(line) == LogLineScanner.LineKind.HEADER;
+        assertEquals(regexHeader, scannerHeader, () -> "Disagreement on: " + escape(line));
+        if (regexHeader) {
+            assertEquals(m.group(1), line.substring(scanner.timestampStart(), scanner.timestampEnd()));
+            assertEquals(m.group(2), line.substring(scanner.levelStart(), scanner.levelEnd()));
+            assertEquals(m.group(3), line.substring(scanner.messageStart(), scanner.messageEnd()));
+        }
+    }
+
+    private static String escape(String s) {
+        return s.replace("\r", "\\r").replace("\t", "\\t").replace("\u2028", "\\u2028");
+    }
+}
@@ -0,0 +1,73 @@
+package com.bugmind.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link LogMetricsAccumulator}: one pass must match the former multi-pass computation.
+ */
+public class LogMetricsAccumulatorTest {
+
+    private static List<ParsedLog> randomLogs(long seed, int count) {
+        Random random = new Random(seed);
+        String[] levels = {"INFO", "error", "ERROR", "WARN", null};
+        List<ParsedLog> logs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String ts = random.nextInt(10) == 0 ? null : "2025-10-" + (10 + random.nextInt(20)) + " 12:00:00";
+            String message = random.nextInt(8) == 0 ? null : "m".repeat(random.nextInt(40));
+            logs.add(new ParsedLog(ts, levels[random.nextInt(levels.length)], message, null));
+        }
+        return logs;
+    }
+
+    // The former three-pass algorithm
+    private static String reference(List<ParsedLog> logs) {
+        int total = logs.size();
+        int errors = (int) logs.stream().filter(l -> "ERROR".equalsIgnoreCase(l.getLevel())).count();
+        double avgLength = logs.stream().map(ParsedLog::getMessage).filter(Objects::nonNull)
+                .mapToInt(String::length).average().orElse(0);
+        List<String> timestamps = logs.stream().map(ParsedLog::getTimestamp).filter(Objects::nonNull).sorted().toList();
+        String first = timestamps.isEmpty() ? "-" : timestamps.get(0);
+        String last = timestamps.isEmpty() ? "-" : timestamps.get(timestamps.size() - 1);
+        return new LogMetricsAnalyzer.LogMetrics(total, errors, errors * 100.0 / total, avgLength, first, last).toString();
+    }
+
+    @Test
+    void matchesFormerMultiPassComputation() {
+        LogMetricsAnalyzer analyzer = new LogMetricsAnalyzer();
+        for (long seed = 0; seed < 50; seed++) {
+            List<ParsedLog> logs = randomLogs(seed, 1 + (int) seed * 7);
+            assertEquals(reference(logs), analyzer.computeMetrics(logs).toString(), "seed=" + seed);
+        }
+    }
+
+    @Test
+    void combinedPartialsEqualOneAccumulator() {
+        List<ParsedLog> logs = randomLogs(99, 500);
+        LogMetricsAccumulator whole = new LogMetricsAccumulator();
+        logs.forEach(whole);
+
+        LogMetricsAccumulator left = new LogMetricsAccumulator();
+        LogMetricsAccumulator right = new LogMetricsAccumulator();
+        logs.subList(0, 123).forEach(left);
+        logs.subList(123, logs.size()).forEach(right);
+
+        assertEquals(whole.toMetrics().toString(), right.combine(left).toMetrics().toString());
+        assertEquals(whole.toMetrics().toString(),
+                logs.parallelStream().collect(LogMetricsAccumulator.collector()).toString());
+    }
+
+    @Test
+    void emptyAccumulatorReportsPlaceholders() {
+        LogMetricsAnalyzer.LogMetrics metrics = new LogMetricsAccumulator().toMetrics();
+        assertEquals(0, metrics.getTotalCount());
+        assertEquals("-", metrics.getFirstTimestamp());
+        assertEquals("-", metrics.getLastTimestamp());
+    }
+}
@@ -0,0 +1,116 @@
+package com.bugmind.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for cursor-based paging: concatenated pages must equal the unpaged query.
+ */
+public class LogPagingTest {
+
+    private static LogRepository randomRepository(long seed, int entries) {
+        Random random = new Random(seed);
+        String[] levels = {"INFO", "WARN", "ERROR"};
+        LogRepository repo = new LogRepository(new ChunkedLogStore());
+        for (int i = 0; i < entries; i++) {
+            // Few distinct seconds and messages, so groups and duplicates are common
+            String ts = random.nextInt(15) == 0
+                    ? "not a time"
+                    : String.format("2025-10-30 10:%02d:%02d", random.nextInt(3), random.nextInt(4));
+            repo.add(new ParsedLog(ts, levels[random.nextInt(levels.length)], "msg " + random.nextInt(6), null));
+        }
+        return repo;
+    }
+
+    private static List<ParsedLog> drain(LogRepository repo, List<String> levels, LocalDateTime from,
+                                         LocalDateTime to, boolean desc, int pageSize) {
+        List<ParsedLog> all = new ArrayList<>();
+        String cursor = null;
+        do {
+            LogPage page = repo.findByLevelsPage(levels, from, to, desc, pageSize, cursor);
+            assertTrue(page.getItems().size() <= pageSize);
+            if (page.hasMore()) {
+                assertEquals(pageSize, page.getItems().size());
+            }
+            all.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return all;
+    }
+
+    @Test
+    void pagesConcatenateToTheUnpagedResult() {
+        for (long seed = 0; seed < 20; seed++) {
+            LogRepository repo = randomRepository(seed, 300);
+            for (List<String> levels : List.of(List.of("ERROR"), List.of("INFO", "WARN", "ERROR"))) {
+                for (boolean desc : new boolean[] {false, true}) {
+                    List<ParsedLog> expected = repo.findByLevelsSorted(levels, desc);
+                    for (int pageSize : new int[] {1, 2, 7, 1000}) {
+                        assertEquals(expected, drain(repo, levels, null, null, desc, pageSize),
+                                "seed=" + seed + " levels=" + levels + " desc=" + desc + " size=" + pageSize);
+                    }
+                }
+                LocalDateTime from = LocalDateTime.of(2025, 10, 30, 10, 0, 2);
+                LocalDateTime to = LocalDateTime.of(2025, 10, 30, 10, 1, 1);
+                assertEquals(repo.findByLevelsAndRange(levels, from, to, true, 0),
+                        drain(repo, levels, from, to, true, 3));
+            }
+        }
+    }
+
+    @Test
+    void laterPagesKeepTheFirstPageSnapshot() {
+        LogRepository repo = new LogRepository(new ChunkedLogStore());
+        for (int i = 0; i < 10; i++) {
+            repo.add(new ParsedLog(String.format("2025-10-30 10:00:%02d", i), "INFO", "old " + i, null));
+        }
+        LogPage first = repo.findByLevelsPage(List.of("INFO"), null, null, false, 4, null);
+        repo.add(new ParsedLog("2025-10-30 11:00:00", "INFO", "new", null));
+
+        List<ParsedLog> rest = new ArrayList<>();
+        String cursor = first.getNextCursor();
+        while (cursor != null) {
+            LogPage page = repo.findByLevelsPage(List.of("INFO"), null, null, false, 4, cursor);
+            rest.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        }
+        assertEquals(6, rest.size());
+        assertTrue(rest.stream().noneMatch(l -> l.getMessage().equals("new")));
+    }
+
+    @Test
+    void findAllPagesInInsertionOrder() {
+        LogRepository repo = randomRepository(7, 25);
+        List<ParsedLog> all = new ArrayList<>();
+        String cursor = null;
+        do {
+            LogPage page = repo.findAllPage(10, cursor);
+            all.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(repo.findAll(), all);
+    }
+
+    @Test
+    void controllerValidatesPagingArguments() {
+        LogRepository repo = randomRepository(3, 50);
+        LogController controller = new LogController(new LogService(repo));
+        LogPage page = controller.getLogsByLevelPage("error,warn", null, null, "desc", 5, "");
+        assertEquals(5, page.getItems().size());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> controller.getLogsByLevelPage("ERROR", null, null, "asc", 0, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> controller.getLogsByLevelPage("ERROR", null, null, "asc", 5, "not-a-cursor"));
+        assertThrows(IllegalArgumentException.class,
+                () -> controller.getLogsByLevelPage("ERROR,WARN", null, null, "asc", 5, page.getNextCursor()));
+        assertThrows(IllegalArgumentException.class,
+                () -> controller.getAllLogsPage(5, page.getNextCursor()));
+    }
+}
@@ -0,0 +1,145 @@
+package com.bugmind.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the streaming {@link LogParser#parse(Reader)} entry points.
+ */
+public class LogParserStreamingTest {
+
+    private final LogParser parser = new LogParser();
+
+    private static final String LOGS = """
+            [2025-10-27T21:10:00Z] ERROR - OutOfMemoryError occurred in worker
+                at com.example.Worker.run(Worker.java:42)
+            Caused by: java.lang.OutOfMemoryError: Java heap space
+                at com.example.Allocator.alloc(Allocator.java:101)
+            [2025-10-27 21:12:00.123] WARN - Slow response time detected
+            [2025-10-27T21:15:00+05:30] INFO - System recovered
+            """;
+
+    @Test
+    void streamingMatchesStringParsing() {
+        List<String> expected = parser.parseLogs(LOGS).stream()
+                .map(ParsedLog::toString)
+                .collect(Collectors.toList());
+
+        try (Stream<ParsedLog> entries = parser.parse(new StringReader(LOGS))) {
+            List<String> actual = entries.map(ParsedLog::toString).collect(Collectors.toList());
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void handlesCrLfAndInputStreams() {
+        String crlf = LOGS.replace("\n", "\r\n");
+        try (Stream<ParsedLog> entries = parser.parse(
+                new ByteArrayInputStream(crlf.getBytes(StandardCharsets.UTF_8)))) {
+            List<ParsedLog> parsed = entries.collect(Collectors.toList());
+            assertEquals(3, parsed.size());
+            assertEquals("java.lang.OutOfMemoryError", parsed.get(0).getExceptionType());
+            assertEquals("Slow response time detected", parsed.get(1).getMessage());
+        }
+    }
+
+    /** Deep traces with every line shape the byte path must hand back to the decoder. */
+    private static byte[] deepTraces() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int e = 0; e < 6; e++) {
+            StringBuilder sb = new StringBuilder();
+            sb.append("[2025-10-28 08:00:0").append(e).append("] ERROR - failure ").append(e).append('\n');
+            sb.append("java.lang.IllegalStateException: broken\n");
+            for (int f = 0; f < 40; f++) {
+                switch ((f + e) % 9) {
+                    case 0 -> sb.append("\tat com.example.Deep.call").append(f).append("(Deep.java:").append(f).append(")\r\n");
+                    case 1 -> sb.append("\n");
+                    case 2 -> sb.append("    at com.example.Ünïcode.run(Ü.java:").append(f).append(")\n");
+                    case 3 -> sb.append("\u00a0at com.example.Nbsp.run(N.java:1)\n");
+                    case 4 -> sb.append("    at Caused by: com.example.Hidden").append(f).append("Exception\n");
+                    case 5 -> sb.append("    at com.example.Sep.run(S.java:1)\u2028tail\n");
+                    case 6 -> sb.append("    at \n");
+                    case 7 -> sb.append("    at com.example.Mid\rCr.run(M.java:2)\n");
+                    default -> sb.append("    at com.example.Plain.run(Plain.java:").append(f).append(")\n");
+                }
+            }
+            if (e % 2 == 0) {
+                sb.append("Caused by: java.io.IOException: root ").append(e).append('\n');
+                sb.append("    at com.example.Io.read(Io.java:7)\n");
+            }
+            out.writeBytes(sb.toString().getBytes(StandardCharsets.UTF_8));
+            // Malformed UTF-8 inside a dropped-looking frame and at the end of the input
+            out.writeBytes(new byte[] {' ', 'a', 't', ' ', 'x', (byte) 0xC3, '(', ')', '\n'});
+        }
+        out.writeBytes(new byte[] {'[', '2', '0', (byte) 0xE2, (byte) 0x82});
+        return out.toByteArray();
+    }
+
+    /** Hands out at most {@code step} bytes per read so lines straddle the read buffer. */
+    private static InputStream trickle(byte[] bytes, int step) {
+        return new ByteArrayInputStream(bytes) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, step));
+            }
+        };
+    }
+
+    @Test
+    void byteParsingMatchesDecodedParsing() {
+        byte[] bytes = deepTraces();
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        for (LogParser p : List.of(parser, new LogParser(new FrameDictionary()))) {
+            List<String> expected = p.parseLogs(text).stream()
+                    .map(ParsedLog::toString)
+                    .collect(Collectors.toList());
+            assertEquals(6, expected.size());
+            for (InputStream in : List.of(new ByteArrayInputStream(bytes), trickle(bytes, 5))) {
+                try (Stream<ParsedLog> entries = p.parse(in)) {
+                    assertEquals(expected, entries.map(ParsedLog::toString).collect(Collectors.toList()));
+                }
+            }
+        }
+    }
+
+    @Test
+    void entriesAreEmittedBeforeInputIsExhausted() {
+        // An endless source: parsing must hand entries out as headers arrive
+        Reader endless = new Reader() {
+            private long counter;
+            private String pending = "";
+
+            @Override
+            public int read(char[] cbuf, int off, int len) {
+                if (pending.isEmpty()) {
+                    pending = "[2025-10-27 21:00:00] INFO - entry " + (counter++) + "\n";
+                }
+                int n = Math.min(len, pending.length());
+                pending.getChars(0, n, cbuf, off);
+                pending = pending.substring(n);
+                return n;
+            }
+
+            @Override
+            public void close() { }
+        };
+
+        try (Stream<ParsedLog> entries = parser.parse(endless)) {
+            List<String> firstThree = entries.limit(3)
+                    .map(ParsedLog::getMessage)
+                    .collect(Collectors.toList());
+            assertEquals(List.of("entry 0", "entry 1", "entry 2"), firstThree);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.bugmind.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Concurrent writers and readers against {@link LogRepository}.
+ */
+public class LogRepositoryConcurrencyTest {
+
+    private static final int WRITERS = 6;
+    private static final int PER_WRITER = 5_000;
+    private static final String[] LEVELS = {"INFO", "WARN", "ERROR", "DEBUG"};
+
+    @Test
+    void chunkedStoreSurvivesConcurrentWritersAndReaders() throws Exception {
+        stress(ChunkedLogStore::new);
+    }
+
+    @Test
+    void columnarStoreSurvivesConcurrentWritersAndReaders() throws Exception {
+        stress(() -> new ColumnarLogStore(4096));
+    }
+
+    @Test
+    void listenerThatAddsEntriesSeesEachEntryOnceInOrder() {
+        LogRepository repo = new LogRepository(new ChunkedLogStore());
+        List<String> seen = new ArrayList<>();
+        repo.addListener(log -> {
+            seen.add(log.getMessage());
+            // Re-enters add() on the publishing thread
+            if (log.getLevel().equals("ERROR")) {
+                repo.add(new ParsedLog(log.getTimestamp(), "WARN", "alert for " + log.getMessage(), null));
+            }
+        });
+        for (int i = 0; i < 3; i++) {
+            repo.add(new ParsedLog("2025-10-27 10:00:0" + i, "ERROR", "failure " + i, null));
+        }
+
+        assertEquals(6, repo.size());
+        assertEquals(repo.findAll().stream().map(ParsedLog::getMessage).toList(), seen);
+        assertEquals(3, repo.findByLevel("ERROR").size());
+        assertEquals(3, repo.findByLevel("WARN").size());
+        assertEquals(3, repo.searchMessages("alert", null, null, null, false, 0).size());
+    }
+
+    private void stress(Supplier<LogStore> backend) throws Exception {
+        LogRepository repo = new LogRepository(backend.get());
+        AtomicInteger notified = new AtomicInteger();
+        repo.addListener(log -> notified.incrementAndGet());
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS + 2);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                int writer = w;
+                writers.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < PER_WRITER; i++) {
+                        String ts = String.format("2025-10-27 %02d:%02d:%02d", i / 3600 % 24, i / 60 % 60, i % 60);
+                        String message = "writer " + writer + " entry " + i;
+                        repo.add(new ParsedLog(ts, LEVELS[i % LEVELS.length], message, null));
+                        // Read-your-writes: the entry is queryable as soon as add returns
+                        if (i % 1000 == 0) {
+                            LocalDateTime at = LocalDateTime.parse(ts.replace(' ', 'T'));
+                            boolean found = repo.findByLevelsAndRange(List.of(LEVELS[i % LEVELS.length]), at, at, false, 0)
+                                    .stream().anyMatch(log -> message.equals(log.getMessage()));
+                            assertTrue(found, message);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < 2; r++) {
+                readers.add(pool.submit(() -> {
+                    start.await();
+                    int lastAll = 0;
+                    int lastErrors = 0;
+                    while (writing.get()) {
+                        List<ParsedLog> all = repo.findAll();
+                        assertTrue(all.size() >= lastAll);
+                        all.forEach(log -> assertNotNull(log.getMessage()));
+                        lastAll = all.size();
+
+                        List<ParsedLog> errors = repo.findByLevelsSorted(List.of("ERROR"), false);
+                        assertTrue(errors.size() >= lastErrors);
+                        lastErrors = errors.size();
+                        for (int i = 1; i < errors.size(); i++) {
+                            assertFalse(errors.get(i).getParsedTimestamp()
+                                    .isBefore(errors.get(i - 1).getParsedTimestamp()));
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(60, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            for (Future<?> reader : readers) {
+                reader.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        int total = WRITERS * PER_WRITER;
+        assertEquals(total, repo.size());
+        List<ParsedLog> all = repo.findAll();
+        assertEquals(total, all.size());
+        Set<String> messages = all.stream().map(ParsedLog::getMessage).collect(Collectors.toSet());
+        assertEquals(total, messages.size());
+        assertEquals(total, notified.get());
+        for (String level : LEVELS) {
+            assertEquals(total / LEVELS.length, repo.findByLevel(level).size(), level);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.bugmind.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that index-backed {@link LogRepository#findByLevelsSorted} returns exactly
+ * what the former filter/dedupe/sort scan returned.
+ */
+public class LogRepositoryIndexTest {
+
+    private static final String[] LEVELS = {"INFO", "info", "WARN", "ERROR", "DEBUG", null};
+    private static final String[] TIMESTAMPS = {
+            "2025-10-30 10:00:00", "2025-10-30 10:01:00", "10/30/2025 10:01:00",
+            "2025/10/30 09:59:00", "", "garbage", "2025-10-30 10:02:00"};
+
+    @Test
+    void matchesReferenceScanOnRandomData() {
+        Random random = new Random(11);
+        LogRepository repository = new LogRepository(new ChunkedLogStore());
+        List<ParsedLog> all = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            ParsedLog log = new ParsedLog(
+                    TIMESTAMPS[random.nextInt(TIMESTAMPS.length)],
+                    LEVELS[random.nextInt(LEVELS.length)],
+                    "message " + random.nextInt(40),
+                    null);
+            repository.add(log);
+            all.add(log);
+        }
+
+        List<List<String>> queries = List.of(
+                List.of("INFO"), List.of("ERROR", "WARN"), List.of("INFO", "ERROR", "INFO"),
+                List.of("info"), List.of("TRACE"), List.of("DEBUG", "WARN", "ERROR", "INFO"));
+        for (List<String> levels : queries) {
+            for (boolean desc : new boolean[] {false, true}) {
+                assertEquals(render(reference(all, levels, desc)),
+                        render(repository.findByLevelsSorted(levels, desc)),
+                        levels + " desc=" + desc);
+            }
+        }
+    }
+
+    /** The pre-index implementation of findByLevelsSorted. */
+    private static List<ParsedLog> reference(List<ParsedLog> logs, List<String> levels, boolean desc) {
+        Comparator<ParsedLog> comparator = desc
+                ? Comparator.comparing(ParsedLog::getParsedTimestamp, Comparator.nullsLast(Comparator.reverseOrder()))
+                : Comparator.comparing(ParsedLog::getParsedTimestamp, Comparator.nullsLast(Comparator.naturalOrder()));
+        Set<String> seen = new HashSet<>();
+        return logs.stream()
+                .filter(l -> l.getLevel() != null && levels.contains(l.getLevel().toUpperCase()))
+                .filter(l -> seen.add(l.getTimestamp() + "|" + l.getMessage()))
+                .sorted(comparator)
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> render(List<ParsedLog> logs) {
+        return logs.stream().map(ParsedLog::toString).collect(Collectors.toList());
+    }
+}
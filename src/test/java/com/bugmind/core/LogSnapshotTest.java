@@ -0,0 +1,142 @@
+package com.bugmind.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link LogSnapshot} and the {@link LogEntryCodec} block format.
+ */
+public class LogSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    private static List<ParsedLog> sampleLogs(int count) {
+        Random random = new Random(17);
+        String[] timestamps = {
+                "2025-10-30 10:00:00", "2025-10-30T10:00:00.123Z", "10/30/2025 10:02:00", "not a time", "", null
+        };
+        String[] levels = {"INFO", "ERROR", "WARN", "custom", null};
+        String[] exceptions = {null, null, "java.io.IOException", "NullPointerException"};
+        List<ParsedLog> logs = new ArrayList<>();
+        LocalDateTime base = LocalDateTime.of(2025, 10, 30, 10, 0);
+        for (int i = 0; i < count; i++) {
+            String message = random.nextInt(10) == 0 ? null : "Entry " + i + " é☃ " + "x".repeat(random.nextInt(50));
+            int kind = random.nextInt(timestamps.length + 1);
+            ParsedLog log;
+            if (kind == timestamps.length) {
+                // Parser-supplied value, as LogParser would hand it over
+                LocalDateTime parsed = base.plusSeconds(random.nextInt(100_000) - 50_000);
+                log = new ParsedLog(parsed.toString(), levels[random.nextInt(levels.length)], message,
+                        exceptions[random.nextInt(exceptions.length)], parsed);
+            } else {
+                log = new ParsedLog(timestamps[kind], levels[random.nextInt(levels.length)], message,
+                        exceptions[random.nextInt(exceptions.length)]);
+            }
+            logs.add(log);
+        }
+        return logs;
+    }
+
+    private static void assertSameEntries(List<ParsedLog> expected, List<ParsedLog> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            ParsedLog e = expected.get(i);
+            ParsedLog a = actual.get(i);
+            assertEquals(e.toString(), a.toString(), "entry " + i);
+            assertEquals(e.getTimestamp(), a.getTimestamp(), "entry " + i);
+            assertEquals(e.getMessage(), a.getMessage(), "entry " + i);
+            assertEquals(e.getParsedTimestamp(), a.getParsedTimestamp(), "entry " + i);
+        }
+    }
+
+    @Test
+    void roundTripsAcrossManySmallBlocks() throws IOException {
+        List<ParsedLog> logs = sampleLogs(5_000);
+        Path file = dir.resolve("logs.snap");
+        LogSnapshot snapshot = new LogSnapshot(1024);
+        assertEquals(5_000, snapshot.write(logs, file));
+        assertFalse(Files.exists(dir.resolve("logs.snap.tmp")));
+
+        List<ParsedLog> read = new ArrayList<>();
+        assertEquals(5_000, snapshot.read(file, read::add));
+        assertSameEntries(logs, read);
+    }
+
+    @Test
+    void restoresRepositoryWithItsIndexes() throws IOException {
+        LogRepository original = new LogRepository(new ColumnarLogStore());
+        sampleLogs(2_000).forEach(original::add);
+        Path file = dir.resolve("repo.snap");
+        new LogSnapshot().write(original, file);
+
+        LogRepository restored = new LogRepository(new ChunkedLogStore());
+        assertEquals(2_000, new LogSnapshot().load(file, restored));
+        assertSameEntries(original.findAll(), restored.findAll());
+        assertSameEntries(original.findByLevelsSorted(List.of("ERROR", "custom"), true),
+                restored.findByLevelsSorted(List.of("ERROR", "custom"), true));
+    }
+
+    @Test
+    void emptySnapshotRoundTrips() throws IOException {
+        Path file = dir.resolve("empty.snap");
+        assertEquals(0, new LogSnapshot().write(List.of(), file));
+        assertEquals(0, new LogSnapshot().read(file, log -> fail("no entries expected")));
+    }
+
+    @Test
+    void readsVersionOneFilesWithoutLogCoverage() throws IOException {
+        Path file = dir.resolve("v2.snap");
+        List<ParsedLog> logs = sampleLogs(40);
+        new LogSnapshot(512).write(logs, file);
+        byte[] bytes = Files.readAllBytes(file);
+        // Version 1 ends after the entry count
+        byte[] v1 = Arrays.copyOf(bytes, bytes.length - 8);
+        v1[5] = 1;
+        Path old = dir.resolve("v1.snap");
+        Files.write(old, v1);
+
+        List<ParsedLog> read = new ArrayList<>();
+        long[] walRecords = {-1};
+        assertEquals(40, new LogSnapshot().read(old, read::add, walRecords));
+        assertEquals(0, walRecords[0]);
+        assertSameEntries(logs, read);
+    }
+
+    @Test
+    void rejectsCorruptTruncatedAndForeignFiles() throws IOException {
+        Path file = dir.resolve("logs.snap");
+        new LogSnapshot(512).write(sampleLogs(300), file);
+        byte[] bytes = Files.readAllBytes(file);
+
+        byte[] flipped = bytes.clone();
+        flipped[bytes.length / 2] ^= 0x40;
+        assertCorrupt(flipped, "checksum mismatch");
+
+        assertCorrupt(Arrays.copyOf(bytes, bytes.length - 5), "");
+        assertCorrupt(Arrays.copyOf(bytes, bytes.length / 3), "");
+
+        byte[] foreign = bytes.clone();
+        foreign[0] = 'X';
+        assertCorrupt(foreign, "bad magic");
+    }
+
+    private void assertCorrupt(byte[] content, String reason) throws IOException {
+        Path bad = dir.resolve("bad.snap");
+        Files.write(bad, content);
+        List<ParsedLog> read = new ArrayList<>();
+        IOException e = assertThrows(IOException.class, () -> new LogSnapshot().read(bad, read::add));
+        assertTrue(e.getMessage().contains(reason), e.getMessage());
+    }
+}
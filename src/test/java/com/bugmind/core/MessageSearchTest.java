@@ -0,0 +1,186 @@
+package com.bugmind.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for full-text message search through {@link MessageIndex}, the repository and the controller.
+ */
+public class MessageSearchTest {
+
+    private static final String[] WORDS = {
+            "timeout", "Timeout", "refused", "connection", "ORD-4711", "ORD-4712", "host-a.prod", "host-b.prod",
+            "com.example.Repo", "com.example.RepoCache", "user_42", "payment", "retry", "4711", "ok", "ümlaut"
+    };
+    private static final List<String> LEVELS = List.of("INFO", "WARN", "ERROR");
+
+    private static LogRepository randomRepository(Random random, int count) {
+        return randomRepository(random, count, new ChunkedLogStore());
+    }
+
+    private static LogRepository randomRepository(Random random, int count, LogStore store) {
+        LogRepository repository = new LogRepository(store);
+        List<ParsedLog> added = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (i > 0 && random.nextInt(25) == 0) {
+                // Exact duplicate of an earlier entry: dropped by the (timestamp + message) dedup
+                repository.add(added.get(random.nextInt(added.size())));
+                continue;
+            }
+            StringBuilder message = new StringBuilder();
+            int words = 1 + random.nextInt(6);
+            for (int w = 0; w < words; w++) {
+                message.append(w == 0 ? "" : random.nextBoolean() ? " " : ", ").append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            String ts = random.nextInt(20) == 0 ? "garbage" : String.format("2025-10-30 10:%02d:%02d",
+                    random.nextInt(60), random.nextInt(4));
+            String level = LEVELS.get(random.nextInt(LEVELS.size()));
+            if (random.nextInt(10) == 0 && !ts.equals("garbage")) {
+                // Sub-second timestamps order within their second
+                LocalDateTime parsed = LocalDateTime.parse(ts.replace(' ', 'T')).plusNanos(random.nextInt(3) * 250_000_000L);
+                added.add(new ParsedLog(ts, level, message.toString(), null, parsed));
+            } else {
+                added.add(new ParsedLog(ts, level, message.toString(), null));
+            }
+            repository.add(added.get(added.size() - 1));
+        }
+        return repository;
+    }
+
+    // Brute-force semantics, written independently of MessageQuery. Lower-cased messages, their
+    // tokens and term patterns are cached: the reference scan visits every entry for every query.
+    private static final Pattern WORD = Pattern.compile("[A-Za-z0-9_]+");
+    private static final Map<String, String> LOWER = new HashMap<>();
+    private static final Map<String, Set<String>> TOKENS = new HashMap<>();
+    private static final Map<String, Pattern> PATTERNS = new HashMap<>();
+
+    private static boolean termMatches(String term, String message) {
+        String lower = LOWER.computeIfAbsent(message, m -> m.toLowerCase(Locale.ROOT));
+        if (WORD.matcher(term).matches()) {
+            return TOKENS.computeIfAbsent(lower, m -> new HashSet<>(Arrays.asList(m.split("[^\\p{L}\\p{N}_]+"))))
+                    .contains(term.toLowerCase(Locale.ROOT));
+        }
+        return PATTERNS.computeIfAbsent(term, t -> Pattern.compile("(?<![\\p{L}\\p{N}_])"
+                + Pattern.quote(t.toLowerCase(Locale.ROOT)) + "(?![\\p{L}\\p{N}_])")).matcher(lower).find();
+    }
+
+    private static boolean referenceMatches(List<List<String>> alternatives, String message) {
+        return alternatives.stream().anyMatch(terms -> terms.stream().allMatch(t -> termMatches(t, message)));
+    }
+
+    // Columnar stores hand out fresh objects, so compare what the entries hold
+    private static String describe(ParsedLog log) {
+        return log.getParsedTimestamp() + " " + log;
+    }
+
+    @Test
+    void matchesBruteForceScanInOrder() {
+        // Enough entries that common tokens get long, skip-indexed posting lists
+        matchesBruteForceScanInOrder(randomRepository(new Random(21), 6_000));
+        matchesBruteForceScanInOrder(randomRepository(new Random(22), 6_000, new ColumnarLogStore()));
+    }
+
+    private static void matchesBruteForceScanInOrder(LogRepository repository) {
+        Random random = new Random(23);
+        for (int q = 0; q < 150; q++) {
+            List<List<String>> alternatives = new ArrayList<>();
+            StringBuilder query = new StringBuilder();
+            int ors = 1 + random.nextInt(2);
+            for (int a = 0; a < ors; a++) {
+                List<String> terms = new ArrayList<>();
+                for (int t = 0; t <= random.nextInt(3); t++) {
+                    String term = random.nextInt(12) == 0 ? "absent" : WORDS[random.nextInt(WORDS.length)];
+                    terms.add(term);
+                    query.append(query.length() == 0 ? "" : t == 0 ? " OR " : " AND ").append(term);
+                }
+                alternatives.add(terms);
+            }
+            List<String> levels = random.nextBoolean() ? List.of() : List.of(LEVELS.get(random.nextInt(3)));
+            LocalDateTime from = random.nextBoolean() ? null : LocalDateTime.of(2025, 10, 30, 10, random.nextInt(60));
+            LocalDateTime to = random.nextInt(3) > 0 ? null
+                    : LocalDateTime.of(2025, 10, 30, 10, random.nextInt(60), random.nextInt(4), 250_000_000);
+            boolean desc = random.nextBoolean();
+            int limit = random.nextInt(3) == 0 ? 0 : 1 + random.nextInt(50);
+
+            List<String> expected = repository.findByLevelsAndRange(levels.isEmpty() ? LEVELS : levels,
+                            from, to, desc, 0).stream()
+                    .filter(log -> referenceMatches(alternatives, log.getMessage()))
+                    .limit(limit > 0 ? limit : Long.MAX_VALUE)
+                    .map(MessageSearchTest::describe)
+                    .toList();
+            List<String> actual = repository.searchMessages(query.toString(), levels, from, to, desc, limit).stream()
+                    .map(MessageSearchTest::describe)
+                    .toList();
+            assertEquals(expected, actual, query::toString);
+        }
+    }
+
+    @Test
+    void postingListsSurviveConcurrentAppends() throws InterruptedException {
+        LogRepository repository = new LogRepository(new ChunkedLogStore());
+        AtomicBoolean done = new AtomicBoolean();
+        List<Throwable> failures = new ArrayList<>();
+        Thread reader = new Thread(() -> {
+            int last = 0;
+            // A fixed number of searches keeps the reader from monopolising a single CPU
+            for (int search = 0; search < 200 && !done.get(); search++) {
+                try {
+                    List<ParsedLog> hits = repository.searchMessages("needle", List.of(), null, null, false, 0);
+                    assertTrue(hits.size() >= last);
+                    assertTrue(hits.stream().allMatch(l -> l.getMessage().contains("needle")));
+                    last = hits.size();
+                } catch (Throwable t) {
+                    failures.add(t);
+                    return;
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 20_000; i++) {
+            String message = i % 3 == 0 ? "needle " + i : "hay " + i;
+            repository.add(new ParsedLog("2025-10-30 10:00:00", "INFO", message, null));
+        }
+        done.set(true);
+        reader.join();
+        assertEquals(List.of(), failures);
+        assertEquals(6_667, repository.searchMessages("needle", null, null, null, false, 0).size());
+    }
+
+    @Test
+    void controllerSearchesAcrossLevelsAndValidatesInput() {
+        LogRepository repository = new LogRepository(new ChunkedLogStore());
+        repository.add(new ParsedLog("2025-10-30 10:00:00", "ERROR", "Payment ORD-4711 failed: timeout", null));
+        repository.add(new ParsedLog("2025-10-30 10:01:00", "INFO", "Payment ORD-4711 retried", null));
+        repository.add(new ParsedLog("2025-10-30 10:02:00", "WARN", "ORD-47110 slow", null));
+        LogController controller = new LogController(new LogService(repository));
+
+        assertEquals(2, controller.searchLogs("ord-4711 payment", "", null, null, "asc", 0).size());
+        List<ParsedLog> latest = controller.searchLogs("timeout OR slow", null, null, null, "desc", 1);
+        assertEquals("ORD-47110 slow", latest.get(0).getMessage());
+        assertEquals(1, controller.searchLogs("payment", "error", null, null, "asc", 0).size());
+        assertEquals(2, controller.searchLogs("payment", " , ", null, null, "asc", 0).size());
+        assertEquals(1, repository.searchMessages("payment", Arrays.asList(null, " ", "error"), null, null, false, 0)
+                .size());
+        assertEquals(2, repository.searchMessages("payment", Arrays.asList((String) null), null, null, false, 0)
+                .size());
+
+        assertThrows(IllegalArgumentException.class, () -> controller.searchLogs(" ", null, null, null, "asc", 0));
+        assertThrows(IllegalArgumentException.class, () -> controller.searchLogs("a OR", null, null, null, "asc", 0));
+        assertThrows(IllegalArgumentException.class, () -> controller.searchLogs("--", null, null, null, "asc", 0));
+        assertThrows(IllegalArgumentException.class, () -> controller.searchLogs("a", null, null, null, "asc", -1));
+    }
+}
@@ -0,0 +1,41 @@
+package com.bugmind.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for lazy and pre-parsed timestamps in {@link ParsedLog}.
+ */
+public class ParsedLogTest {
+
+    @Test
+    void parsesTimestampLazilyInSupportedFormats() {
+        ParsedLog slash = new ParsedLog("10/30/2025 10:02:00", "ERROR", "boom", null);
+        assertEquals(LocalDateTime.of(2025, 10, 30, 10, 2), slash.getParsedTimestamp());
+
+        ParsedLog invalid = new ParsedLog("not a time", "INFO", "x", null);
+        assertNull(invalid.getParsedTimestamp());
+        assertNull(invalid.getParsedTimestamp(), "Unparseable result is remembered");
+    }
+
+    @Test
+    void usesSuppliedParsedTimestamp() {
+        LocalDateTime supplied = LocalDateTime.of(2025, 10, 27, 21, 10);
+        ParsedLog log = new ParsedLog("2025-10-27 21:10:00", "INFO", "x", null, supplied);
+        assertSame(supplied, log.getParsedTimestamp());
+
+        log.setTimestamp("2025-10-28 08:00:00");
+        assertEquals(LocalDateTime.of(2025, 10, 28, 8, 0), log.getParsedTimestamp());
+    }
+
+    @Test
+    void parserHandsOverDecodedTimestamps() {
+        LogParser parser = new LogParser();
+        ParsedLog log = parser.parseLine("[2025-10-27T21:10:00.250+05:30] WARN - Disk threshold close");
+        assertEquals("2025-10-27 21:10:00", log.getTimestamp());
+        assertEquals(LocalDateTime.of(2025, 10, 27, 21, 10), log.getParsedTimestamp());
+    }
+}
@@ -0,0 +1,102 @@
+package com.bugmind.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link RollingLevelHistogram}.
+ */
+public class RollingLevelHistogramTest {
+
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 10, 30, 10, 0, 0);
+
+    private static ParsedLog at(LocalDateTime time, String level) {
+        return new ParsedLog(time.format(FORMAT), level, "m", null);
+    }
+
+    @Test
+    void countsErrorsPerMinuteOverTheLastHour() {
+        RollingLevelHistogram histogram = new RollingLevelHistogram();
+        // Two hours of traffic: one ERROR per minute, plus a WARN every 10 seconds
+        for (int s = 0; s < 2 * 3600; s += 10) {
+            LocalDateTime time = BASE.plusSeconds(s);
+            histogram.accept(at(time, "WARN"));
+            if (s % 60 == 0) {
+                histogram.accept(at(time, "error"));
+            }
+        }
+
+        long[] perMinute = histogram.series("ERROR", ChronoUnit.MINUTES, 60);
+        assertEquals(60, perMinute.length);
+        for (long count : perMinute) {
+            assertEquals(1, count);
+        }
+        assertEquals(60, histogram.count("ERROR", Duration.ofHours(1)));
+        assertEquals(30, histogram.count("WARN", Duration.ofMinutes(5)));
+        assertEquals(0.1, histogram.ratePerSecond("WARN", Duration.ofMinutes(5)), 1e-9);
+        assertEquals(6, histogram.count("warn", Duration.ofSeconds(60)));
+        assertEquals(BASE.plusSeconds(2 * 3600 - 10), histogram.latest());
+    }
+
+    @Test
+    void dropsEntriesOlderThanEachTier() {
+        RollingLevelHistogram histogram = new RollingLevelHistogram(60, 60, 24);
+        histogram.accept(at(BASE, "INFO"));
+        histogram.accept(at(BASE.plusMinutes(90), "INFO"));
+        // Late arrival: behind the minute tier's window, still inside the hour tier
+        histogram.accept(at(BASE.plusMinutes(1), "INFO"));
+
+        LocalDateTime end = BASE.plusMinutes(90);
+        assertEquals(1, histogram.count("INFO", Duration.ofMinutes(60), end));
+        assertEquals(3, histogram.count("INFO", Duration.ofHours(2), end));
+        assertEquals(3, histogram.window(Duration.ofHours(24), end).count("INFO"));
+    }
+
+    @Test
+    void feedsFromRepositoryListener() {
+        LogRepository repo = new LogRepository(new ChunkedLogStore());
+        RollingLevelHistogram histogram = new RollingLevelHistogram();
+        repo.addListener(histogram);
+        repo.addListener(log -> {
+            throw new IllegalStateException("broken listener");
+        });
+        repo.add(at(BASE, "ERROR"));
+        repo.add(at(BASE.plusSeconds(1), "ERROR"));
+        repo.add(new ParsedLog("not a time", "ERROR", "m", null));
+
+        assertEquals(3, repo.size());
+        assertEquals(2, histogram.count("ERROR", Duration.ofSeconds(10)));
+        assertEquals(1, histogram.untimedCount());
+    }
+
+    @Test
+    void ratesDivideByTheBucketsCovered() {
+        RollingLevelHistogram histogram = new RollingLevelHistogram();
+        assertEquals(0.0, histogram.ratePerSecond("WARN", Duration.ofMillis(500)));
+        // One WARN per second for ten minutes
+        for (int s = 0; s < 600; s++) {
+            histogram.accept(at(BASE.plusSeconds(s), "WARN"));
+        }
+        // A sub-second window covers the newest one-second bucket
+        assertEquals(1.0, histogram.ratePerSecond("WARN", Duration.ofMillis(500)), 1e-9);
+        // 90.5s is answered from two whole minute buckets
+        assertEquals(120, histogram.count("WARN", Duration.ofMillis(90_500)));
+        assertEquals(1.0, histogram.ratePerSecond("WARN", Duration.ofMillis(90_500)), 1e-9);
+        assertThrows(IllegalArgumentException.class, () -> histogram.ratePerSecond("WARN", Duration.ZERO));
+    }
+
+    @Test
+    void rejectsWindowsBeyondRetention() {
+        RollingLevelHistogram histogram = new RollingLevelHistogram();
+        assertThrows(IllegalArgumentException.class, () -> histogram.count("INFO", Duration.ofDays(2), BASE));
+        assertThrows(IllegalArgumentException.class, () -> histogram.count("INFO", Duration.ZERO, BASE));
+        assertThrows(IllegalArgumentException.class, () -> histogram.series("INFO", ChronoUnit.DAYS, 1));
+    }
+}
@@ -0,0 +1,157 @@
+package com.bugmind.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that the regex-free, incremental {@link StackTraceCollapser} matches
+ * the former regex implementation byte for byte, standalone and inside {@link LogParser}.
+ */
+public class StackTraceCollapserEquivalenceTest {
+
+    // The implementation StackTraceCollapser had before the incremental rewrite
+    private static final Pattern CAUSED_BY_PATTERN =
+            Pattern.compile("Caused by:\\s+([A-Za-z0-9_$.]+(?:Exception|Error|Throwable))");
+    private static final Pattern STACK_LINE_PATTERN = Pattern.compile("^\\s*(at\\s+.+)$");
+
+    private static StackTraceCollapser.Result reference(String message, int maxLines) {
+        if (message == null || message.isBlank()) {
+            return new StackTraceCollapser.Result("", null);
+        }
+        StringBuilder collapsed = new StringBuilder();
+        String lastCause = null;
+        int totalFrames = 0;
+        for (String line : message.split("\\r?\\n")) {
+            Matcher cb = CAUSED_BY_PATTERN.matcher(line);
+            if (cb.find()) {
+                lastCause = cb.group(1);
+            }
+            if (STACK_LINE_PATTERN.matcher(line).find()) {
+                totalFrames++;
+                if (totalFrames <= maxLines) {
+                    collapsed.append(line.trim()).append(System.lineSeparator());
+                }
+            } else {
+                collapsed.append(line.trim()).append(System.lineSeparator());
+            }
+        }
+        if (totalFrames > maxLines) {
+            collapsed.append("… (").append(totalFrames - maxLines).append(" more)");
+        }
+        return new StackTraceCollapser.Result(collapsed.toString().trim(), lastCause);
+    }
+
+    private static final String[] FRAGMENTS = {
+            "at ", "at\t", "at", " ", "\t", "\r", "\n", "\r\n", "\u000B", "\f", "\u0085", "\u2028", "\u0001",
+            "Caused by:", "Caused by: ", "java.io.IOException", "Error", "Throwable", "x.YError", "$", ".",
+            "com.example.Foo.bar(Foo.java:1)", "Exception", "oops", "\u00A0", "…"
+    };
+
+    private static String randomText(Random random, int pieces) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < pieces; i++) {
+            sb.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+        }
+        return sb.toString();
+    }
+
+    private static void assertSameResult(StackTraceCollapser.Result expected, StackTraceCollapser.Result actual,
+                                         String input) {
+        String shown = input.replace("\r", "\\r").replace("\n", "\\n");
+        assertEquals(expected.collapsedMessage(), actual.collapsedMessage(), () -> "message for: " + shown);
+        assertEquals(expected.rootException(), actual.rootException(), () -> "root cause for: " + shown);
+    }
+
+    @Test
+    void collapseMatchesFormerRegexImplementation() {
+        Random random = new Random(11);
+        for (int i = 0; i < 30_000; i++) {
+            String message = randomText(random, random.nextInt(30));
+            int maxLines = random.nextInt(4);
+            assertSameResult(reference(message, maxLines), StackTraceCollapser.collapseAndExtract(message, maxLines),
+                    message);
+        }
+    }
+
+    @Test
+    void collapsesLongTracesLikeBefore() {
+        StringBuilder sb = new StringBuilder("Operation failed\n");
+        for (int i = 0; i < 40; i++) {
+            sb.append("    at com.example.Worker.step").append(i).append("(Worker.java:").append(i).append(")\n");
+        }
+        sb.append("Caused by: java.lang.IllegalStateException: bad\n\n\n");
+        String message = sb.toString();
+        assertSameResult(reference(message, 12), StackTraceCollapser.collapseAndExtract(message, 12), message);
+    }
+
+    @Test
+    void parserOutputMatchesAssemblingThenCollapsing() {
+        Random random = new Random(5);
+        String[] lineKinds = {
+                "[2025-10-27 21:10:00] ERROR - ", "[2025-10-27 21:10:01] INFO -", "    at a.B.c(B.java:1)",
+                "\tat x.Y.z(Unknown Source)", "Caused by: java.io.IOException: x", "", "   ", "plain text"
+        };
+        for (int i = 0; i < 3_000; i++) {
+            StringBuilder text = new StringBuilder();
+            int lines = random.nextInt(40);
+            for (int l = 0; l < lines; l++) {
+                text.append(lineKinds[random.nextInt(lineKinds.length)]);
+                if (random.nextInt(3) == 0) {
+                    text.append(randomText(random, random.nextInt(4)).replace("\n", ""));
+                }
+                text.append(random.nextInt(5) == 0 ? "\r\n" : "\n");
+            }
+            String input = text.toString();
+            List<String> expected = referenceParse(input);
+            List<String> actual = new LogParser().parseLogs(input).stream().map(ParsedLog::toString).toList();
+            assertEquals(expected, actual, () -> input.replace("\r", "\\r").replace("\n", "\\n"));
+        }
+    }
+
+    /** The former assembly: build the raw message with line separators, then collapse it. */
+    private static List<String> referenceParse(String text) {
+        List<String> out = new ArrayList<>();
+        if (text.isBlank()) {
+            return out;
+        }
+        Pattern exceptionPattern = Pattern.compile("([A-Za-z0-9_$.]+(?:Exception|Error|Throwable))");
+        LogLineScanner scanner = new LogLineScanner();
+        TimestampNormalizer timestamps = new TimestampNormalizer();
+        StringBuilder message = new StringBuilder();
+        String ts = null;
+        String level = null;
+        List<String> lines = new ArrayList<>(List.of(text.split("\\r?\\n", -1)));
+        lines.add(null);
+        for (String line : lines) {
+            boolean header = line == null || scanner.scan(line) == LogLineScanner.LineKind.HEADER;
+            if (header) {
+                if (ts != null && message.length() > 0) {
+                    StackTraceCollapser.Result r = reference(message.toString(), 12);
+                    String exception = r.rootException();
+                    if (exception == null) {
+                        Matcher m = exceptionPattern.matcher(r.collapsedMessage());
+                        exception = m.find() ? m.group(1) : null;
+                    }
+                    out.add(new ParsedLog(ts, level, r.collapsedMessage(), exception).toString());
+                    message.setLength(0);
+                }
+                if (line == null) {
+                    break;
+                }
+                ts = timestamps.normalize(line, scanner.timestampStart(), scanner.timestampEnd());
+                level = line.substring(scanner.levelStart(), scanner.levelEnd());
+                message.append(line.substring(scanner.messageStart(), scanner.messageEnd()).trim());
+            } else if (!line.isBlank()) {
+                message.append(System.lineSeparator()).append(line.trim());
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,58 @@
+package com.bugmind.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the fast path of {@link TimestampNormalizer} agrees with the formatter fallback.
+ */
+public class TimestampNormalizerTest {
+
+    private final TimestampNormalizer normalizer = new TimestampNormalizer();
+
+    @Test
+    void normalizesKnownLayouts() {
+        assertEquals("2025-10-27 21:10:00", normalizer.normalize("2025-10-27T21:10:00Z"));
+        assertEquals("2025-10-27 21:10:00", normalizer.normalize("2025-10-27 21:10:00.123"));
+        assertEquals("2025-10-27 21:10:00", normalizer.normalize("2025-10-27T21:10:00+05:30"));
+        assertEquals("2025-10-27 21:10:00", normalizer.normalize("2025-10-27 21:10"));
+        assertEquals("2025-10-27 21:10:05", normalizer.normalize(" 2025-10-27T21:10:05.999-07:00 "));
+        assertEquals("", normalizer.normalize("   "));
+    }
+
+    @Test
+    void fastPathMatchesFormatterFallback() {
+        List<String> samples = List.of(
+                "2024-02-29 10:00:00", "2023-02-29 10:00:00", "2025-04-31 10:00:00",
+                "2025-10-27 24:00:00", "2025-10-27 21:60:00", "0000-01-01 00:00:00",
+                "2025-10-27 21:10:00.12", "2025-10-27 21:10:00.1234", "2025-10-27 21:10:00Z+05:30",
+                "2025-10-27 21:10:00-07:00Z", "2025/10/27 21:10:00", "2025-10-27T21:10:00T",
+                "2025-10-27 21:10+05:30", "2025-10-27 21:10:00.123Z");
+        for (String sample : samples) {
+            assertEquals(TimestampNormalizer.normalizeSlow(sample), normalizer.normalize(sample), sample);
+        }
+
+        Random random = new Random(7);
+        String[] seps = {" ", "T"};
+        String[] suffixes = {"", "Z", "+05:30", "-07:00", ".123", ".123Z", ".123+01:00", ":5", "x"};
+        for (int i = 0; i < 5_000; i++) {
+            String ts = String.format("%04d-%02d-%02d%s%02d:%02d%s%s",
+                    random.nextInt(3000), random.nextInt(14), random.nextInt(33),
+                    seps[random.nextInt(2)], random.nextInt(26), random.nextInt(62),
+                    random.nextBoolean() ? String.format(":%02d", random.nextInt(62)) : "",
+                    suffixes[random.nextInt(suffixes.length)]);
+            assertEquals(TimestampNormalizer.normalizeSlow(ts), normalizer.normalize(ts), ts);
+        }
+    }
+
+    @Test
+    void reusesRenderedStringWithinTheSameSecond() {
+        String first = normalizer.normalize("2025-10-27 21:10:00.001");
+        String second = normalizer.normalize("2025-10-27T21:10:00.999Z");
+        assertSame(first, second);
+    }
+}
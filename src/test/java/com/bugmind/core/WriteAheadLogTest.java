@@ -0,0 +1,275 @@
+package com.bugmind.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link WriteAheadLog} and durable {@link LogRepository} instances.
+ */
+public class WriteAheadLogTest {
+
+    @TempDir
+    Path dir;
+
+    private static ParsedLog entry(int i) {
+        return new ParsedLog(String.format("2025-10-30 10:%02d:%02d", (i / 60) % 60, i % 60),
+                i % 7 == 0 ? "ERROR" : "INFO", "entry " + i, i % 7 == 0 ? "java.io.IOException" : null);
+    }
+
+    private List<Path> segments() throws IOException {
+        return segments(dir);
+    }
+
+    private static List<Path> segments(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private List<String> replay(WriteAheadLog wal) throws IOException {
+        List<String> out = new ArrayList<>();
+        wal.replay(log -> out.add(log.toString()));
+        return out;
+    }
+
+    @Test
+    void concurrentAddsSurviveRestart() throws IOException {
+        List<String> expected;
+        try (WriteAheadLog wal = new WriteAheadLog(dir, new WriteAheadLog.Options())) {
+            LogRepository repository = new LogRepository(new ChunkedLogStore(), wal);
+            IntStream.range(0, 2_000).parallel().forEach(i -> repository.add(entry(i)));
+            assertEquals(2_000, wal.durableRecords());
+            expected = repository.findAll().stream().map(ParsedLog::toString).sorted().toList();
+        }
+
+        try (WriteAheadLog wal = new WriteAheadLog(dir, new WriteAheadLog.Options())) {
+            LogRepository restored = new LogRepository(new ColumnarLogStore(), wal);
+            assertEquals(2_000, restored.size());
+            assertEquals(expected, restored.findAll().stream().map(ParsedLog::toString).sorted().toList());
+            assertEquals(2_000 / 7 + 1, restored.findByLevel("ERROR").size());
+
+            restored.add(entry(5_000));
+            assertEquals(2_001, wal.durableRecords());
+        }
+    }
+
+    @Test
+    void snapshotCheckpointsTheLog() throws Exception {
+        Path logDir = dir.resolve("wal");
+        Path snapshot = dir.resolve("logs.snap");
+        WriteAheadLog.Options options = new WriteAheadLog.Options().segmentBytes(2_048).retentionBytes(0);
+        List<String> expected;
+        try (WriteAheadLog wal = new WriteAheadLog(logDir, options)) {
+            LogRepository repository = new LogRepository(new ChunkedLogStore(), wal, snapshot);
+            // Snapshot while writers are busy: every entry must end up exactly once
+            Thread writer = new Thread(() -> IntStream.range(0, 2_000).parallel().forEach(i -> repository.add(entry(i))));
+            writer.start();
+            while (repository.size() < 500) {
+                Thread.onSpinWait();
+            }
+            long written = new LogSnapshot(1_024).write(repository, snapshot);
+            writer.join();
+            assertTrue(written >= 500 && written <= 2_000, "wrote " + written);
+            // 500 entries fill several 2 KB segments; those the snapshot covers are gone
+            assertFalse(Files.exists(logDir.resolve(String.format("wal-%020d.log", 0))));
+            expected = repository.findAll().stream().map(ParsedLog::toString).sorted().toList();
+            assertEquals(2_000, expected.size());
+        }
+
+        try (WriteAheadLog wal = new WriteAheadLog(logDir, options)) {
+            LogRepository restored = new LogRepository(new ColumnarLogStore(), wal, snapshot);
+            assertEquals(expected, restored.findAll().stream().map(ParsedLog::toString).sorted().toList());
+            assertEquals(2_000 / 7 + 1, restored.findByLevel("ERROR").size());
+            assertThrows(IllegalStateException.class, () -> new LogSnapshot().load(snapshot, restored));
+
+            // A second snapshot moves the checkpoint to the end of the log
+            restored.add(entry(5_000));
+            new LogSnapshot().write(restored, snapshot);
+            assertEquals(1, segments(logDir).size());
+        }
+
+        try (WriteAheadLog wal = new WriteAheadLog(logDir, options)) {
+            // Without the snapshot the deleted records cannot be recovered
+            assertThrows(IOException.class, () -> new LogRepository(new ChunkedLogStore(), wal));
+            LogRepository restored = new LogRepository(new ChunkedLogStore(), wal, snapshot);
+            assertEquals(2_001, restored.size());
+        }
+    }
+
+    @Test
+    void seedSnapshotWithoutLogRecordsIsReplayedInFront() throws IOException {
+        Path snapshot = dir.resolve("seed.snap");
+        new LogSnapshot().write(IntStream.range(0, 50).mapToObj(WriteAheadLogTest::entry).toList(), snapshot);
+        Path logDir = dir.resolve("wal");
+        try (WriteAheadLog wal = new WriteAheadLog(logDir, new WriteAheadLog.Options())) {
+            LogRepository repository = new LogRepository(new ChunkedLogStore(), wal, snapshot);
+            for (int i = 50; i < 80; i++) {
+                repository.add(entry(i));
+            }
+            new LogSnapshot().write(repository, snapshot);
+            repository.add(entry(80));
+        }
+        try (WriteAheadLog wal = new WriteAheadLog(logDir, new WriteAheadLog.Options())) {
+            LogRepository restored = new LogRepository(new ChunkedLogStore(), wal, snapshot);
+            assertEquals(IntStream.rangeClosed(0, 80).mapToObj(i -> entry(i).toString()).toList(),
+                    restored.findAll().stream().map(ParsedLog::toString).toList());
+        }
+    }
+
+    @Test
+    void rollsSegmentsAndDeletesBeyondRetention() throws IOException {
+        WriteAheadLog.Options options = new WriteAheadLog.Options().segmentBytes(2_048).syncBytes(512);
+        try (WriteAheadLog wal = new WriteAheadLog(dir, options)) {
+            for (int i = 0; i < 500; i++) {
+                wal.append(entry(i));
+            }
+            wal.flush();
+            assertTrue(segments().size() > 3, "expected several segments, got " + segments());
+            assertEquals(IntStream.range(0, 500).mapToObj(i -> entry(i).toString()).toList(), replay(wal));
+        }
+
+        options.retentionBytes(4_096);
+        try (WriteAheadLog wal = new WriteAheadLog(dir, options)) {
+            for (int i = 500; i < 1_000; i++) {
+                wal.append(entry(i));
+            }
+            wal.flush();
+            // Nothing is stored elsewhere yet, so nothing may be deleted
+            assertEquals(IntStream.range(0, 1_000).mapToObj(i -> entry(i).toString()).toList(), replay(wal));
+
+            // Only segments whose records all lie below the checkpoint may go
+            wal.checkpoint(600);
+            List<String> kept = replay(wal);
+            assertTrue(kept.size() >= 400 && kept.size() < 1_000, "kept " + kept.size());
+            assertEquals(IntStream.range(1_000 - kept.size(), 1_000).mapToObj(i -> entry(i).toString()).toList(), kept);
+
+            wal.checkpoint(1_000);
+            List<Path> closed = segments().subList(0, segments().size() - 1);
+            long closedBytes = 0;
+            for (Path path : closed) {
+                closedBytes += Files.size(path);
+            }
+            assertTrue(closedBytes <= 4_096, "retained " + closedBytes + " bytes");
+
+            // What is left is the newest suffix of the log
+            List<String> left = replay(wal);
+            assertFalse(left.isEmpty());
+            assertEquals(IntStream.range(1_000 - left.size(), 1_000).mapToObj(i -> entry(i).toString()).toList(), left);
+            List<String> fromCheckpoint = new ArrayList<>();
+            assertEquals(10, wal.replay(990, log -> fromCheckpoint.add(log.toString())));
+            assertEquals(left.subList(left.size() - 10, left.size()), fromCheckpoint);
+            assertThrows(IOException.class, () -> wal.replay(0, log -> { }));
+        }
+    }
+
+    @Test
+    void cutsTornTailAndKeepsAppending() throws IOException {
+        try (WriteAheadLog wal = new WriteAheadLog(dir, new WriteAheadLog.Options())) {
+            for (int i = 0; i < 10; i++) {
+                wal.awaitDurable(wal.append(entry(i)));
+            }
+        }
+        Path segment = segments().get(0);
+        long goodSize = Files.size(segment);
+        // A crash in the middle of a block write leaves a partial block behind
+        Files.write(segment, new byte[]{0, 0, 1, 0, 7, 7, 7}, StandardOpenOption.APPEND);
+
+        try (WriteAheadLog wal = new WriteAheadLog(dir, new WriteAheadLog.Options())) {
+            assertEquals(goodSize, Files.size(segment));
+            assertEquals(10, wal.durableRecords());
+            wal.awaitDurable(wal.append(entry(10)));
+            assertEquals(IntStream.rangeClosed(0, 10).mapToObj(i -> entry(i).toString()).toList(), replay(wal));
+        }
+    }
+
+    @Test
+    void recreatesNewestSegmentTornWhileRolling() throws IOException {
+        try (WriteAheadLog wal = new WriteAheadLog(dir, new WriteAheadLog.Options())) {
+            for (int i = 0; i < 5; i++) {
+                wal.awaitDurable(wal.append(entry(i)));
+            }
+        }
+        Path rolled = dir.resolve(String.format("wal-%020d.log", 5));
+        byte[] header = ByteBuffer.allocate(WriteAheadLog.HEADER_BYTES)
+                .putInt(WriteAheadLog.MAGIC).putShort(WriteAheadLog.VERSION).putShort((short) 0).putLong(5).array();
+        // Crash right after CREATE_NEW, part-way through the header, or before its bytes reached the disk
+        List<byte[]> tornHeaders = List.of(new byte[0], Arrays.copyOf(header, 7), new byte[WriteAheadLog.HEADER_BYTES]);
+        for (byte[] torn : tornHeaders) {
+            Files.write(rolled, torn);
+            try (WriteAheadLog wal = new WriteAheadLog(dir, new WriteAheadLog.Options())) {
+                assertEquals(5, wal.durableRecords());
+                assertArrayEquals(header, Arrays.copyOf(Files.readAllBytes(rolled), WriteAheadLog.HEADER_BYTES));
+                wal.awaitDurable(wal.append(entry(5)));
+                assertEquals(IntStream.range(0, 6).mapToObj(i -> entry(i).toString()).toList(), replay(wal));
+            }
+            Files.delete(rolled);
+        }
+
+        // A bad header on a file that may hold records is not silently dropped
+        byte[] foreign = new byte[WriteAheadLog.HEADER_BYTES + 40];
+        Files.write(rolled, foreign);
+        assertThrows(IOException.class, () -> new WriteAheadLog(dir, new WriteAheadLog.Options()).close());
+    }
+
+    @Test
+    void replayStopsAtCorruptBlockInClosedSegment() throws IOException {
+        WriteAheadLog.Options options = new WriteAheadLog.Options().segmentBytes(1_024).syncBytes(256);
+        try (WriteAheadLog wal = new WriteAheadLog(dir, options)) {
+            for (int i = 0; i < 200; i++) {
+                wal.append(entry(i));
+            }
+        }
+        List<Path> segments = segments();
+        assertTrue(segments.size() > 2);
+        Path second = segments.get(1);
+        byte[] bytes = Files.readAllBytes(second);
+        bytes[bytes.length - 3] ^= 0x10;
+        Files.write(second, bytes);
+
+        try (WriteAheadLog wal = new WriteAheadLog(dir, options)) {
+            List<String> replayed = replay(wal);
+            assertTrue(replayed.size() < 200);
+            assertEquals(IntStream.range(0, replayed.size()).mapToObj(i -> entry(i).toString()).toList(), replayed);
+        }
+    }
+
+    @Test
+    void backgroundFlusherCommitsWithoutWaiters() throws Exception {
+        WriteAheadLog.Options options = new WriteAheadLog.Options().waitForSync(false)
+                .syncInterval(Duration.ofMillis(5));
+        try (WriteAheadLog wal = new WriteAheadLog(dir, options)) {
+            LogRepository repository = new LogRepository(new ChunkedLogStore(), wal);
+            for (int i = 0; i < 100; i++) {
+                repository.add(entry(i));
+            }
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (wal.durableRecords() < 100 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(100, wal.durableRecords());
+        }
+    }
+
+    @Test
+    void rejectsInvalidOptions() {
+        WriteAheadLog.Options options = new WriteAheadLog.Options();
+        assertThrows(IllegalArgumentException.class, () -> options.segmentBytes(8));
+        assertThrows(IllegalArgumentException.class, () -> options.syncBytes(0));
+        assertThrows(IllegalArgumentException.class, () -> options.syncInterval(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> options.retentionBytes(-1));
+    }
+}